@@ -0,0 +1,32 @@
+package org.tanzu.thstudio.publish;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.tanzu.thstudio.TaupHatStudioApplication;
+
+import java.util.UUID;
+
+/**
+ * Starts the application without a web server against a private in-memory H2 database
+ * (the {@code local} profile) and fills it with a {@link SyntheticDataset}.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(SyntheticDataset dataset) {
+        var context = new SpringApplicationBuilder(TaupHatStudioApplication.class)
+                .profiles("local")
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "--logging.level.root=WARN",
+                        // Measure templates as they are served in production, not re-parsed on every render
+                        "--tauphat.publish.templates.cache-mode=production",
+                        "--tauphat.publish.staging.enabled=false");
+        dataset.populate(context);
+        return context;
+    }
+}
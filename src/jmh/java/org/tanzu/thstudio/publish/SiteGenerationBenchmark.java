@@ -0,0 +1,107 @@
+package org.tanzu.thstudio.publish;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.tanzu.thstudio.publish.PublishPropertiesBuilder.from;
+
+/**
+ * End-to-end {@link SiteGeneratorService#generate()}: snapshot queries against H2,
+ * rendering, gzip and hashing, static assets and assembly of the {@link GeneratedSite}.
+ * <p>
+ * With {@code incremental=false} every build renders every page; with {@code true} all
+ * builds after the first reuse every page, which is the cost of a no-op republish.
+ * The {@link Footprint} counters report what one build holds on to.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SiteGenerationBenchmark {
+
+    @Param({"5x10x20/100x10", "20x50x30/1000x50"})
+    public String dataset;
+
+    @Param({"false", "true"})
+    public boolean incremental;
+
+    private ConfigurableApplicationContext context;
+    private SiteGeneratorService generator;
+    private ContentStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var synthetic = SyntheticDataset.parse(dataset);
+        context = BenchmarkApplication.start(synthetic);
+        var properties = context.getBean(PublishProperties.class);
+        store = context.getBean(ContentStore.class);
+        generator = new SiteGeneratorService(context.getBean(SiteRendererService.class),
+                context.getBean(PublishSnapshotLoader.class), store,
+                context.getBean(CompressedArtifactCache.class),
+                from(properties).render(new PublishProperties.RenderProperties(incremental,
+                        properties.render().parallelism())).build());
+
+        var site = generator.generate();
+        if (site.fileCount() != synthetic.expectedFiles()) {
+            throw new IllegalStateException("Expected " + synthetic.expectedFiles() + " files but generated "
+                    + site.fileCount());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public GeneratedSite generate(Footprint footprint) {
+        var site = generator.generate();
+        footprint.record(site, store);
+        return site;
+    }
+
+    /**
+     * Size of the most recent build: file count, uncompressed and gzipped bytes, and how much
+     * of the gzipped content the {@link ContentStore} currently keeps on the heap versus on disk.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long files;
+        public long reusedFiles;
+        public long uncompressedBytes;
+        public long gzippedBytes;
+        public long storeHeapBytes;
+        public long storeSpilledBytes;
+
+        void record(GeneratedSite site, ContentStore store) {
+            files = site.fileCount();
+            reusedFiles = site.reusedCount();
+            uncompressedBytes = 0;
+            gzippedBytes = 0;
+            for (var entry : site.getFiles().values()) {
+                uncompressedBytes += entry.size();
+                gzippedBytes += entry.gzipped().size();
+            }
+            storeHeapBytes = store.heapBytes();
+            storeSpilledBytes = store.spilledBytes();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.tanzu.thstudio.publish;
+
+import org.springframework.context.ApplicationContext;
+import org.tanzu.thstudio.portfolio.PortfolioItem;
+import org.tanzu.thstudio.portfolio.PortfolioItemRepository;
+import org.tanzu.thstudio.portfolio.PortfolioSet;
+import org.tanzu.thstudio.portfolio.PortfolioSetRepository;
+import org.tanzu.thstudio.webcomic.WebcomicIssue;
+import org.tanzu.thstudio.webcomic.WebcomicIssueRepository;
+import org.tanzu.thstudio.webcomic.WebcomicPage;
+import org.tanzu.thstudio.webcomic.WebcomicPageRepository;
+import org.tanzu.thstudio.webcomic.WebcomicSeries;
+import org.tanzu.thstudio.webcomic.WebcomicSeriesRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+/**
+ * Generates a synthetic CMS catalogue: {@code series} × {@code issuesPerSeries} ×
+ * {@code pagesPerIssue} webcomic pages and {@code portfolioItems} portfolio items, of which
+ * half are spread over {@code sets} sets.
+ * <p>
+ * Sizes are written as {@code NxMxP/KxS}, e.g. {@code 5x10x20/100x10}, so they can be
+ * used directly as a JMH {@code @Param}.
+ */
+record SyntheticDataset(int series, int issuesPerSeries, int pagesPerIssue, int portfolioItems, int sets) {
+
+    static SyntheticDataset parse(String spec) {
+        var parts = spec.split("/");
+        var comics = parts[0].split("x");
+        var portfolio = parts[1].split("x");
+        return new SyntheticDataset(Integer.parseInt(comics[0]), Integer.parseInt(comics[1]),
+                Integer.parseInt(comics[2]), Integer.parseInt(portfolio[0]), Integer.parseInt(portfolio[1]));
+    }
+
+    /**
+     * Number of files a build of this dataset produces.
+     */
+    int expectedFiles() {
+        // css, home, comics index, portfolio, commissions, about + static assets
+        return 6 + SiteGeneratorService.STATIC_ASSETS.size()
+                + series * (1 + issuesPerSeries)
+                + sets;
+    }
+
+    /**
+     * Replaces all content in the application's database with this dataset.
+     */
+    void populate(ApplicationContext context) {
+        var seriesRepository = context.getBean(WebcomicSeriesRepository.class);
+        var issueRepository = context.getBean(WebcomicIssueRepository.class);
+        var pageRepository = context.getBean(WebcomicPageRepository.class);
+        var itemRepository = context.getBean(PortfolioItemRepository.class);
+        var setRepository = context.getBean(PortfolioSetRepository.class);
+
+        pageRepository.deleteAllInBatch();
+        issueRepository.deleteAllInBatch();
+        seriesRepository.deleteAllInBatch();
+        itemRepository.deleteAllInBatch();
+        setRepository.deleteAllInBatch();
+
+        for (int s = 1; s <= series; s++) {
+            var comic = new WebcomicSeries();
+            comic.setTitle("Series " + s);
+            comic.setSlug("series-" + s);
+            comic.setDescription(("A synthetic series used for benchmarking, number " + s + ". ").repeat(4));
+            comic.setCoverImageUrl(image("series/" + s + "/cover"));
+            comic.setSortOrder(s);
+            comic.setActive(true);
+            comic = seriesRepository.save(comic);
+
+            var pages = new ArrayList<WebcomicPage>();
+            for (int i = 1; i <= issuesPerSeries; i++) {
+                var issue = new WebcomicIssue();
+                issue.setSeries(comic);
+                issue.setIssueNumber(i);
+                issue.setTitle("Issue " + i + " of series " + s);
+                issue.setCoverImageUrl(image("series/" + s + "/" + i + "/cover"));
+                issue.setPublishDate(LocalDate.of(2020, 1, 1).plusDays((long) s * issuesPerSeries + i));
+                issue.setPublished(true);
+                issue = issueRepository.save(issue);
+                for (int p = 1; p <= pagesPerIssue; p++) {
+                    var page = new WebcomicPage();
+                    page.setIssue(issue);
+                    page.setPageNumber(p);
+                    page.setImageUrl(image("series/" + s + "/" + i + "/" + p));
+                    page.setOptimizedUrl(image("series/" + s + "/" + i + "/" + p + "-optimized"));
+                    page.setThumbnailUrl(image("series/" + s + "/" + i + "/" + p + "-thumb"));
+                    pages.add(page);
+                }
+            }
+            pageRepository.saveAll(pages);
+        }
+
+        var savedSets = new ArrayList<PortfolioSet>();
+        for (int k = 1; k <= sets; k++) {
+            var set = new PortfolioSet();
+            set.setTitle("Set " + k);
+            set.setDescription("A synthetic portfolio set.");
+            set.setIconImageUrl(image("sets/" + k + "/icon"));
+            set.setSortOrder(k);
+            savedSets.add(setRepository.save(set));
+        }
+        var items = new ArrayList<PortfolioItem>();
+        for (int k = 0; k < portfolioItems; k++) {
+            var item = new PortfolioItem();
+            item.setTitle("Item " + k);
+            item.setDescription("Synthetic portfolio item " + k + ".");
+            item.setImageUrl(image("portfolio/" + k));
+            item.setOptimizedUrl(image("portfolio/" + k + "-optimized"));
+            item.setThumbnailUrl(image("portfolio/" + k + "-thumb"));
+            item.setCategory(k % 3 == 0 ? "illustration" : k % 3 == 1 ? "sketch" : "comic");
+            item.setImageWidth(1200);
+            item.setImageHeight(1600);
+            item.setSortOrder(k);
+            if (!savedSets.isEmpty() && k % 2 == 0) {
+                item.setSet(savedSets.get(k / 2 % savedSets.size()));
+                item.setSetSortOrder(k);
+            }
+            items.add(item);
+        }
+        itemRepository.saveAll(items);
+    }
+
+    private static String image(String path) {
+        return "https://storage.googleapis.com/tauphat-benchmark/" + path + ".webp";
+    }
+}
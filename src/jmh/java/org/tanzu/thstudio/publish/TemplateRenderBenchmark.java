@@ -0,0 +1,126 @@
+package org.tanzu.thstudio.publish;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders each site template once per invocation, into a writer that discards the output,
+ * so the numbers cover Thymeleaf processing only (no gzip, hashing or storage).
+ * <p>
+ * The series detail, issue reader and set pages render the middle series, issue and set
+ * of the dataset.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemplateRenderBenchmark {
+
+    @Param({"5x10x20/100x10", "20x50x30/1000x50"})
+    public String dataset;
+
+    private ConfigurableApplicationContext context;
+    private SiteRendererService renderer;
+    private PublishSnapshot snapshot;
+    private LayoutFragments layout;
+    private PublishSnapshot.SeriesSnapshot series;
+    private PublishSnapshot.IssueSnapshot issue;
+    private PublishSnapshot.SetSnapshot set;
+    private Map<Long, Integer> issueCounts;
+    private Map<Long, Integer> itemCounts;
+    private final Writer out = Writer.nullWriter();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(SyntheticDataset.parse(dataset));
+        renderer = context.getBean(SiteRendererService.class);
+        snapshot = context.getBean(PublishSnapshotLoader.class).load();
+        layout = renderer.renderLayout(snapshot.config(), snapshot.copyrightYear());
+        series = snapshot.series().get(snapshot.series().size() / 2);
+        issue = series.issues().get(series.issues().size() / 2);
+        set = snapshot.sets().get(snapshot.sets().size() / 2);
+        issueCounts = new LinkedHashMap<>();
+        snapshot.series().forEach(s -> issueCounts.put(s.series().getId(), s.issues().size()));
+        itemCounts = new LinkedHashMap<>();
+        snapshot.sets().forEach(s -> itemCounts.put(s.set().getId(), s.items().size()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void layout(Blackhole blackhole) {
+        blackhole.consume(renderer.renderLayout(snapshot.config(), snapshot.copyrightYear()));
+    }
+
+    @Benchmark
+    public void styleCss() {
+        renderer.renderStyleCss(out, snapshot.config());
+    }
+
+    @Benchmark
+    public void home() {
+        var latest = snapshot.latestSeries();
+        renderer.renderHome(out, layout, snapshot.activeSeries(), snapshot.portfolioItems(),
+                latest.issues().getFirst().issue(), latest.series());
+    }
+
+    @Benchmark
+    public void seriesList() {
+        renderer.renderSeriesList(out, layout, snapshot.activeSeries(), issueCounts);
+    }
+
+    @Benchmark
+    public void seriesDetail() {
+        renderer.renderSeriesDetail(out, layout, series.series(), series.publishedIssues());
+    }
+
+    @Benchmark
+    public void issueReader() {
+        renderer.renderIssueReader(out, layout, series.series(), issue.issue(), issue.pages(),
+                issue.previous(), issue.next());
+    }
+
+    @Benchmark
+    public void portfolio() {
+        var sets = snapshot.sets().stream().map(PublishSnapshot.SetSnapshot::set).toList();
+        renderer.renderPortfolio(out, layout, snapshot.standaloneItems(), sets, itemCounts);
+    }
+
+    @Benchmark
+    public void portfolioSet() {
+        renderer.renderPortfolioSet(out, layout, set.set(), set.items());
+    }
+
+    @Benchmark
+    public void about() {
+        renderer.renderAbout(out, layout);
+    }
+
+    @Benchmark
+    public void commissions() {
+        renderer.renderCommissions(out, layout);
+    }
+}
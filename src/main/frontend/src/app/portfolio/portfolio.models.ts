@@ -1,3 +1,5 @@
+import { ImageStatus } from '../shared/image-status/image-status.service';
+
 export interface PortfolioItem {
   id: number | null;
   title: string;
@@ -5,6 +7,7 @@ export interface PortfolioItem {
   imageUrl: string | null;
   thumbnailUrl: string | null;
   optimizedUrl: string | null;
+  imageStatus: ImageStatus;
   category: string | null;
   sortOrder: number;
   setId: number | null;
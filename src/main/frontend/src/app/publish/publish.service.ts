@@ -2,26 +2,110 @@ import { Injectable } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
 import { Observable } from 'rxjs';
 
-export interface PreviewResponse {
-  status: string;
-  previewUrl?: string;
+export interface DeployResult {
+  versionName: string;
+  url: string;
   fileCount: number;
-  timestamp: string;
-  message?: string;
+  uploadedFiles: number;
+  skippedFiles: number;
+  uploadedBytes: number;
+  skippedBytes: number;
 }
 
 export interface DeployResponse {
   status: string;
   siteUrl?: string;
   fileCount?: number;
+  deploy?: DeployResult;
+  timestamp: string;
+  message?: string;
+}
+
+export interface LiveRelease {
+  versionName: string;
+  releasedAt: string;
+  fileCount: number;
+}
+
+export interface ReleasesResponse {
+  status: string;
+  releases?: LiveRelease[];
   timestamp: string;
   message?: string;
 }
 
+export interface RollbackResponse {
+  status: string;
+  release?: LiveRelease;
+  timestamp?: string;
+  message?: string;
+}
+
+export type PublishTarget = 'preview' | 'live';
+
+export type PublishStage = 'QUERY' | 'RENDER' | 'COMPRESS' | 'POPULATE' | 'UPLOAD' | 'FINALIZE' | 'RELEASE';
+
+export interface PublishJob {
+  id: string;
+  target: 'PREVIEW' | 'LIVE';
+  state: 'RUNNING' | 'SUCCEEDED' | 'FAILED';
+  stage: PublishStage | null;
+  completed: number;
+  total: number;
+  startedAt: string;
+  finishedAt: string | null;
+  result: DeployResult | null;
+  error: string | null;
+}
+
+export interface StartJobResponse {
+  status: string;
+  jobId: string;
+  attached: boolean;
+  job: PublishJob;
+  timestamp: string;
+}
+
+export interface PlannedFile {
+  path: string;
+  owner: string;
+  contentType: string;
+  stale: boolean;
+}
+
+export interface PublishHistoryEntry {
+  id: number;
+  jobId: string;
+  target: 'PREVIEW' | 'LIVE';
+  outcome: 'SUCCEEDED' | 'FAILED';
+  startedAt: string;
+  finishedAt: string;
+  durationMs: number;
+  queryMs: number | null;
+  renderMs: number | null;
+  compressMs: number | null;
+  populateMs: number | null;
+  uploadMs: number | null;
+  finalizeMs: number | null;
+  releaseMs: number | null;
+  versionName: string | null;
+  fileCount: number | null;
+  renderedFiles: number | null;
+  renderedBytes: number | null;
+  uploadedFiles: number | null;
+  uploadedBytes: number | null;
+  skippedFiles: number | null;
+  skippedBytes: number | null;
+  uploadRetries: number;
+  error: string | null;
+}
+
 export interface PreviewSummaryResponse {
   status: string;
   fileCount: number;
+  staleCount: number;
   files: string[];
+  manifest: PlannedFile[];
   timestamp: string;
   message?: string;
 }
@@ -32,12 +116,78 @@ export class PublishService {
 
   constructor(private readonly http: HttpClient) {}
 
-  generatePreview(): Observable<PreviewResponse> {
-    return this.http.post<PreviewResponse>(`${this.baseUrl}/preview`, null);
+  promotePreview(): Observable<DeployResponse> {
+    return this.http.post<DeployResponse>(`${this.baseUrl}/promote`, null);
+  }
+
+  getReleases(): Observable<ReleasesResponse> {
+    return this.http.get<ReleasesResponse>(`${this.baseUrl}/releases`);
+  }
+
+  rollback(versionName: string): Observable<RollbackResponse> {
+    return this.http.post<RollbackResponse>(`${this.baseUrl}/rollback`, { versionName });
+  }
+
+  startJob(target: PublishTarget): Observable<StartJobResponse> {
+    return this.http.post<StartJobResponse>(`${this.baseUrl}/jobs`, null, { params: { target } });
+  }
+
+  getJob(id: string): Observable<PublishJob> {
+    return this.http.get<PublishJob>(`${this.baseUrl}/jobs/${id}`);
+  }
+
+  /** URL of a job's server-sent event stream, for use with EventSource. */
+  jobEventsUrl(id: string): string {
+    return `${this.baseUrl}/jobs/${id}/events`;
+  }
+
+  /**
+   * Follows a job over its event stream, emitting the job as each stage and progress event
+   * arrives and completing once it has finished. If the stream drops, the job is fetched
+   * once instead.
+   */
+  watchJob(job: PublishJob): Observable<PublishJob> {
+    return new Observable<PublishJob>((subscriber) => {
+      let current = job;
+      const events = new EventSource(this.jobEventsUrl(job.id), { withCredentials: true });
+      const emit = (next: PublishJob) => {
+        current = next;
+        subscriber.next(next);
+      };
+      events.addEventListener('status', (e) => emit(JSON.parse((e as MessageEvent).data)));
+      events.addEventListener('stage', (e) => {
+        const { stage } = JSON.parse((e as MessageEvent).data);
+        emit({ ...current, stage, completed: 0, total: 0 });
+      });
+      events.addEventListener('progress', (e) => {
+        const { stage, completed, total } = JSON.parse((e as MessageEvent).data);
+        emit({ ...current, stage, completed, total });
+      });
+      events.addEventListener('complete', (e) => {
+        events.close();
+        emit(JSON.parse((e as MessageEvent).data));
+        subscriber.complete();
+      });
+      events.onerror = () => {
+        events.close();
+        this.getJob(job.id).subscribe({
+          next: (latest) => {
+            emit(latest);
+            if (latest.state === 'RUNNING') {
+              subscriber.error(new Error('Lost the connection to the publish job; it is still running'));
+            } else {
+              subscriber.complete();
+            }
+          },
+          error: (err) => subscriber.error(err),
+        });
+      };
+      return () => events.close();
+    });
   }
 
-  deployToProduction(): Observable<DeployResponse> {
-    return this.http.post<DeployResponse>(`${this.baseUrl}/deploy`, null);
+  getHistory(limit = 50): Observable<PublishHistoryEntry[]> {
+    return this.http.get<PublishHistoryEntry[]>(`${this.baseUrl}/history`, { params: { limit } });
   }
 
   getPreviewSummary(): Observable<PreviewSummaryResponse> {
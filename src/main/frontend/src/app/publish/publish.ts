@@ -1,4 +1,5 @@
-import { Component, inject, signal } from '@angular/core';
+import { DatePipe } from '@angular/common';
+import { Component, computed, inject, OnInit, signal, WritableSignal } from '@angular/core';
 import { MatButtonModule } from '@angular/material/button';
 import { MatCardModule } from '@angular/material/card';
 import { MatDialog, MatDialogModule } from '@angular/material/dialog';
@@ -9,11 +10,38 @@ import {
   ConfirmDialog,
   ConfirmDialogData,
 } from '../shared/confirm-dialog/confirm-dialog';
-import { PublishService } from './publish.service';
+import { Observable, switchMap, tap } from 'rxjs';
+import {
+  DeployResponse,
+  LiveRelease,
+  PlannedFile,
+  PreviewSummaryResponse,
+  PublishHistoryEntry,
+  PublishJob,
+  PublishService,
+  PublishTarget,
+} from './publish.service';
+
+/** Publish runs shown in the history card. */
+const HISTORY_SHOWN = 10;
+
+/** Changed files listed in the pending changes card before it collapses the rest into a count. */
+const CHANGED_FILES_SHOWN = 20;
+
+const STAGE_LABELS: Record<string, string> = {
+  QUERY: 'Loading content',
+  RENDER: 'Rendering pages',
+  COMPRESS: 'Compressing files',
+  POPULATE: 'Checking which files changed',
+  UPLOAD: 'Uploading files',
+  FINALIZE: 'Finalizing version',
+  RELEASE: 'Releasing',
+};
 
 @Component({
   selector: 'app-publish',
   imports: [
+    DatePipe,
     MatButtonModule,
     MatCardModule,
     MatDialogModule,
@@ -24,35 +52,72 @@ import { PublishService } from './publish.service';
   templateUrl: './publish.html',
   styleUrl: './publish.scss',
 })
-export class Publish {
+export class Publish implements OnInit {
   private readonly publishService = inject(PublishService);
   private readonly snackBar = inject(MatSnackBar);
   private readonly dialog = inject(MatDialog);
 
   readonly previewing = signal(false);
   readonly deploying = signal(false);
+  readonly previewJob = signal<PublishJob | null>(null);
+  readonly deployJob = signal<PublishJob | null>(null);
   readonly previewUrl = signal<string | null>(null);
   readonly lastPreview = signal<{ fileCount: number; timestamp: string } | null>(null);
   readonly lastDeploy = signal<{ fileCount: number; timestamp: string; siteUrl: string | null } | null>(null);
   readonly error = signal<string | null>(null);
+  readonly releases = signal<LiveRelease[]>([]);
+  readonly rollingBack = signal<string | null>(null);
+  readonly summary = signal<PreviewSummaryResponse | null>(null);
+  readonly checkingChanges = signal(false);
+  readonly history = signal<PublishHistoryEntry[]>([]);
+  readonly changedFiles = computed<PlannedFile[]>(() =>
+    (this.summary()?.manifest ?? []).filter((file) => file.stale).slice(0, CHANGED_FILES_SHOWN),
+  );
+
+  ngOnInit(): void {
+    this.loadReleases();
+    this.checkChanges();
+    this.loadHistory();
+  }
+
+  /** Plans the next build without rendering it, to show which files changed since the last deploy. */
+  checkChanges(): void {
+    this.checkingChanges.set(true);
+    this.publishService.getPreviewSummary().subscribe({
+      next: (summary) => {
+        this.checkingChanges.set(false);
+        this.summary.set(summary);
+      },
+      error: () => {
+        this.checkingChanges.set(false);
+        this.summary.set(null);
+      },
+    });
+  }
+
+  /** The version id at the end of a Firebase version name ("sites/s/versions/<id>"). */
+  shortVersion(versionName: string): string {
+    return versionName.substring(versionName.lastIndexOf('/') + 1);
+  }
 
   generatePreview(): void {
     this.previewing.set(true);
     this.error.set(null);
 
-    this.publishService.generatePreview().subscribe({
-      next: (response) => {
+    this.runJob('preview', this.previewJob).subscribe({
+      next: (job) => {
+        if (job.state === 'RUNNING') return;
         this.previewing.set(false);
-        if (response.status === 'success') {
-          this.previewUrl.set(response.previewUrl ?? null);
+        if (job.state === 'SUCCEEDED' && job.result) {
+          this.previewUrl.set(job.result.url);
           this.lastPreview.set({
-            fileCount: response.fileCount,
-            timestamp: response.timestamp,
+            fileCount: job.result.fileCount,
+            timestamp: job.finishedAt ?? new Date().toISOString(),
           });
           this.snackBar.open('Preview deployed successfully', 'Dismiss', { duration: 5000 });
         } else {
-          this.error.set(response.message ?? 'Preview generation failed');
-          this.snackBar.open('Preview failed: ' + (response.message ?? 'Unknown error'), 'Dismiss', {
+          this.error.set(job.error ?? 'Preview generation failed');
+          this.snackBar.open('Preview failed: ' + (job.error ?? 'Unknown error'), 'Dismiss', {
             duration: 8000,
           });
         }
@@ -78,36 +143,163 @@ export class Publish {
 
     dialogRef.afterClosed().subscribe((confirmed) => {
       if (!confirmed) return;
+      this.runProductionDeploy();
+    });
+  }
 
-      this.deploying.set(true);
-      this.error.set(null);
+  promotePreview(): void {
+    const dialogRef = this.dialog.open(ConfirmDialog, {
+      data: {
+        title: 'Promote Preview',
+        message:
+          'This will publish exactly what is on the preview URL to production. Are you sure you want to continue?',
+        confirmLabel: 'Promote',
+      } satisfies ConfirmDialogData,
+    });
 
-      this.publishService.deployToProduction().subscribe({
-        next: (response) => {
-          this.deploying.set(false);
-          if (response.status === 'success') {
-            this.lastDeploy.set({
-              fileCount: response.fileCount ?? 0,
-              timestamp: response.timestamp,
-              siteUrl: response.siteUrl ?? null,
-            });
-            this.snackBar.open('Site deployed to production successfully!', 'Dismiss', {
-              duration: 5000,
-            });
-          } else {
-            this.error.set(response.message ?? 'Deployment failed');
-            this.snackBar.open('Deploy failed: ' + (response.message ?? 'Unknown error'), 'Dismiss', {
-              duration: 8000,
-            });
-          }
+    dialogRef.afterClosed().subscribe((confirmed) => {
+      if (!confirmed) return;
+      this.runDeploy(this.publishService.promotePreview(), 'Preview promoted to production successfully!');
+    });
+  }
+
+  rollback(release: LiveRelease): void {
+    const dialogRef = this.dialog.open(ConfirmDialog, {
+      data: {
+        title: 'Roll Back',
+        message: `This will release version ${this.shortVersion(release.versionName)} to production again. Are you sure you want to continue?`,
+        confirmLabel: 'Roll Back',
+      } satisfies ConfirmDialogData,
+    });
+
+    dialogRef.afterClosed().subscribe((confirmed) => {
+      if (!confirmed) return;
+      this.rollingBack.set(release.versionName);
+      this.error.set(null);
+      this.publishService.rollback(release.versionName).subscribe({
+        next: () => {
+          this.rollingBack.set(null);
+          this.loadReleases();
+          this.checkChanges();
+          this.snackBar.open('Production rolled back successfully', 'Dismiss', { duration: 5000 });
         },
         error: (err) => {
-          this.deploying.set(false);
-          const message = err.error?.message ?? err.message ?? 'Production deployment failed';
+          this.rollingBack.set(null);
+          const message = err.error?.message ?? err.message ?? 'Rollback failed';
           this.error.set(message);
-          this.snackBar.open('Deploy failed: ' + message, 'Dismiss', { duration: 8000 });
+          this.snackBar.open('Rollback failed: ' + message, 'Dismiss', { duration: 8000 });
         },
       });
     });
   }
+
+  formatDuration(ms: number): string {
+    return ms < 1000 ? `${ms} ms` : `${(ms / 1000).toFixed(1)} s`;
+  }
+
+  private loadHistory(): void {
+    this.publishService.getHistory(HISTORY_SHOWN).subscribe({
+      next: (history) => this.history.set(history),
+      error: () => this.history.set([]),
+    });
+  }
+
+  private loadReleases(): void {
+    this.publishService.getReleases().subscribe({
+      next: (response) => this.releases.set(response.releases ?? []),
+      error: () => this.releases.set([]),
+    });
+  }
+
+  /** Label for a running job's current stage, e.g. "Uploading files (120/480)". */
+  stageLabel(job: PublishJob): string {
+    const label = job.stage ? STAGE_LABELS[job.stage] ?? job.stage : 'Starting';
+    return job.total > 0 ? `${label} (${job.completed}/${job.total})` : label;
+  }
+
+  progressPercent(job: PublishJob): number {
+    return job.total > 0 ? (job.completed * 100) / job.total : 0;
+  }
+
+  /** Starts (or joins) a build and follows it over its event stream. */
+  private runJob(target: PublishTarget, progress: WritableSignal<PublishJob | null>): Observable<PublishJob> {
+    progress.set(null);
+    return this.publishService.startJob(target).pipe(
+      switchMap((response) => {
+        progress.set(response.job);
+        return this.publishService.watchJob(response.job);
+      }),
+      tap((job) => {
+        progress.set(job.state === 'RUNNING' ? job : null);
+        if (job.state !== 'RUNNING') {
+          this.loadHistory();
+        }
+      }),
+    );
+  }
+
+  private runProductionDeploy(): void {
+    this.deploying.set(true);
+    this.error.set(null);
+
+    this.runJob('live', this.deployJob).subscribe({
+      next: (job) => {
+        if (job.state === 'RUNNING') return;
+        this.deploying.set(false);
+        if (job.state === 'SUCCEEDED' && job.result) {
+          this.lastDeploy.set({
+            fileCount: job.result.fileCount,
+            timestamp: job.finishedAt ?? new Date().toISOString(),
+            siteUrl: job.result.url,
+          });
+          this.loadReleases();
+          this.checkChanges();
+          this.snackBar.open('Site deployed to production successfully!', 'Dismiss', { duration: 5000 });
+        } else {
+          this.error.set(job.error ?? 'Deployment failed');
+          this.snackBar.open('Deploy failed: ' + (job.error ?? 'Unknown error'), 'Dismiss', {
+            duration: 8000,
+          });
+        }
+      },
+      error: (err) => {
+        this.deploying.set(false);
+        const message = err.error?.message ?? err.message ?? 'Production deployment failed';
+        this.error.set(message);
+        this.snackBar.open('Deploy failed: ' + message, 'Dismiss', { duration: 8000 });
+      },
+    });
+  }
+
+  private runDeploy(request: Observable<DeployResponse>, successMessage: string): void {
+    this.deploying.set(true);
+    this.error.set(null);
+
+    request.subscribe({
+      next: (response) => {
+        this.deploying.set(false);
+        if (response.status === 'success') {
+          this.lastDeploy.set({
+            fileCount: response.fileCount ?? 0,
+            timestamp: response.timestamp,
+            siteUrl: response.siteUrl ?? null,
+          });
+          this.loadReleases();
+          this.checkChanges();
+          this.snackBar.open(successMessage, 'Dismiss', { duration: 5000 });
+        } else {
+          this.error.set(response.message ?? 'Deployment failed');
+          this.snackBar.open('Deploy failed: ' + (response.message ?? 'Unknown error'), 'Dismiss', {
+            duration: 8000,
+          });
+        }
+      },
+      error: (err) => {
+        this.deploying.set(false);
+        const message = err.error?.message ?? err.message ?? 'Production deployment failed';
+        this.error.set(message);
+        this.snackBar.open('Deploy failed: ' + message, 'Dismiss', { duration: 8000 });
+      },
+    });
+  }
 }
@@ -0,0 +1,25 @@
+import { Injectable } from '@angular/core';
+import { HttpClient } from '@angular/common/http';
+import { Observable } from 'rxjs';
+
+/** Progress of the background optimized/thumbnail generation for an uploaded image. */
+export type ImageStatus = 'PROCESSING' | 'READY' | 'FAILED';
+
+/** Entity types whose variants are generated in the background. */
+export type ImageVariantTarget = 'webcomic-page' | 'portfolio-item';
+
+export interface ImageVariantStatus {
+  status: ImageStatus;
+  imageUrl: string;
+  optimizedUrl: string | null;
+  thumbnailUrl: string | null;
+}
+
+@Injectable({ providedIn: 'root' })
+export class ImageStatusService {
+  constructor(private readonly http: HttpClient) {}
+
+  getStatus(target: ImageVariantTarget, id: number): Observable<ImageVariantStatus> {
+    return this.http.get<ImageVariantStatus>(`/api/images/${target}/${id}/status`);
+  }
+}
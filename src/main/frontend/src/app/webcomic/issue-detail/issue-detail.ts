@@ -1,4 +1,4 @@
-import { Component, ElementRef, inject, signal, OnInit, viewChild } from '@angular/core';
+import { Component, ElementRef, inject, signal, OnDestroy, OnInit, viewChild } from '@angular/core';
 import { ActivatedRoute, RouterLink } from '@angular/router';
 import { MatButtonModule } from '@angular/material/button';
 import { MatChipsModule } from '@angular/material/chips';
@@ -6,11 +6,13 @@ import { MatDialog } from '@angular/material/dialog';
 import { MatIconModule } from '@angular/material/icon';
 import { MatProgressBarModule } from '@angular/material/progress-bar';
 import { MatProgressSpinnerModule } from '@angular/material/progress-spinner';
+import { forkJoin } from 'rxjs';
 import { WebcomicIssue, WebcomicPage } from '../webcomic.models';
 import { WebcomicService } from '../webcomic.service';
 import { IssueDialog } from '../issue-dialog/issue-dialog';
 import { ConfirmDialog } from '../../shared/confirm-dialog/confirm-dialog';
 import { EmptyStateComponent } from '../../shared/empty-state/empty-state.component';
+import { ImageStatusService } from '../../shared/image-status/image-status.service';
 
 @Component({
   selector: 'app-issue-detail',
@@ -26,10 +28,12 @@ import { EmptyStateComponent } from '../../shared/empty-state/empty-state.compon
   templateUrl: './issue-detail.html',
   styleUrl: './issue-detail.scss',
 })
-export class IssueDetail implements OnInit {
+export class IssueDetail implements OnInit, OnDestroy {
   private readonly route = inject(ActivatedRoute);
   private readonly webcomicService = inject(WebcomicService);
   private readonly dialog = inject(MatDialog);
+  private readonly imageStatusService = inject(ImageStatusService);
+  private statusPoll: ReturnType<typeof setTimeout> | null = null;
 
   protected readonly fileInput = viewChild<ElementRef<HTMLInputElement>>('fileInput');
 
@@ -72,11 +76,41 @@ export class IssueDetail implements OnInit {
       next: (pages) => {
         this.pages.set(pages);
         this.loading.set(false);
+        this.pollProcessingPages();
       },
       error: () => this.loading.set(false),
     });
   }
 
+  /** Refreshes pages whose variants are still being generated until they are ready. */
+  private pollProcessingPages(): void {
+    if (this.statusPoll) clearTimeout(this.statusPoll);
+    const processing = this.pages().filter((p) => p.imageStatus === 'PROCESSING' && p.id !== null);
+    if (processing.length === 0) return;
+
+    this.statusPoll = setTimeout(() => {
+      forkJoin(processing.map((p) => this.imageStatusService.getStatus('webcomic-page', p.id!))).subscribe({
+        next: (statuses) => {
+          this.pages.update((pages) =>
+            pages.map((page) => {
+              const i = processing.findIndex((p) => p.id === page.id);
+              if (i < 0) return page;
+              const s = statuses[i];
+              return { ...page, imageStatus: s.status, optimizedUrl: s.optimizedUrl, thumbnailUrl: s.thumbnailUrl };
+            }),
+          );
+          this.pollProcessingPages();
+        },
+        // Pages were deleted or reordered meanwhile; reload to start over
+        error: () => this.loadPages(),
+      });
+    }, 3000);
+  }
+
+  ngOnDestroy(): void {
+    if (this.statusPoll) clearTimeout(this.statusPoll);
+  }
+
   protected editIssue(): void {
     const iss = this.issue();
     if (!iss) return;
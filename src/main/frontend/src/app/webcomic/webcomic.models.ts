@@ -1,3 +1,5 @@
+import { ImageStatus } from '../shared/image-status/image-status.service';
+
 export interface WebcomicSeries {
   id: number | null;
   title: string;
@@ -27,4 +29,5 @@ export interface WebcomicPage {
   imageUrl: string;
   thumbnailUrl: string | null;
   optimizedUrl: string | null;
+  imageStatus: ImageStatus;
 }
@@ -0,0 +1,115 @@
+package org.tanzu.thstudio.config;
+
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.GoogleCredentials;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single source of Google OAuth credentials and access tokens for the application.
+ * <p>
+ * Application Default Credentials are loaded once (lazily, so the app still starts
+ * without credentials in local mode) and scoped credentials are cached per scope.
+ * A scheduled task refreshes tokens that are about to expire, so callers such as
+ * Firebase Hosting deploys and the GCS client normally get a valid cached token
+ * without blocking on a refresh.
+ * <p>
+ * Created after {@link GoogleCredentialsInitializer} so that the credentials file
+ * exists before it is first read.
+ */
+@Component
+@DependsOn("googleCredentialsInitializer")
+public class GoogleCredentialsManager {
+
+    private static final Logger log = LoggerFactory.getLogger(GoogleCredentialsManager.class);
+
+    /** Tokens expiring within this window are refreshed ahead of time. */
+    private static final Duration REFRESH_MARGIN = Duration.ofMinutes(5);
+
+    private final Map<String, GoogleCredentials> scopedCredentials = new ConcurrentHashMap<>();
+    private volatile GoogleCredentials credentials;
+
+    /**
+     * Returns the Application Default Credentials, loading them on first use.
+     */
+    public GoogleCredentials credentials() {
+        var loaded = credentials;
+        if (loaded == null) {
+            synchronized (this) {
+                loaded = credentials;
+                if (loaded == null) {
+                    try {
+                        loaded = GoogleCredentials.getApplicationDefault();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Google Application Default Credentials are not available", e);
+                    }
+                    credentials = loaded;
+                    log.info("Loaded Google Application Default Credentials");
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Returns the cached credentials for the given OAuth scope. The instance is shared,
+     * so its token is the one kept fresh by {@link #refreshExpiringTokens()}.
+     */
+    public GoogleCredentials scoped(String scope) {
+        return scopedCredentials.computeIfAbsent(scope, s -> credentials().createScoped(s));
+    }
+
+    /**
+     * Returns a valid access token for the given scope, refreshing it only if the
+     * cached token is missing or about to expire.
+     */
+    public String accessToken(String scope) throws IOException {
+        var scoped = scoped(scope);
+        if (expiresSoon(scoped.getAccessToken())) {
+            synchronized (scoped) {
+                if (expiresSoon(scoped.getAccessToken())) {
+                    scoped.refresh();
+                }
+            }
+        }
+        return scoped.getAccessToken().getTokenValue();
+    }
+
+    /**
+     * Refreshes cached tokens ahead of expiry, keeping token acquisition off the
+     * critical path of deploys and uploads.
+     */
+    @Scheduled(fixedDelay = 60_000, initialDelay = 60_000)
+    void refreshExpiringTokens() {
+        scopedCredentials.forEach((scope, scoped) -> {
+            if (scoped.getAccessToken() != null && expiresSoon(scoped.getAccessToken())) {
+                try {
+                    synchronized (scoped) {
+                        scoped.refresh();
+                    }
+                    log.debug("Refreshed access token for scope {}", scope);
+                } catch (IOException e) {
+                    log.warn("Failed to refresh access token for scope {}: {}", scope, e.getMessage());
+                }
+            }
+        });
+    }
+
+    private static boolean expiresSoon(AccessToken token) {
+        if (token == null) {
+            return true;
+        }
+        var expiration = token.getExpirationTime();
+        return expiration != null && expiration.toInstant().isBefore(Instant.now().plus(REFRESH_MARGIN));
+    }
+}
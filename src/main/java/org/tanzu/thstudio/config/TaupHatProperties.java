@@ -19,9 +19,14 @@ public record TaupHatProperties(SecurityProperties security, GcsProperties gcs,
         }
     }
 
+    /**
+     * @param apiBaseUrl    base URL of the Firebase Hosting REST API
+     * @param uploadBaseUrl replaces the scheme and host of the upload URL returned by
+     *                      {@code populateFiles} (blank = use it as returned)
+     */
     public record FirebaseProperties(String siteId, String apiKey, String authDomain, String projectId,
                                       String storageBucket, String messagingSenderId, String appId,
-                                      String recaptchaSiteKey) {
+                                      String recaptchaSiteKey, String apiBaseUrl, String uploadBaseUrl) {
         public FirebaseProperties {
             if (siteId == null) siteId = "";
             if (apiKey == null) apiKey = "";
@@ -31,6 +36,8 @@ public record TaupHatProperties(SecurityProperties security, GcsProperties gcs,
             if (messagingSenderId == null) messagingSenderId = "";
             if (appId == null) appId = "";
             if (recaptchaSiteKey == null) recaptchaSiteKey = "";
+            if (apiBaseUrl == null || apiBaseUrl.isBlank()) apiBaseUrl = "https://firebasehosting.googleapis.com/v1beta1";
+            if (uploadBaseUrl == null) uploadBaseUrl = "";
         }
     }
 }
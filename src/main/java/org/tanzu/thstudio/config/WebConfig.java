@@ -3,9 +3,11 @@ package org.tanzu.thstudio.config;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.web.servlet.resource.PathResourceResolver;
+import org.tanzu.thstudio.publish.ContentChangeInterceptor;
 
 import java.io.IOException;
 
@@ -23,6 +25,23 @@ public class WebConfig implements WebMvcConfigurer {
 
     private static final Resource INDEX_HTML = new ClassPathResource("/static/index.html");
 
+    private final ContentChangeInterceptor contentChangeInterceptor;
+
+    public WebConfig(ContentChangeInterceptor contentChangeInterceptor) {
+        this.contentChangeInterceptor = contentChangeInterceptor;
+    }
+
+    /**
+     * Raises content-changed events for edits to anything the static site is built from,
+     * which keeps the staged publish build current.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(contentChangeInterceptor)
+                .addPathPatterns("/api/webcomic/**", "/api/portfolio/**", "/api/portfolio-sets/**",
+                        "/api/site-config/**");
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         registry.addResourceHandler("/**")
@@ -0,0 +1,9 @@
+package org.tanzu.thstudio.image;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ImageProperties.class)
+public class ImageConfig {
+}
@@ -0,0 +1,115 @@
+package org.tanzu.thstudio.image;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+/**
+ * A queued {@link ImageVariantJob} in the shared {@code image_job} table.
+ * <p>
+ * A job is {@link State#PENDING} until {@code availableAt}, then claimed by one instance
+ * ({@link State#RUNNING}, with a lease). Finished jobs are deleted; jobs that failed
+ * {@code tauphat.image.jobs.max-attempts} times are kept as {@link State#DEAD}.
+ */
+@Entity
+@Table(name = "image_job")
+public class ImageJob {
+
+    public enum State { PENDING, RUNNING, DEAD }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String target;
+
+    @Column(nullable = false)
+    private Long targetId;
+
+    @Column(nullable = false)
+    private String originalUrl;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private State status = State.PENDING;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private Instant availableAt;
+
+    private String leaseOwner;
+
+    private Instant leaseExpiresAt;
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    protected ImageJob() {
+    }
+
+    ImageJob(ImageVariantJob job, Instant availableAt) {
+        this.target = job.target();
+        this.targetId = job.targetId();
+        this.originalUrl = job.originalUrl();
+        this.availableAt = availableAt;
+    }
+
+    @PrePersist
+    void created() {
+        createdAt = Instant.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now();
+    }
+
+    ImageVariantJob toJob() {
+        return new ImageVariantJob(target, targetId, originalUrl);
+    }
+
+    public Long getId() { return id; }
+    public String getTarget() { return target; }
+    public Long getTargetId() { return targetId; }
+    public String getOriginalUrl() { return originalUrl; }
+
+    public State getStatus() { return status; }
+    void setStatus(State status) { this.status = status; }
+
+    public int getAttempts() { return attempts; }
+    void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public Instant getAvailableAt() { return availableAt; }
+    void setAvailableAt(Instant availableAt) { this.availableAt = availableAt; }
+
+    public String getLeaseOwner() { return leaseOwner; }
+    void setLeaseOwner(String leaseOwner) { this.leaseOwner = leaseOwner; }
+
+    public Instant getLeaseExpiresAt() { return leaseExpiresAt; }
+    void setLeaseExpiresAt(Instant leaseExpiresAt) { this.leaseExpiresAt = leaseExpiresAt; }
+
+    public String getLastError() { return lastError; }
+    void setLastError(String lastError) { this.lastError = lastError; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public Instant getUpdatedAt() { return updatedAt; }
+}
@@ -0,0 +1,128 @@
+package org.tanzu.thstudio.image;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The {@code image_job} table as a work queue shared by every instance.
+ * <p>
+ * Claiming locks due rows with {@code FOR UPDATE SKIP LOCKED}, so concurrent instances never
+ * take the same job, and leases it to this instance. A job whose lease expires (its instance
+ * died or stalled) becomes claimable again, unless that was its last attempt: such a job
+ * (an image that crashes or hangs every worker, say) is dead-lettered by the next claim
+ * instead of being retried forever. Updates after a claim only apply while this
+ * instance still holds that claim, so a job taken over after its lease expired is left alone.
+ */
+@Component
+class ImageJobQueue {
+
+    private final ImageJobRepository repository;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final String instanceId;
+
+    ImageJobQueue(ImageJobRepository repository, ImageProperties properties) {
+        this.repository = repository;
+        this.lease = properties.jobs().lease();
+        this.maxAttempts = properties.jobs().maxAttempts();
+        this.instanceId = ManagementFactory.getRuntimeMXBean().getName() + "/"
+                + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Adds a job, in the caller's transaction if there is one.
+     */
+    void enqueue(ImageVariantJob job) {
+        repository.save(new ImageJob(job, Instant.now()));
+    }
+
+    /**
+     * Claims up to {@code limit} due jobs for this instance, counting an attempt for each.
+     * <p>
+     * Jobs whose lease expired on their last attempt are dead-lettered instead and returned
+     * in the {@link ImageJob.State#DEAD} state, so the caller can mark their entity failed.
+     */
+    @Transactional
+    List<ImageJob> claim(int limit) {
+        var now = Instant.now();
+        var jobs = repository.lockClaimable(now, limit);
+        for (var job : jobs) {
+            if (job.getStatus() == ImageJob.State.RUNNING && job.getAttempts() >= maxAttempts) {
+                job.setStatus(ImageJob.State.DEAD);
+                job.setLeaseOwner(null);
+                job.setLeaseExpiresAt(null);
+                job.setLastError("Lease expired on attempt " + job.getAttempts());
+                continue;
+            }
+            job.setStatus(ImageJob.State.RUNNING);
+            job.setAttempts(job.getAttempts() + 1);
+            job.setLeaseOwner(instanceId);
+            job.setLeaseExpiresAt(now.plus(lease));
+        }
+        return jobs;
+    }
+
+    /**
+     * Removes a finished job.
+     */
+    @Transactional
+    void complete(ImageJob claimed) {
+        repository.findById(claimed.getId()).filter(job -> holds(job, claimed)).ifPresent(repository::delete);
+    }
+
+    /**
+     * Returns a job to the queue, due again after {@code delay}.
+     *
+     * @param error         the failure to record, or {@code null} if the job was only deferred
+     * @param countsAttempt whether the claim counts towards {@code max-attempts}
+     */
+    @Transactional
+    void retry(ImageJob claimed, Duration delay, String error, boolean countsAttempt) {
+        repository.findById(claimed.getId()).filter(job -> holds(job, claimed)).ifPresent(job -> {
+            job.setStatus(ImageJob.State.PENDING);
+            job.setAvailableAt(Instant.now().plus(delay));
+            job.setLeaseOwner(null);
+            job.setLeaseExpiresAt(null);
+            if (error != null) job.setLastError(error);
+            if (!countsAttempt) job.setAttempts(job.getAttempts() - 1);
+        });
+    }
+
+    /**
+     * Parks a job that keeps failing in the dead-letter state for inspection.
+     */
+    @Transactional
+    void deadLetter(ImageJob claimed, String error) {
+        repository.findById(claimed.getId()).filter(job -> holds(job, claimed)).ifPresent(job -> {
+            job.setStatus(ImageJob.State.DEAD);
+            job.setLeaseOwner(null);
+            job.setLeaseExpiresAt(null);
+            job.setLastError(error);
+        });
+    }
+
+    /**
+     * Removes every job for the entity, whatever its state. A job running elsewhere then
+     * finds its claim gone and is left alone.
+     */
+    @Transactional
+    void cancel(String target, long targetId) {
+        repository.deleteByTargetAndTargetId(target, targetId);
+    }
+
+    long count(ImageJob.State state) {
+        return repository.countByStatus(state);
+    }
+
+    private boolean holds(ImageJob current, ImageJob claimed) {
+        return current.getStatus() == ImageJob.State.RUNNING
+                && instanceId.equals(current.getLeaseOwner())
+                && current.getAttempts() == claimed.getAttempts();
+    }
+}
@@ -0,0 +1,29 @@
+package org.tanzu.thstudio.image;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ImageJobRepository extends JpaRepository<ImageJob, Long> {
+
+    /**
+     * Locks up to {@code limit} jobs that are due, or whose lease has expired, skipping rows
+     * already locked by another instance. Must run inside a transaction.
+     * <p>
+     * H2 locks every matching row rather than only the first {@code limit}, so local instances
+     * claim less evenly than on PostgreSQL.
+     */
+    @Query(value = "SELECT * FROM image_job "
+            + "WHERE (status = 'PENDING' AND available_at <= :now) "
+            + "OR (status = 'RUNNING' AND lease_expires_at <= :now) "
+            + "ORDER BY available_at, id "
+            + "LIMIT :limit "
+            + "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<ImageJob> lockClaimable(Instant now, int limit);
+
+    long countByStatus(ImageJob.State status);
+
+    void deleteByTargetAndTargetId(String target, Long targetId);
+}
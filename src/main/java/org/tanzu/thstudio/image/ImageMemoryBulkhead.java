@@ -0,0 +1,122 @@
+package org.tanzu.thstudio.image;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admits image jobs against a shared budget of decoded-pixel memory, so a burst of uploads
+ * queues up instead of decoding more images at once than the heap can hold.
+ * <p>
+ * The budget is a fair {@link Semaphore} with one permit per KiB. Each job asks for its
+ * estimated size up front and waits up to {@code tauphat.image.admission-timeout}. A job
+ * that is larger than the whole budget is capped to it, so it still runs, but only on its own.
+ * <p>
+ * Publishes {@code tauphat.image.bulkhead.queued}, {@code .in-use} and {@code .budget}
+ * gauges, a {@code .wait} timer and a {@code .rejected} counter.
+ */
+@Component
+public class ImageMemoryBulkhead {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageMemoryBulkhead.class);
+
+    private final Semaphore permits;
+    private final int budgetKib;
+    private final Duration admissionTimeout;
+    private final Duration retryAfter;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public ImageMemoryBulkhead(ImageProperties properties, MeterRegistry meterRegistry) {
+        this.budgetKib = (int) Math.min(Integer.MAX_VALUE, properties.memoryBudget().toKilobytes());
+        this.permits = new Semaphore(budgetKib, true);
+        this.admissionTimeout = properties.admissionTimeout();
+        this.retryAfter = properties.retryAfter();
+
+        Gauge.builder("tauphat.image.bulkhead.queued", queued, AtomicInteger::get)
+                .description("Image jobs waiting for memory budget")
+                .register(meterRegistry);
+        Gauge.builder("tauphat.image.bulkhead.in-use", permits, p -> (budgetKib - p.availablePermits()) * 1024.0)
+                .description("Estimated decoded-pixel memory held by running image jobs")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("tauphat.image.bulkhead.budget", () -> budgetKib * 1024.0)
+                .description("Decoded-pixel memory budget for concurrent image jobs")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("tauphat.image.bulkhead.wait")
+                .description("Time image jobs waited for memory budget")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("tauphat.image.bulkhead.rejected")
+                .description("Image jobs rejected because the memory budget stayed exhausted")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Waits until {@code estimatedBytes} of the budget is free and reserves it.
+     *
+     * @return a permit that gives the reservation back when closed
+     * @throws ImageProcessingSaturatedException if the budget did not free up within the admission timeout
+     */
+    public Permit acquire(long estimatedBytes) {
+        int kib = (int) Math.clamp((estimatedBytes + 1023) / 1024, 1, budgetKib);
+        long start = System.nanoTime();
+        queued.incrementAndGet();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(kib, admissionTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImageProcessingSaturatedException("Interrupted while waiting to process the image", retryAfter);
+        } finally {
+            queued.decrementAndGet();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            rejected.increment();
+            log.warn("Rejected image job needing {} KiB: memory budget exhausted for {}", kib, admissionTimeout);
+            throw new ImageProcessingSaturatedException(
+                    "Too many images are being processed right now, please retry shortly", retryAfter);
+        }
+        return new Permit(kib);
+    }
+
+    int queued() {
+        return queued.get();
+    }
+
+    int availableKib() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * A reservation of budget, released once when closed.
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final int kib;
+        private boolean released;
+
+        private Permit(int kib) {
+            this.kib = kib;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                permits.release(kib);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.tanzu.thstudio.image;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Turns a saturated image pipeline into a retryable {@code 503} for every upload endpoint.
+ */
+@RestControllerAdvice
+class ImageProcessingExceptionHandler {
+
+    @ExceptionHandler(ImageProcessingSaturatedException.class)
+    ResponseEntity<Map<String, Object>> saturated(ImageProcessingSaturatedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+                .body(Map.of(
+                        "status", "error",
+                        "message", e.getMessage(),
+                        "timestamp", LocalDateTime.now().toString()
+                ));
+    }
+}
@@ -0,0 +1,22 @@
+package org.tanzu.thstudio.image;
+
+import java.time.Duration;
+
+/**
+ * Thrown when an image job could not be admitted by the {@link ImageMemoryBulkhead}
+ * within the admission timeout. Mapped to {@code 503 Service Unavailable} with a
+ * {@code Retry-After} header by {@link ImageProcessingExceptionHandler}.
+ */
+public class ImageProcessingSaturatedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ImageProcessingSaturatedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -7,24 +7,44 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
 import javax.imageio.ImageReader;
 import javax.imageio.stream.ImageInputStream;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * Processes uploaded images into multiple size variants and stores them in GCS.
  * The original is stored in its native format. Resized variants are always output
  * as PNG to avoid codec compatibility issues (e.g. WebP write support).
  *
- * <p>Processing is designed for memory efficiency: the image is decoded into a
- * {@link BufferedImage} exactly once, and both resized variants are generated from
- * that single copy. Image dimensions are read from metadata without decoding pixels.
- * The original file is streamed to GCS from a temporary file on disk.</p>
+ * <p>Processing is designed for memory efficiency: a single {@link ImageReader} reads the
+ * dimensions from metadata and then decodes the image exactly once, subsampled to the
+ * smallest resolution that still leaves headroom for a high-quality optimized variant.
+ * Both resized variants are generated from that single copy, so heap use per upload stays
+ * roughly constant whatever the source resolution. The original file is streamed to GCS
+ * from a temporary file on disk.</p>
+ *
+ * <p>Decoding and resizing run under an {@link ImageMemoryBulkhead} reservation sized from
+ * the decoded dimensions, so concurrent uploads cannot together exceed the configured
+ * memory budget.</p>
+ *
+ * <p>The outputs of one image are produced concurrently in an {@link ImageTaskScope}: the
+ * original uploads while the source is decoded, and each resized variant is encoded and
+ * uploaded on its own thread as soon as the decode is done, so an upload takes about as long
+ * as its slowest output rather than the sum of all of them. If any output fails the others
+ * are cancelled and whatever was already stored is deleted again.</p>
  */
 @Service
 public class ImageProcessingService {
@@ -36,11 +56,22 @@ public class ImageProcessingService {
     private static final String RESIZED_FORMAT = "png";
     private static final String RESIZED_CONTENT_TYPE = "image/png";
     private static final String RESIZED_EXTENSION = ".png";
+    /**
+     * Minimum width of the decoded image relative to {@link #OPTIMIZED_WIDTH}. Subsampling
+     * drops pixels without filtering, so decoding at twice the target width leaves the final
+     * resize enough source pixels to smooth out the aliasing.
+     */
+    private static final int DECODE_OVERSAMPLING = 2;
+
+    private static final int BYTES_PER_PIXEL = 4;
+    private static final String ORIGINAL_DIRECTORY = "/original/";
 
     private final StorageService storageService;
+    private final ImageMemoryBulkhead bulkhead;
 
-    public ImageProcessingService(StorageService storageService) {
+    public ImageProcessingService(StorageService storageService, ImageMemoryBulkhead bulkhead) {
         this.storageService = storageService;
+        this.bulkhead = bulkhead;
     }
 
     /**
@@ -48,7 +79,11 @@ public class ImageProcessingService {
      *
      * <p>The upload is streamed to a temporary file first to avoid loading the entire
      * image into direct buffer memory (which is capped by {@code -XX:MaxDirectMemorySize}).
-     * Pixel data is decoded only once for both resize operations to minimize heap usage.</p>
+     * Pixel data is decoded only once, subsampled, for both resize operations to minimize
+     * heap usage.</p>
+     *
+     * @throws ImageProcessingSaturatedException if the memory budget stays exhausted for the
+     *                                           admission timeout
      *
      * @param file     the uploaded image file
      * @param basePath the base GCS path (e.g. "images/webcomic/1/1")
@@ -63,56 +98,234 @@ public class ImageProcessingService {
         try {
             file.transferTo(tempFile);
 
-            // Read dimensions from image metadata without decoding pixel data
-            var dimensions = readDimensions(tempFile);
+            String originalPath = basePath + ORIGINAL_DIRECTORY + filename + extension;
+            var stored = new ConcurrentLinkedQueue<String>();
+            try (var scope = new ImageTaskScope()) {
+                // Upload original in its native format (streamed from disk) while the image is decoded
+                var original = scope.fork(() -> upload(originalPath, tempFile, contentType, stored));
+                var variants = forkVariants(scope, tempFile, basePath, filename, stored);
+                scope.join();
 
-            // Upload original in its native format (streamed from disk)
-            String originalPath = basePath + "/original/" + filename + extension;
-            String originalUrl = storageService.upload(originalPath, tempFile, contentType);
+                var dimensions = variants.dimensions();
+                log.info("Processed image {} -> original ({}), optimized ({}px), thumbnail ({}px), dimensions {}x{}",
+                        filename, contentType, OPTIMIZED_WIDTH, THUMBNAIL_WIDTH,
+                        dimensions.width(), dimensions.height());
+                return new ImageUrls(original.resultNow(), variants.optimized().resultNow(),
+                        variants.thumbnail().resultNow(), dimensions.width(), dimensions.height());
+            } catch (IOException | RuntimeException e) {
+                deleteQuietly(stored);
+                throw e;
+            } catch (InterruptedException e) {
+                deleteQuietly(stored);
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while processing image " + filename);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
 
-            // Decode the image once and generate both resized variants from memory
-            BufferedImage decoded = ImageIO.read(tempFile.toFile());
+    /**
+     * Stores an uploaded image in its native format and reads its dimensions, leaving the
+     * optimized and thumbnail variants to {@link #generateVariants} (run by the
+     * {@link ImageVariantWorker}). Only the image metadata is read, so this costs little more
+     * than the upload itself.
+     *
+     * @param file     the uploaded image file
+     * @param basePath the base GCS path (e.g. "images/webcomic/1/1")
+     * @param filename the base filename without extension, unique under {@code basePath} (e.g. "page-" plus a UUID)
+     * @return the original's URL and dimensions
+     */
+    public StoredOriginal storeOriginal(MultipartFile file, String basePath, String filename) throws IOException {
+        String contentType = file.getContentType();
+        String extension = extensionFromContentType(contentType);
 
-            byte[] optimized = resize(decoded, OPTIMIZED_WIDTH);
-            String optimizedPath = basePath + "/optimized/" + filename + RESIZED_EXTENSION;
-            String optimizedUrl = storageService.upload(optimizedPath, optimized, RESIZED_CONTENT_TYPE);
+        Path tempFile = Files.createTempFile("thstudio-upload-", extension);
+        try {
+            file.transferTo(tempFile);
+            var dimensions = readDimensions(tempFile);
 
-            byte[] thumbnail = resize(decoded, THUMBNAIL_WIDTH);
-            String thumbnailPath = basePath + "/thumbnail/" + filename + RESIZED_EXTENSION;
-            String thumbnailUrl = storageService.upload(thumbnailPath, thumbnail, RESIZED_CONTENT_TYPE);
+            String originalPath = basePath + ORIGINAL_DIRECTORY + filename + extension;
+            String originalUrl = storageService.upload(originalPath, tempFile, contentType);
 
-            // Allow the large decoded image to be GC'd immediately
-            decoded = null;
+            log.info("Stored original image {} ({}, {}x{}), variants pending",
+                    filename, contentType, dimensions.width(), dimensions.height());
+            return new StoredOriginal(originalUrl, dimensions.width(), dimensions.height());
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
 
-            log.info("Processed image {} -> original ({}), optimized ({}px), thumbnail ({}px), dimensions {}x{}",
-                    filename, contentType, OPTIMIZED_WIDTH, THUMBNAIL_WIDTH,
-                    dimensions.width(), dimensions.height());
+    /**
+     * Generates the optimized and thumbnail variants of an original stored by
+     * {@link #storeOriginal} and uploads them next to it, under the same base path and filename.
+     *
+     * @param originalUrl the URL returned by {@link #storeOriginal}
+     * @throws ImageProcessingSaturatedException if the memory budget stays exhausted for the
+     *                                           admission timeout
+     */
+    public VariantUrls generateVariants(String originalUrl) throws IOException {
+        String originalPath = storageService.objectPath(originalUrl);
+        int marker = originalPath != null ? originalPath.lastIndexOf(ORIGINAL_DIRECTORY) : -1;
+        if (marker < 0) {
+            throw new IOException("Not a stored original image: " + originalUrl);
+        }
+        String basePath = originalPath.substring(0, marker);
+        String name = originalPath.substring(marker + ORIGINAL_DIRECTORY.length());
+        int dot = name.lastIndexOf('.');
 
-            return new ImageUrls(originalUrl, optimizedUrl, thumbnailUrl,
-                    dimensions.width(), dimensions.height());
+        Path tempFile = Files.createTempFile("thstudio-variants-", dot > 0 ? name.substring(dot) : "");
+        try {
+            storageService.download(originalPath, tempFile);
+            var stored = new ConcurrentLinkedQueue<String>();
+            try (var scope = new ImageTaskScope()) {
+                var variants = forkVariants(scope, tempFile, basePath, dot > 0 ? name.substring(0, dot) : name, stored);
+                scope.join();
+                log.info("Generated variants for {} -> optimized ({}px), thumbnail ({}px)",
+                        originalPath, OPTIMIZED_WIDTH, THUMBNAIL_WIDTH);
+                return new VariantUrls(variants.optimized().resultNow(), variants.thumbnail().resultNow());
+            } catch (IOException | RuntimeException e) {
+                deleteQuietly(stored);
+                throw e;
+            } catch (InterruptedException e) {
+                deleteQuietly(stored);
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while generating variants for " + originalPath);
+            }
         } finally {
             Files.deleteIfExists(tempFile);
         }
     }
 
     /**
-     * Reads image dimensions from file metadata without decoding the full pixel data.
-     * This avoids allocating a ~(width * height * 4) byte BufferedImage just for dimensions.
+     * Reads image dimensions from file metadata without decoding any pixel data.
      */
     private ImageDimensions readDimensions(Path imageFile) throws IOException {
         try (ImageInputStream input = ImageIO.createImageInputStream(imageFile.toFile())) {
-            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
-            if (readers.hasNext()) {
-                ImageReader reader = readers.next();
-                try {
-                    reader.setInput(input);
-                    return new ImageDimensions(reader.getWidth(0), reader.getHeight(0));
-                } finally {
-                    reader.dispose();
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("Unsupported image format: " + imageFile.getFileName());
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return new ImageDimensions(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Reads the image dimensions from file metadata, then decodes the pixels with the same
+     * reader at the coarsest subsampling that keeps the result at least
+     * {@code DECODE_OVERSAMPLING * OPTIMIZED_WIDTH} wide. This avoids allocating a
+     * ~(width * height * 4) byte BufferedImage for a large upload: a 12000x9000 source is
+     * decoded at 2400x1800 (~17MB) instead of ~430MB.
+     * <p>
+     * The optimized and thumbnail variants are then forked into {@code scope}: each is resized
+     * from the shared decoded image and uploaded as soon as its own encoding is done. The
+     * bulkhead permit for {@link #estimateBytes} is held until both are encoded; the uploads
+     * only hold the encoded bytes. Objects are added to {@code stored} once uploaded.
+     */
+    private ForkedVariants forkVariants(ImageTaskScope scope, Path imageFile, String basePath, String filename,
+                                        Queue<String> stored) throws IOException, InterruptedException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(imageFile.toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("Unsupported image format: " + imageFile.getFileName());
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                var dimensions = new ImageDimensions(reader.getWidth(0), reader.getHeight(0));
+
+                int step = subsampling(dimensions.width());
+                ImageReadParam param = reader.getDefaultReadParam();
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
                 }
+                try (var permit = bulkhead.acquire(estimateBytes(dimensions, step))) {
+                    BufferedImage image = reader.read(0, param);
+                    log.debug("Decoded {}x{} image at 1/{} resolution ({}x{})", dimensions.width(),
+                            dimensions.height(), step, image.getWidth(), image.getHeight());
+
+                    var optimizedBytes = scope.fork(() -> resize(image, OPTIMIZED_WIDTH));
+                    var thumbnailBytes = scope.fork(() -> resize(image, THUMBNAIL_WIDTH));
+                    var optimized = scope.fork(() -> upload(basePath + "/optimized/" + filename + RESIZED_EXTENSION,
+                            optimizedBytes.get(), stored));
+                    var thumbnail = scope.fork(() -> upload(basePath + "/thumbnail/" + filename + RESIZED_EXTENSION,
+                            thumbnailBytes.get(), stored));
+                    awaitEncoded(optimizedBytes, thumbnailBytes);
+                    return new ForkedVariants(optimized, thumbnail, dimensions);
+                }
+            } finally {
+                reader.dispose();
             }
         }
-        return new ImageDimensions(0, 0);
+    }
+
+    /**
+     * Waits until both variants are encoded, or one of them has failed; the failure itself is
+     * reported by {@link ImageTaskScope#join()}.
+     */
+    private static void awaitEncoded(Future<?>... encodes) throws InterruptedException {
+        for (var encode : encodes) {
+            try {
+                encode.get();
+            } catch (ExecutionException | CancellationException e) {
+                return;
+            }
+        }
+    }
+
+    private String upload(String path, byte[] content, Queue<String> stored) {
+        String url = storageService.upload(path, content, RESIZED_CONTENT_TYPE);
+        stored.add(path);
+        return url;
+    }
+
+    private String upload(String path, Path file, String contentType, Queue<String> stored) throws IOException {
+        String url = storageService.upload(path, file, contentType);
+        stored.add(path);
+        return url;
+    }
+
+    private void deleteQuietly(Collection<String> paths) {
+        for (var path : paths) {
+            try {
+                storageService.delete(path);
+            } catch (RuntimeException e) {
+                log.warn("Failed to delete {} after image processing failed", path, e);
+            }
+        }
+    }
+
+    /**
+     * Returns the largest subsampling step (keep every n-th pixel) that still decodes
+     * an image of the given width to at least {@code DECODE_OVERSAMPLING * OPTIMIZED_WIDTH}.
+     */
+    static int subsampling(int sourceWidth) {
+        return Math.max(1, sourceWidth / (DECODE_OVERSAMPLING * OPTIMIZED_WIDTH));
+    }
+
+    /**
+     * Estimates the pixel memory of a job: the subsampled decode plus the optimized and
+     * thumbnail variants it is resized into concurrently, at {@value #BYTES_PER_PIXEL} bytes
+     * per pixel.
+     */
+    static long estimateBytes(int sourceWidth, int sourceHeight, int step) {
+        long decodedWidth = (sourceWidth + step - 1) / step;
+        long decodedHeight = (sourceHeight + step - 1) / step;
+        if (decodedWidth <= 0) return 0;
+        long optimizedHeight = decodedHeight * OPTIMIZED_WIDTH / decodedWidth;
+        long thumbnailHeight = decodedHeight * THUMBNAIL_WIDTH / decodedWidth;
+        return (decodedWidth * decodedHeight + OPTIMIZED_WIDTH * optimizedHeight
+                + THUMBNAIL_WIDTH * thumbnailHeight) * BYTES_PER_PIXEL;
+    }
+
+    private static long estimateBytes(ImageDimensions dimensions, int step) {
+        return estimateBytes(dimensions.width(), dimensions.height(), step);
     }
 
     /**
@@ -145,6 +358,24 @@ public class ImageProcessingService {
     private record ImageDimensions(int width, int height) {
     }
 
+    /**
+     * Optimized and thumbnail variants being encoded and uploaded, with the dimensions of the original.
+     */
+    private record ForkedVariants(Future<String> optimized, Future<String> thumbnail, ImageDimensions dimensions) {
+    }
+
+    /**
+     * URL and dimensions of an original stored by {@link #storeOriginal}.
+     */
+    public record StoredOriginal(String originalUrl, int width, int height) {
+    }
+
+    /**
+     * URLs of the generated optimized and thumbnail variants.
+     */
+    public record VariantUrls(String optimizedUrl, String thumbnailUrl) {
+    }
+
     /**
      * URLs for the three image size variants, plus original image dimensions.
      */
@@ -0,0 +1,44 @@
+package org.tanzu.thstudio.image;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * @param memoryBudget     estimated decoded-pixel memory that concurrent image jobs may hold in total
+ * @param admissionTimeout how long a job waits for budget before it is rejected
+ * @param retryAfter       {@code Retry-After} sent with the 503 when a job is rejected, and how long
+ *                         a background variant job waits before trying again
+ * @param jobs             the shared queue of background variant jobs
+ */
+@ConfigurationProperties("tauphat.image")
+public record ImageProperties(DataSize memoryBudget, Duration admissionTimeout, Duration retryAfter,
+                              JobProperties jobs) {
+    public ImageProperties {
+        if (memoryBudget == null || memoryBudget.toBytes() <= 0) memoryBudget = DataSize.ofMegabytes(256);
+        if (admissionTimeout == null || admissionTimeout.isNegative()) admissionTimeout = Duration.ofSeconds(30);
+        if (retryAfter == null || retryAfter.isNegative()) retryAfter = Duration.ofSeconds(10);
+        if (jobs == null) jobs = new JobProperties(null, null, null, null, null, null);
+    }
+
+    /**
+     * @param enabled        claim and process jobs on this instance (instances that only enqueue set this to false)
+     * @param workers        number of jobs processed concurrently on this instance
+     * @param pollInterval   how often idle workers look for claimable jobs
+     * @param lease          how long a claimed job is reserved; after that another instance may take it over
+     * @param maxAttempts    attempts before a failing job is moved to the dead-letter state
+     * @param initialBackoff delay before the first retry, doubled for each further attempt
+     */
+    public record JobProperties(Boolean enabled, Integer workers, Duration pollInterval, Duration lease,
+                                Integer maxAttempts, Duration initialBackoff) {
+        public JobProperties {
+            if (enabled == null) enabled = true;
+            if (workers == null || workers <= 0) workers = 2;
+            if (pollInterval == null || !pollInterval.isPositive()) pollInterval = Duration.ofSeconds(2);
+            if (lease == null || !lease.isPositive()) lease = Duration.ofMinutes(10);
+            if (maxAttempts == null || maxAttempts <= 0) maxAttempts = 5;
+            if (initialBackoff == null || initialBackoff.isNegative()) initialBackoff = Duration.ofSeconds(30);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.tanzu.thstudio.image;
+
+/**
+ * Progress of the background variant generation for an uploaded image.
+ */
+public enum ImageStatus {
+    /** The original is stored; optimized and thumbnail variants are still being generated. */
+    PROCESSING,
+    /** All variants are available. */
+    READY,
+    /** Variant generation failed; the original is still served in their place. */
+    FAILED
+}
@@ -0,0 +1,32 @@
+package org.tanzu.thstudio.image;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Lets the CMS poll uploads whose variants are still being generated.
+ */
+@RestController
+@RequestMapping("/api/images")
+public class ImageStatusController {
+
+    private final ImageVariantWorker worker;
+
+    public ImageStatusController(ImageVariantWorker worker) {
+        this.worker = worker;
+    }
+
+    /**
+     * Returns the image status and URLs of an entity, e.g. {@code /api/images/webcomic-page/42/status}.
+     */
+    @GetMapping("/{target}/{id}/status")
+    public ResponseEntity<ImageVariantTarget.ImageVariantStatus> status(@PathVariable String target,
+                                                                        @PathVariable Long id) {
+        return worker.status(target, id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,89 @@
+package org.tanzu.thstudio.image;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs the subtasks of one image job (encoding and uploading its variants) on virtual threads
+ * as a unit: the first subtask to fail cancels the others, and {@link #join()} rethrows that
+ * failure. Closing the scope cancels whatever is still running and waits for every subtask to
+ * stop, so a caller cleaning up after a failure never races a subtask still uploading.
+ * <p>
+ * Modelled on {@code StructuredTaskScope.ShutdownOnFailure}, which is still a preview API on
+ * Java 21. Subtasks are forked by the owning thread only.
+ */
+final class ImageTaskScope implements AutoCloseable {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<Future<?>> subtasks = new CopyOnWriteArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    <T> Future<T> fork(Callable<T> task) {
+        Future<T> future = executor.submit(() -> {
+            try {
+                return task.call();
+            } catch (Exception | Error e) {
+                fail(e);
+                throw e;
+            }
+        });
+        subtasks.add(future);
+        if (failure.get() != null) {
+            future.cancel(true);
+        }
+        return future;
+    }
+
+    /**
+     * Waits for every subtask to complete, or for the first one to fail.
+     *
+     * @throws IOException          if a subtask failed with one, or with a checked exception
+     * @throws InterruptedException if the owner was interrupted; the subtasks are cancelled
+     */
+    void join() throws IOException, InterruptedException {
+        try {
+            for (var subtask : subtasks) {
+                try {
+                    subtask.get();
+                } catch (ExecutionException | CancellationException e) {
+                    // Recorded by the failing subtask, which cancelled the rest
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            cancelAll();
+            throw e;
+        }
+        switch (failure.get()) {
+            case null -> { }
+            case IOException e -> throw e;
+            case RuntimeException e -> throw e;
+            case Error e -> throw e;
+            case Throwable e -> throw new IOException("Image processing failed: " + e.getMessage(), e);
+        }
+    }
+
+    private void fail(Throwable e) {
+        if (failure.compareAndSet(null, e)) {
+            cancelAll();
+        }
+    }
+
+    private void cancelAll() {
+        subtasks.forEach(subtask -> subtask.cancel(true));
+    }
+
+    @Override
+    public void close() {
+        cancelAll();
+        executor.close();
+    }
+}
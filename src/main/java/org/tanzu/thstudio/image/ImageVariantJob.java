@@ -0,0 +1,11 @@
+package org.tanzu.thstudio.image;
+
+/**
+ * A request to generate the variants of an entity's original image.
+ *
+ * @param target      the {@link ImageVariantTarget#type()} of the entity
+ * @param targetId    the entity ID
+ * @param originalUrl the original image URL returned by {@link ImageProcessingService#storeOriginal}
+ */
+public record ImageVariantJob(String target, long targetId, String originalUrl) {
+}
@@ -0,0 +1,41 @@
+package org.tanzu.thstudio.image;
+
+import java.util.Optional;
+
+/**
+ * An entity type whose uploaded images get their variants from the {@link ImageVariantWorker},
+ * e.g. webcomic pages or portfolio items. Implementations are Spring beans in the owning
+ * module and are looked up by {@link #type()}.
+ */
+public interface ImageVariantTarget {
+
+    /**
+     * Stable identifier used in job submissions and the status endpoint (e.g. {@code "webcomic-page"}).
+     */
+    String type();
+
+    /**
+     * Returns the image status of an entity, or empty if it does not exist.
+     */
+    Optional<ImageVariantStatus> status(long id);
+
+    /**
+     * Records the generated variants and marks the entity {@link ImageStatus#READY}.
+     *
+     * @param originalUrl the original the variants were generated from
+     * @return {@code false} if the entity is gone or its image has been replaced since, in which
+     *         case the variants are not used
+     */
+    boolean complete(long id, String originalUrl, ImageProcessingService.VariantUrls variants);
+
+    /**
+     * Marks the entity {@link ImageStatus#FAILED}, unless its image has been replaced since.
+     */
+    void fail(long id, String originalUrl);
+
+    /**
+     * @param imageUrl the original image URL
+     */
+    record ImageVariantStatus(ImageStatus status, String imageUrl, String optimizedUrl, String thumbnailUrl) {
+    }
+}
@@ -0,0 +1,283 @@
+package org.tanzu.thstudio.image;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Generates optimized and thumbnail variants in the background, so upload requests only
+ * wait for the original to be stored.
+ * <p>
+ * Submitted jobs go to the {@link ImageJobQueue}, which every instance with
+ * {@code tauphat.image.jobs.enabled} polls; up to {@code tauphat.image.jobs.workers} jobs run
+ * here at a time and still go through the {@link ImageMemoryBulkhead}. A job that cannot get
+ * memory budget is put back for {@code tauphat.image.retry-after} without counting as an
+ * attempt; a failing job is retried with exponential backoff and, after
+ * {@code tauphat.image.jobs.max-attempts}, dead-lettered and its entity marked
+ * {@link ImageStatus#FAILED}. So is a job whose last attempt never finished (its lease expired).
+ * Once the variants are recorded an {@link ImageVariantsReadyEvent} is published on this instance.
+ * <p>
+ * The queue gauges ({@code tauphat.image.jobs.pending} and {@code .dead}) are only registered
+ * where jobs are processed, and read counts the poller refreshes every
+ * {@link #COUNT_INTERVAL}, so a metrics scrape never queries the database.
+ */
+@Component
+public class ImageVariantWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageVariantWorker.class);
+
+    /** How often the poller refreshes the queue gauges. */
+    static final Duration COUNT_INTERVAL = Duration.ofSeconds(30);
+
+    private final ImageProcessingService imageProcessingService;
+    private final Map<String, ImageVariantTarget> targets;
+    private final ImageJobQueue queue;
+    private final ApplicationEventPublisher events;
+    private final ImageProperties.JobProperties properties;
+    private final Duration retryAfter;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong dead = new AtomicLong();
+    /** When the gauges were last refreshed; only used on the poller thread. */
+    private Instant countedAt = Instant.MIN;
+    private final ScheduledExecutorService poller;
+    private final ExecutorService workers;
+
+    public ImageVariantWorker(ImageProcessingService imageProcessingService,
+                              List<ImageVariantTarget> targets,
+                              ImageJobQueue queue,
+                              ImageProperties properties,
+                              ApplicationEventPublisher events,
+                              MeterRegistry meterRegistry) {
+        this.imageProcessingService = imageProcessingService;
+        this.targets = targets.stream().collect(Collectors.toMap(ImageVariantTarget::type, Function.identity()));
+        this.queue = queue;
+        this.events = events;
+        this.properties = properties.jobs();
+        this.retryAfter = properties.retryAfter();
+        this.meterRegistry = meterRegistry;
+        if (this.properties.enabled()) {
+            this.poller = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("image-jobs-poller").daemon().factory());
+            this.workers = Executors.newFixedThreadPool(this.properties.workers(),
+                    Thread.ofPlatform().name("image-variants-", 0).daemon().factory());
+        } else {
+            this.poller = null;
+            this.workers = null;
+        }
+
+        Gauge.builder("tauphat.image.jobs.running", running, AtomicInteger::get)
+                .description("Image variant jobs running on this instance")
+                .register(meterRegistry);
+        if (poller != null) {
+            Gauge.builder("tauphat.image.jobs.pending", pending, AtomicLong::get)
+                    .description("Image variant jobs waiting in the shared queue")
+                    .register(meterRegistry);
+            Gauge.builder("tauphat.image.jobs.dead", dead, AtomicLong::get)
+                    .description("Image variant jobs that exhausted their attempts")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Queues variant generation for an entity whose original has just been stored.
+     * <p>
+     * Call this in the transaction that saves the entity: the job row then commits or rolls
+     * back with it, and the poller is only woken once it has committed.
+     */
+    public void submit(ImageVariantJob job) {
+        if (!targets.containsKey(job.target())) {
+            throw new IllegalArgumentException("Unknown image variant target: " + job.target());
+        }
+        queue.enqueue(job);
+        if (poller == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wake();
+                }
+            });
+        } else {
+            wake();
+        }
+    }
+
+    /**
+     * Drops every queued job for an entity that is being deleted, so none is run or
+     * dead-lettered for it afterwards.
+     */
+    public void cancel(String target, long id) {
+        queue.cancel(target, id);
+    }
+
+    /**
+     * Returns the image status of an entity, or empty if the target or entity is unknown.
+     */
+    public Optional<ImageVariantTarget.ImageVariantStatus> status(String target, long id) {
+        var handler = targets.get(target);
+        return handler != null ? handler.status(id) : Optional.empty();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (poller == null) {
+            log.info("Image variant jobs are not processed on this instance");
+            return;
+        }
+        poller.scheduleWithFixedDelay(this::poll, 0, properties.pollInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Has the poller look for jobs now, unless it has been shut down.
+     */
+    private void wake() {
+        try {
+            poller.execute(this::poll);
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the jobs are left to the next instance that polls
+        }
+    }
+
+    /**
+     * Claims as many jobs as there are idle workers. Only runs on the poller thread.
+     */
+    private void poll() {
+        refreshCounts();
+        int idle = properties.workers() - running.get();
+        if (idle <= 0) return;
+        try {
+            for (var job : queue.claim(idle)) {
+                if (job.getStatus() == ImageJob.State.DEAD) {
+                    abandoned(job);
+                    continue;
+                }
+                running.incrementAndGet();
+                workers.execute(() -> {
+                    try {
+                        run(job);
+                    } finally {
+                        running.decrementAndGet();
+                        wake();
+                    }
+                });
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to claim image variant jobs", e);
+        }
+    }
+
+    private void run(ImageJob claimed) {
+        var job = claimed.toJob();
+        var target = targets.get(job.target());
+        if (target == null) {
+            queue.deadLetter(claimed, "Unknown image variant target: " + job.target());
+            return;
+        }
+        String outcome;
+        try {
+            var variants = imageProcessingService.generateVariants(job.originalUrl());
+            if (target.complete(job.targetId(), job.originalUrl(), variants)) {
+                events.publishEvent(new ImageVariantsReadyEvent(job.target(), job.targetId()));
+                outcome = "ready";
+            } else {
+                // Deleted or re-uploaded meanwhile. The variants are left in place: their paths
+                // follow the original's, which another job (a retry or a takeover) may share
+                outcome = "superseded";
+            }
+            queue.complete(claimed);
+        } catch (ImageProcessingSaturatedException e) {
+            log.debug("Memory budget exhausted, deferring {} {} by {}", job.target(), job.targetId(), retryAfter);
+            queue.retry(claimed, retryAfter, null, false);
+            outcome = "deferred";
+        } catch (Exception e) {
+            if (claimed.getAttempts() >= properties.maxAttempts()) {
+                log.error("Giving up on image variants for {} {} after {} attempts",
+                        job.target(), job.targetId(), claimed.getAttempts(), e);
+                queue.deadLetter(claimed, String.valueOf(e));
+                target.fail(job.targetId(), job.originalUrl());
+                outcome = "dead";
+            } else {
+                var backoff = backoff(properties.initialBackoff(), claimed.getAttempts());
+                log.warn("Failed to generate image variants for {} {}, retrying in {}",
+                        job.target(), job.targetId(), backoff, e);
+                queue.retry(claimed, backoff, String.valueOf(e), true);
+                outcome = "retried";
+            }
+        }
+        meterRegistry.counter("tauphat.image.variants", "target", job.target(), "outcome", outcome).increment();
+    }
+
+    private void refreshCounts() {
+        var now = Instant.now();
+        if (now.isBefore(countedAt.plus(COUNT_INTERVAL))) return;
+        try {
+            pending.set(queue.count(ImageJob.State.PENDING));
+            dead.set(queue.count(ImageJob.State.DEAD));
+            countedAt = now;
+        } catch (RuntimeException e) {
+            log.warn("Failed to count image variant jobs: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Marks the entity of a job dead-lettered by {@link ImageJobQueue#claim} failed.
+     */
+    private void abandoned(ImageJob dead) {
+        var job = dead.toJob();
+        log.error("Giving up on image variants for {} {}: attempt {} never finished",
+                job.target(), job.targetId(), dead.getAttempts());
+        var target = targets.get(job.target());
+        try {
+            if (target != null) {
+                target.fail(job.targetId(), job.originalUrl());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to mark {} {} failed", job.target(), job.targetId(), e);
+        }
+        meterRegistry.counter("tauphat.image.variants", "target", job.target(), "outcome", "dead").increment();
+    }
+
+    /**
+     * {@code initial * 2^(attempts - 1)}, capped at a day.
+     */
+    static Duration backoff(Duration initial, int attempts) {
+        var delay = initial.multipliedBy(1L << Math.min(Math.max(attempts - 1, 0), 16));
+        return delay.compareTo(Duration.ofDays(1)) > 0 ? Duration.ofDays(1) : delay;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Claimed jobs that do not finish are taken over once their lease expires
+        if (poller != null) {
+            poller.shutdownNow();
+            workers.shutdownNow();
+        }
+    }
+}
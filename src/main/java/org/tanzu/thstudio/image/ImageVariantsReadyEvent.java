@@ -0,0 +1,10 @@
+package org.tanzu.thstudio.image;
+
+/**
+ * Published on the instance that recorded an entity's optimized and thumbnail variants.
+ *
+ * @param target   the {@link ImageVariantTarget#type()} of the entity
+ * @param targetId the entity ID
+ */
+public record ImageVariantsReadyEvent(String target, long targetId) {
+}
@@ -8,6 +8,7 @@ import com.google.cloud.storage.StorageOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.tanzu.thstudio.config.GoogleCredentialsManager;
 import org.tanzu.thstudio.config.TaupHatProperties;
 
 import java.io.IOException;
@@ -27,26 +28,29 @@ public class StorageService {
 
     private static final Logger log = LoggerFactory.getLogger(StorageService.class);
 
+    private static final String STORAGE_SCOPE = "https://www.googleapis.com/auth/devstorage.full_control";
+
     private final TaupHatProperties properties;
+    private final GoogleCredentialsManager credentialsManager;
     private volatile Storage storage;
 
-    public StorageService(TaupHatProperties properties) {
+    public StorageService(TaupHatProperties properties, GoogleCredentialsManager credentialsManager) {
         this.properties = properties;
+        this.credentialsManager = credentialsManager;
     }
 
     private Storage getStorage() {
         if (storage == null) {
             synchronized (this) {
                 if (storage == null) {
+                    // Shares the cached, proactively refreshed token with the other Google API clients
+                    var builder = StorageOptions.newBuilder()
+                            .setCredentials(credentialsManager.scoped(STORAGE_SCOPE));
                     String projectId = properties.gcs().projectId();
                     if (projectId != null && !projectId.isBlank()) {
-                        storage = StorageOptions.newBuilder()
-                                .setProjectId(projectId)
-                                .build()
-                                .getService();
-                    } else {
-                        storage = StorageOptions.getDefaultInstance().getService();
+                        builder.setProjectId(projectId);
                     }
+                    storage = builder.build().getService();
                 }
             }
         }
@@ -106,6 +110,18 @@ public class StorageService {
         return publicUrl(bucket, path);
     }
 
+    /**
+     * Downloads an object from GCS to a local file, replacing it if present.
+     *
+     * @param path   the object path within the bucket
+     * @param target local file to write
+     */
+    public void download(String path, Path target) {
+        String bucket = properties.gcs().bucketName();
+        getStorage().downloadTo(BlobId.of(bucket, path), target);
+        log.info("Downloaded gs://{}/{} to {}", bucket, path, target);
+    }
+
     /**
      * Deletes a single object from GCS.
      */
@@ -143,6 +159,15 @@ public class StorageService {
         log.info("Deleted {} objects under gs://{}/{}", count, bucket, prefix);
     }
 
+    /**
+     * Returns the object path of a public URL returned by {@code upload}, or {@code null}
+     * if the URL does not point into the configured bucket.
+     */
+    public String objectPath(String url) {
+        String prefix = publicUrl(properties.gcs().bucketName(), "");
+        return url != null && url.startsWith(prefix) ? url.substring(prefix.length()) : null;
+    }
+
     private String publicUrl(String bucket, String path) {
         return "https://storage.googleapis.com/" + bucket + "/" + path;
     }
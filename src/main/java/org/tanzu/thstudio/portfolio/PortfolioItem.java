@@ -3,13 +3,20 @@ package org.tanzu.thstudio.portfolio;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import org.tanzu.thstudio.image.ImageStatus;
+
+import java.time.Instant;
 
 @Entity
 @Table(name = "portfolio_item")
@@ -32,6 +39,10 @@ public class PortfolioItem {
 
     private String optimizedUrl;
 
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ImageStatus imageStatus = ImageStatus.READY;
+
     private String category;
 
     private Integer imageWidth;
@@ -52,6 +63,15 @@ public class PortfolioItem {
     @Column(nullable = false)
     private Integer setSortOrder = 0;
 
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now();
+    }
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
@@ -70,6 +90,9 @@ public class PortfolioItem {
     public String getOptimizedUrl() { return optimizedUrl; }
     public void setOptimizedUrl(String optimizedUrl) { this.optimizedUrl = optimizedUrl; }
 
+    public ImageStatus getImageStatus() { return imageStatus; }
+    public void setImageStatus(ImageStatus imageStatus) { this.imageStatus = imageStatus; }
+
     public String getCategory() { return category; }
     public void setCategory(String category) { this.category = category; }
 
@@ -89,4 +112,6 @@ public class PortfolioItem {
 
     public Integer getSetSortOrder() { return setSortOrder; }
     public void setSetSortOrder(Integer setSortOrder) { this.setSortOrder = setSortOrder; }
+
+    public Instant getUpdatedAt() { return updatedAt; }
 }
@@ -2,6 +2,7 @@ package org.tanzu.thstudio.portfolio;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -13,11 +14,15 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 import org.tanzu.thstudio.image.ImageProcessingService;
+import org.tanzu.thstudio.image.ImageStatus;
+import org.tanzu.thstudio.image.ImageVariantJob;
+import org.tanzu.thstudio.image.ImageVariantWorker;
 import org.tanzu.thstudio.image.StorageService;
 
 import java.io.IOException;
 import java.net.URI;
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/portfolio")
@@ -27,15 +32,21 @@ public class PortfolioItemController {
     private final PortfolioSetRepository setRepository;
     private final ImageProcessingService imageProcessingService;
     private final StorageService storageService;
+    private final ImageVariantWorker imageVariantWorker;
+    private final TransactionTemplate transactions;
 
     public PortfolioItemController(PortfolioItemRepository portfolioRepository,
                                    PortfolioSetRepository setRepository,
                                    ImageProcessingService imageProcessingService,
-                                   StorageService storageService) {
+                                   StorageService storageService,
+                                   ImageVariantWorker imageVariantWorker,
+                                   TransactionTemplate transactions) {
         this.portfolioRepository = portfolioRepository;
         this.setRepository = setRepository;
         this.imageProcessingService = imageProcessingService;
         this.storageService = storageService;
+        this.imageVariantWorker = imageVariantWorker;
+        this.transactions = transactions;
     }
 
     @GetMapping
@@ -50,6 +61,10 @@ public class PortfolioItemController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Stores the uploaded original and creates the item in the {@link ImageStatus#PROCESSING}
+     * state; the optimized and thumbnail variants are generated in the background.
+     */
     @PostMapping(consumes = "multipart/form-data")
     public ResponseEntity<PortfolioItem> create(@RequestParam("file") MultipartFile file,
                                                 @RequestParam("title") String title,
@@ -62,10 +77,10 @@ public class PortfolioItemController {
         var existing = portfolioRepository.findAllByOrderBySortOrderAsc();
         int nextSortOrder = existing.isEmpty() ? 0 : existing.getLast().getSortOrder() + 1;
 
-        // Process and upload image to GCS
+        // Store the original in GCS; variants follow in the background
         String basePath = "images/portfolio";
-        String filename = "item-" + System.currentTimeMillis();
-        var urls = imageProcessingService.processAndUpload(file, basePath, filename);
+        String filename = "item-" + UUID.randomUUID();
+        var original = imageProcessingService.storeOriginal(file, basePath, filename);
 
         // Create portfolio item
         var item = new PortfolioItem();
@@ -73,11 +88,10 @@ public class PortfolioItemController {
         item.setDescription(description);
         item.setCategory(category);
         item.setSortOrder(nextSortOrder);
-        item.setImageUrl(urls.originalUrl());
-        item.setThumbnailUrl(urls.thumbnailUrl());
-        item.setOptimizedUrl(urls.optimizedUrl());
-        item.setImageWidth(urls.width());
-        item.setImageHeight(urls.height());
+        item.setImageUrl(original.originalUrl());
+        item.setImageStatus(ImageStatus.PROCESSING);
+        item.setImageWidth(original.width());
+        item.setImageHeight(original.height());
 
         if (setId != null) {
             setRepository.findById(setId).ifPresent(set -> {
@@ -87,7 +101,7 @@ public class PortfolioItemController {
             });
         }
 
-        var saved = portfolioRepository.save(item);
+        var saved = saveAndSubmitVariants(item);
         return ResponseEntity
                 .created(URI.create("/api/portfolio/" + saved.getId()))
                 .body(saved);
@@ -115,18 +129,19 @@ public class PortfolioItemController {
                         // Delete old GCS assets
                         deleteItemAssets(existing);
 
-                        // Process and upload new image
+                        // Store the new original; variants follow in the background
                         String basePath = "images/portfolio";
-                        String filename = "item-" + System.currentTimeMillis();
-                        var urls = imageProcessingService.processAndUpload(file, basePath, filename);
+                        String filename = "item-" + UUID.randomUUID();
+                        var original = imageProcessingService.storeOriginal(file, basePath, filename);
 
-                        existing.setImageUrl(urls.originalUrl());
-                        existing.setThumbnailUrl(urls.thumbnailUrl());
-                        existing.setOptimizedUrl(urls.optimizedUrl());
-                        existing.setImageWidth(urls.width());
-                        existing.setImageHeight(urls.height());
+                        existing.setImageUrl(original.originalUrl());
+                        existing.setThumbnailUrl(null);
+                        existing.setOptimizedUrl(null);
+                        existing.setImageStatus(ImageStatus.PROCESSING);
+                        existing.setImageWidth(original.width());
+                        existing.setImageHeight(original.height());
 
-                        return ResponseEntity.ok(portfolioRepository.save(existing));
+                        return ResponseEntity.ok(saveAndSubmitVariants(existing));
                     } catch (IOException e) {
                         throw new RuntimeException("Failed to process image upload", e);
                     }
@@ -140,6 +155,7 @@ public class PortfolioItemController {
                 .map(item -> {
                     deleteItemAssets(item);
                     portfolioRepository.delete(item);
+                    imageVariantWorker.cancel(PortfolioItemImageTarget.TYPE, item.getId());
                     return ResponseEntity.noContent().<Void>build();
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -161,6 +177,19 @@ public class PortfolioItemController {
         return portfolioRepository.saveAll(allItems);
     }
 
+    /**
+     * Saves the item and queues its variant job in one transaction, so neither is kept without
+     * the other. The GCS upload stays outside it.
+     */
+    private PortfolioItem saveAndSubmitVariants(PortfolioItem item) {
+        return transactions.execute(status -> {
+            var saved = portfolioRepository.save(item);
+            imageVariantWorker.submit(new ImageVariantJob(PortfolioItemImageTarget.TYPE,
+                    saved.getId(), saved.getImageUrl()));
+            return saved;
+        });
+    }
+
     private void deleteItemAssets(PortfolioItem item) {
         deleteGcsUrl(item.getImageUrl());
         deleteGcsUrl(item.getOptimizedUrl());
@@ -0,0 +1,46 @@
+package org.tanzu.thstudio.portfolio;
+
+import org.springframework.stereotype.Component;
+import org.tanzu.thstudio.image.ImageProcessingService;
+import org.tanzu.thstudio.image.ImageStatus;
+import org.tanzu.thstudio.image.ImageVariantTarget;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Receives background-generated variants for uploaded portfolio items.
+ */
+@Component
+public class PortfolioItemImageTarget implements ImageVariantTarget {
+
+    public static final String TYPE = "portfolio-item";
+
+    private final PortfolioItemRepository itemRepository;
+
+    public PortfolioItemImageTarget(PortfolioItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public Optional<ImageVariantStatus> status(long id) {
+        return itemRepository.findById(id).map(item -> new ImageVariantStatus(item.getImageStatus(),
+                item.getImageUrl(), item.getOptimizedUrl(), item.getThumbnailUrl()));
+    }
+
+    @Override
+    public boolean complete(long id, String originalUrl, ImageProcessingService.VariantUrls variants) {
+        return itemRepository.updateVariants(id, originalUrl, variants.optimizedUrl(), variants.thumbnailUrl(),
+                ImageStatus.READY, Instant.now()) > 0;
+    }
+
+    @Override
+    public void fail(long id, String originalUrl) {
+        itemRepository.updateImageStatus(id, originalUrl, ImageStatus.FAILED, Instant.now());
+    }
+}
@@ -1,7 +1,12 @@
 package org.tanzu.thstudio.portfolio;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import org.tanzu.thstudio.image.ImageStatus;
 
+import java.time.Instant;
 import java.util.List;
 
 public interface PortfolioItemRepository extends JpaRepository<PortfolioItem, Long> {
@@ -13,4 +18,39 @@ public interface PortfolioItemRepository extends JpaRepository<PortfolioItem, Lo
     List<PortfolioItem> findBySetIdOrderBySetSortOrderAsc(Long setId);
 
     List<PortfolioItem> findBySetIdIsNullOrderBySortOrderAsc();
+
+    /**
+     * Identity, set membership and last change of an item, without loading the entity.
+     */
+    interface Stamp {
+        Long getId();
+        Long getSetId();
+        Instant getUpdatedAt();
+    }
+
+    @Query("select i.id as id, i.setId as setId, i.updatedAt as updatedAt from PortfolioItem i "
+            + "order by i.sortOrder asc")
+    List<Stamp> findAllStamps();
+
+    /**
+     * Stores generated variants and sets the image status, unless the item's image was replaced
+     * since the variants were requested. Returns the number of rows updated: 0 when superseded.
+     */
+    @Modifying
+    @Transactional
+    @Query("update PortfolioItem i set i.optimizedUrl = :optimizedUrl, i.thumbnailUrl = :thumbnailUrl, "
+            + "i.imageStatus = :status, i.updatedAt = :now "
+            + "where i.id = :id and i.imageUrl = :originalUrl")
+    int updateVariants(Long id, String originalUrl, String optimizedUrl, String thumbnailUrl,
+                       ImageStatus status, Instant now);
+
+    /**
+     * Sets the image status, unless the item's image was replaced since it was requested.
+     * Returns the number of rows updated.
+     */
+    @Modifying
+    @Transactional
+    @Query("update PortfolioItem i set i.imageStatus = :status, i.updatedAt = :now "
+            + "where i.id = :id and i.imageUrl = :originalUrl")
+    int updateImageStatus(Long id, String originalUrl, ImageStatus status, Instant now);
 }
@@ -8,8 +8,11 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OrderBy;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -42,6 +45,15 @@ public class PortfolioSet {
     @OrderBy("setSortOrder ASC")
     private List<PortfolioItem> items = new ArrayList<>();
 
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now();
+    }
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
@@ -65,4 +77,6 @@ public class PortfolioSet {
 
     public List<PortfolioItem> getItems() { return items; }
     public void setItems(List<PortfolioItem> items) { this.items = items; }
+
+    public Instant getUpdatedAt() { return updatedAt; }
 }
@@ -1,10 +1,23 @@
 package org.tanzu.thstudio.portfolio;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.Instant;
 import java.util.List;
 
 public interface PortfolioSetRepository extends JpaRepository<PortfolioSet, Long> {
 
     List<PortfolioSet> findAllByOrderBySortOrderAsc();
+
+    /**
+     * Identity and last change of a set, without loading the entity.
+     */
+    interface Stamp {
+        Long getId();
+        Instant getUpdatedAt();
+    }
+
+    @Query("select s.id as id, s.updatedAt as updatedAt from PortfolioSet s order by s.sortOrder asc")
+    List<Stamp> findAllStamps();
 }
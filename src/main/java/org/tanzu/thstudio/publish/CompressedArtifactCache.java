@@ -0,0 +1,191 @@
+package org.tanzu.thstudio.publish;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Content-addressed disk cache of gzipped files, so unchanged assets are never
+ * re-compressed or re-hashed.
+ * <p>
+ * Entries are keyed by the SHA-256 of the raw bytes and stored as
+ * {@code <raw-hash>.<gzip-hash>.gz} under {@code tauphat.publish.artifact-cache.directory},
+ * which lets the index be rebuilt from file names alone after a restart. The cache is
+ * bounded by {@code tauphat.publish.artifact-cache.max-size} and evicts the least recently
+ * used entries first (recency is kept in the files' modification times).
+ * <p>
+ * {@link GzipSink} output is deterministic (zero header mtime, fixed compression level),
+ * so a cached entry is byte-identical to a fresh compression and its hash matches what
+ * Firebase Hosting already has.
+ */
+@Component
+class CompressedArtifactCache {
+
+    private static final Logger log = LoggerFactory.getLogger(CompressedArtifactCache.class);
+    private static final String SUFFIX = ".gz";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxSize;
+
+    /** Entries by raw hash, in access order (least recently used first). */
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalSize;
+    private boolean loaded;
+
+    CompressedArtifactCache(PublishProperties properties) {
+        var cache = properties.artifactCache();
+        this.enabled = cache.enabled();
+        this.directory = cache.directory();
+        this.maxSize = cache.maxSize().toBytes();
+    }
+
+    /**
+     * Returns the gzipped form of {@code content}, from the cache when possible.
+     */
+    GzipSink.Result compress(byte[] content) {
+        if (!enabled) {
+            return GzipSink.compress(content);
+        }
+        var rawHash = sha256Hex(content);
+        var cached = lookup(rawHash);
+        if (cached != null) {
+            try {
+                return new GzipSink.Result(Files.readAllBytes(cached.file()), cached.gzipHash(), content.length);
+            } catch (IOException e) {
+                log.warn("Dropping unreadable cached artifact {}: {}", cached.file(), e.getMessage());
+                remove(rawHash);
+            }
+        }
+        var result = GzipSink.compress(content);
+        put(rawHash, result);
+        return result;
+    }
+
+    private synchronized Entry lookup(String rawHash) {
+        ensureLoaded();
+        var entry = entries.get(rawHash);
+        if (entry != null) {
+            try {
+                Files.setLastModifiedTime(entry.file(), FileTime.fromMillis(System.currentTimeMillis()));
+            } catch (IOException e) {
+                // Recency is best effort; the entry is still usable
+                log.debug("Failed to touch cached artifact {}: {}", entry.file(), e.getMessage());
+            }
+        }
+        return entry;
+    }
+
+    private synchronized void put(String rawHash, GzipSink.Result result) {
+        if (result.gzipped().length > maxSize || entries.containsKey(rawHash)) {
+            return;
+        }
+        var file = directory.resolve(rawHash + "." + result.sha256() + SUFFIX);
+        try {
+            var temp = Files.createTempFile(directory, rawHash, ".tmp");
+            Files.write(temp, result.gzipped());
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to cache compressed artifact {}: {}", rawHash, e.getMessage());
+            return;
+        }
+        entries.put(rawHash, new Entry(file, result.sha256(), result.gzipped().length));
+        totalSize += result.gzipped().length;
+        evict();
+    }
+
+    private synchronized void remove(String rawHash) {
+        var entry = entries.remove(rawHash);
+        if (entry != null) {
+            totalSize -= entry.size();
+            deleteQuietly(entry.file());
+        }
+    }
+
+    private void evict() {
+        var iterator = entries.values().iterator();
+        while (totalSize > maxSize && iterator.hasNext()) {
+            var eldest = iterator.next();
+            iterator.remove();
+            totalSize -= eldest.size();
+            deleteQuietly(eldest.file());
+        }
+    }
+
+    /**
+     * Rebuilds the index from the cache directory, oldest entries first.
+     */
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        try {
+            Files.createDirectories(directory);
+            var found = new ArrayList<Map.Entry<FileTime, Path>>();
+            try (var files = Files.list(directory)) {
+                for (var file : (Iterable<Path>) files::iterator) {
+                    var name = file.getFileName().toString();
+                    if (name.endsWith(".tmp")) {
+                        deleteQuietly(file);
+                    } else if (name.endsWith(SUFFIX)) {
+                        found.add(Map.entry(Files.getLastModifiedTime(file), file));
+                    }
+                }
+            }
+            found.sort(Map.Entry.comparingByKey(Comparator.naturalOrder()));
+            for (var item : found) {
+                var file = item.getValue();
+                var name = file.getFileName().toString();
+                var parts = name.substring(0, name.length() - SUFFIX.length()).split("\\.");
+                if (parts.length != 2) {
+                    continue;
+                }
+                long size = Files.size(file);
+                entries.put(parts[0], new Entry(file, parts[1], size));
+                totalSize += size;
+            }
+            evict();
+            log.info("Compressed artifact cache: {} entries ({} bytes) in {}", entries.size(), totalSize, directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open compressed artifact cache at " + directory, e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete cached artifact {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static String sha256Hex(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Entry(Path file, String gzipHash, long size) {}
+}
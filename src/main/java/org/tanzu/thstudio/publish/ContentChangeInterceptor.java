@@ -0,0 +1,34 @@
+package org.tanzu.thstudio.publish;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Set;
+
+/**
+ * Publishes a {@link ContentChangedEvent} after each successful mutating request to the
+ * content controllers it is registered for (see {@code WebConfig}). The event is raised
+ * once the handler has returned, so the change is already committed when listeners run.
+ */
+@Component
+public class ContentChangeInterceptor implements HandlerInterceptor {
+
+    private static final Set<String> MUTATING_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ContentChangeInterceptor(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        if (ex == null && response.getStatus() < 400 && MUTATING_METHODS.contains(request.getMethod())) {
+            eventPublisher.publishEvent(new ContentChangedEvent(request.getRequestURI()));
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package org.tanzu.thstudio.publish;
+
+/**
+ * Published after a request that changed site content (webcomic, portfolio or site
+ * config) completed successfully.
+ *
+ * @param path the request path that made the change, for logging
+ */
+public record ContentChangedEvent(String path) {}
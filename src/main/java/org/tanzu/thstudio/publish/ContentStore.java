@@ -0,0 +1,152 @@
+package org.tanzu.thstudio.publish;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides where the bytes of generated files live.
+ * <p>
+ * Files up to {@code tauphat.publish.storage.spill-threshold} stay on the heap as long as
+ * the total heap held by stored content is within {@code tauphat.publish.storage.heap-budget};
+ * everything else is spilled to a temp file and read back as a stream. Stored content is
+ * released once it becomes unreachable (e.g. a previous build is replaced): heap usage is
+ * given back to the budget and spill files are deleted.
+ */
+@Component
+class ContentStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentStore.class);
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final long heapBudget;
+    private final long spillThreshold;
+    private final Path baseDirectory;
+
+    private final AtomicLong heapBytes = new AtomicLong();
+    private final AtomicLong spilledBytes = new AtomicLong();
+    private volatile Path spillDirectory;
+
+    ContentStore(PublishProperties properties) {
+        var storage = properties.storage();
+        this.heapBudget = storage.heapBudget().toBytes();
+        this.spillThreshold = storage.spillThreshold().toBytes();
+        this.baseDirectory = storage.directory();
+    }
+
+    /**
+     * Stores the given bytes, taking ownership of the array.
+     */
+    FileContent store(byte[] content) {
+        if (content.length <= spillThreshold && reserveHeap(content.length)) {
+            var heapContent = new HeapContent(content);
+            long size = content.length;
+            CLEANER.register(heapContent, () -> heapBytes.addAndGet(-size));
+            return heapContent;
+        }
+        return spill(content);
+    }
+
+    /** Bytes of stored content currently held on the heap. */
+    long heapBytes() {
+        return heapBytes.get();
+    }
+
+    /** Bytes of stored content currently held in spill files. */
+    long spilledBytes() {
+        return spilledBytes.get();
+    }
+
+    private boolean reserveHeap(long size) {
+        long used;
+        do {
+            used = heapBytes.get();
+            if (used + size > heapBudget) {
+                return false;
+            }
+        } while (!heapBytes.compareAndSet(used, used + size));
+        return true;
+    }
+
+    private FileContent spill(byte[] content) {
+        try {
+            var file = Files.createTempFile(spillDirectory(), "file-", ".bin");
+            Files.write(file, content);
+            var spilled = new SpilledContent(file, content.length);
+            long size = content.length;
+            spilledBytes.addAndGet(size);
+            CLEANER.register(spilled, () -> {
+                spilledBytes.addAndGet(-size);
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("Failed to delete spilled site file {}: {}", file, e.getMessage());
+                }
+            });
+            return spilled;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spill generated file to disk", e);
+        }
+    }
+
+    private Path spillDirectory() throws IOException {
+        var directory = spillDirectory;
+        if (directory == null) {
+            synchronized (this) {
+                directory = spillDirectory;
+                if (directory == null) {
+                    directory = baseDirectory != null
+                            ? Files.createTempDirectory(Files.createDirectories(baseDirectory), "tauphat-site-")
+                            : Files.createTempDirectory("tauphat-site-");
+                    spillDirectory = directory;
+                    log.info("Spilling large generated site files to {}", directory);
+                }
+            }
+        }
+        return directory;
+    }
+
+    @PreDestroy
+    void deleteSpillDirectory() throws IOException {
+        if (spillDirectory != null) {
+            FileSystemUtils.deleteRecursively(spillDirectory);
+        }
+    }
+
+    private record HeapContent(byte[] content) implements FileContent {
+
+        @Override
+        public long size() {
+            return content.length;
+        }
+
+        @Override
+        public InputStream openStream() {
+            return new ByteArrayInputStream(content);
+        }
+
+        @Override
+        public byte[] bytes() {
+            return content;
+        }
+    }
+
+    private record SpilledContent(Path file, long size) implements FileContent {
+
+        @Override
+        public InputStream openStream() throws IOException {
+            return Files.newInputStream(file);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.tanzu.thstudio.publish;
+
+/**
+ * Outcome of deploying a {@link GeneratedSite} to Firebase Hosting.
+ * <p>
+ * Files whose gzip hash Firebase already holds (from any earlier version of the site)
+ * are skipped; only the hashes reported as required by {@code populateFiles} are uploaded.
+ *
+ * @param versionName   the Firebase version (e.g. {@code sites/my-site/versions/abc123})
+ * @param url           the URL the version was released to
+ * @param fileCount     number of files in the version
+ * @param uploadedFiles number of distinct files uploaded
+ * @param skippedFiles  number of files Firebase already had
+ * @param uploadedBytes gzipped bytes uploaded
+ * @param skippedBytes  gzipped bytes not uploaded because Firebase already had them
+ */
+public record DeployResult(String versionName, String url, int fileCount,
+                           int uploadedFiles, int skippedFiles, long uploadedBytes, long skippedBytes) {
+
+    DeployResult withUrl(String url) {
+        return new DeployResult(versionName, url, fileCount, uploadedFiles, skippedFiles, uploadedBytes, skippedBytes);
+    }
+}
@@ -0,0 +1,41 @@
+package org.tanzu.thstudio.publish;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+/**
+ * The {@link SiteManifest} last released to a target: its digest and each file's stamp
+ * (a JSON object of path to stamp), which later plans are compared against.
+ */
+@Entity
+@Table(name = "deployed_manifest")
+public class DeployedManifest {
+
+    @Id
+    private String target;
+
+    @Column(nullable = false)
+    private String digest;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String stamps;
+
+    @Column(nullable = false)
+    private Instant deployedAt;
+
+    public String getTarget() { return target; }
+    public void setTarget(String target) { this.target = target; }
+
+    public String getDigest() { return digest; }
+    public void setDigest(String digest) { this.digest = digest; }
+
+    public String getStamps() { return stamps; }
+    public void setStamps(String stamps) { this.stamps = stamps; }
+
+    public Instant getDeployedAt() { return deployedAt; }
+    public void setDeployedAt(Instant deployedAt) { this.deployedAt = deployedAt; }
+}
@@ -0,0 +1,6 @@
+package org.tanzu.thstudio.publish;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface DeployedManifestRepository extends JpaRepository<DeployedManifest, String> {
+}
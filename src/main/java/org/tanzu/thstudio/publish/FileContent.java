@@ -0,0 +1,30 @@
+package org.tanzu.thstudio.publish;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * The bytes of a generated file, held either on the heap or in a temp file
+ * depending on where the {@link ContentStore} placed them.
+ * <p>
+ * Consumers should prefer {@link #openStream()} so that spilled content is never
+ * loaded into memory as a whole.
+ */
+public interface FileContent {
+
+    long size();
+
+    InputStream openStream() throws IOException;
+
+    /**
+     * Reads the whole content into a byte array. Intended for small files and tests.
+     */
+    default byte[] bytes() {
+        try (var in = openStream()) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read generated file content", e);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.tanzu.thstudio.publish;
+
+import org.tanzu.thstudio.portfolio.PortfolioItem;
+import org.tanzu.thstudio.portfolio.PortfolioSet;
+import org.tanzu.thstudio.site.SiteConfig;
+import org.tanzu.thstudio.webcomic.WebcomicIssue;
+import org.tanzu.thstudio.webcomic.WebcomicPage;
+import org.tanzu.thstudio.webcomic.WebcomicSeries;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Accumulates every input that a generated file is rendered from (template version,
+ * {@link SiteConfig} fields and CMS entities) into a SHA-256 digest.
+ * <p>
+ * Two builds that produce the same fingerprint for a path are guaranteed to render
+ * the same bytes for it, so the generator can reuse the previous output unchanged.
+ */
+final class Fingerprint {
+
+    private static final byte FIELD_SEPARATOR = 0x1F;
+    private static final byte NULL_MARKER = 0x00;
+
+    private final MessageDigest digest;
+
+    private Fingerprint(String templateVersion) {
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        add(templateVersion);
+    }
+
+    static Fingerprint of(String templateVersion) {
+        return new Fingerprint(templateVersion);
+    }
+
+    Fingerprint add(Object value) {
+        if (value == null) {
+            digest.update(NULL_MARKER);
+        } else {
+            digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update(FIELD_SEPARATOR);
+        return this;
+    }
+
+    /**
+     * Adds the config values read by the shared layout fragments (head, header, footer, scripts).
+     */
+    Fingerprint layout(SiteConfig config, int copyrightYear) {
+        return add(config.getSiteName())
+                .add(config.getAdobeFontsUrl())
+                .add(config.getGoogleAnalyticsId())
+                .add(config.getAboutText())
+                .add(config.getHeroImageUrl())
+                .add(config.getBigcartelUrl())
+                // Footer copyright year
+                .add(copyrightYear);
+    }
+
+    Fingerprint series(WebcomicSeries series) {
+        if (series == null) return add(null);
+        return add(series.getId())
+                .add(series.getTitle())
+                .add(series.getSlug())
+                .add(series.getDescription())
+                .add(series.getCoverImageUrl())
+                .add(series.getSortOrder());
+    }
+
+    Fingerprint issue(WebcomicIssue issue) {
+        if (issue == null) return add(null);
+        return add(issue.getId())
+                .add(issue.getIssueNumber())
+                .add(issue.getTitle())
+                .add(issue.getCoverImageUrl())
+                .add(issue.getPublishDate());
+    }
+
+    Fingerprint pages(List<WebcomicPage> pages) {
+        add(pages.size());
+        for (var page : pages) {
+            add(page.getPageNumber())
+                    .add(page.getImageUrl())
+                    .add(page.getOptimizedUrl())
+                    .add(page.getThumbnailUrl());
+        }
+        return this;
+    }
+
+    Fingerprint item(PortfolioItem item) {
+        return add(item.getId())
+                .add(item.getTitle())
+                .add(item.getDescription())
+                .add(item.getCategory())
+                .add(item.getImageUrl())
+                .add(item.getOptimizedUrl())
+                .add(item.getThumbnailUrl())
+                .add(item.getImageWidth())
+                .add(item.getImageHeight())
+                .add(item.getSortOrder());
+    }
+
+    Fingerprint set(PortfolioSet set) {
+        return add(set.getId())
+                .add(set.getTitle())
+                .add(set.getDescription())
+                .add(set.getIconImageUrl())
+                .add(set.getIconOptimizedUrl())
+                .add(set.getIconThumbnailUrl())
+                .add(set.getSortOrder());
+    }
+
+    String value() {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -1,25 +1,32 @@
 package org.tanzu.thstudio.publish;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.auth.oauth2.GoogleCredentials;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.tanzu.thstudio.config.GoogleCredentialsManager;
 import org.tanzu.thstudio.config.TaupHatProperties;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.HexFormat;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.zip.GZIPOutputStream;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 /**
  * Deploys a {@link GeneratedSite} to Firebase Hosting via the REST API.
@@ -28,79 +35,191 @@ import java.util.zip.GZIPOutputStream;
  * and the live channel (production).
  * <p>
  * Authentication uses Application Default Credentials with the
- * {@code firebase.hosting} scope.
+ * {@code firebase.hosting} scope, via the shared {@link GoogleCredentialsManager}
+ * token cache.
+ * <p>
+ * Release history and the current preview are read back from Firebase rather than kept
+ * here, so promotion and rollback keep working across restarts and redeploys.
  */
 @Service
 public class FirebaseHostingService {
 
     private static final Logger log = LoggerFactory.getLogger(FirebaseHostingService.class);
-    private static final String BASE_URL = "https://firebasehosting.googleapis.com/v1beta1";
     private static final String HOSTING_SCOPE = "https://www.googleapis.com/auth/firebase.hosting";
+    private static final String PREVIEW_CHANNEL = "preview";
 
     private final TaupHatProperties properties;
+    private final PublishProperties publishProperties;
+    private final GoogleCredentialsManager credentialsManager;
+    private final String baseUrl;
+    private final String uploadBaseUrl;
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private final HttpClient httpClient = HttpClient.newHttpClient();
-
-    public FirebaseHostingService(TaupHatProperties properties) {
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofSeconds(30))
+            .build();
+    private final FirebaseUploader uploader;
+
+    public FirebaseHostingService(TaupHatProperties properties, PublishProperties publishProperties,
+                                  GoogleCredentialsManager credentialsManager) {
         this.properties = properties;
+        this.publishProperties = publishProperties;
+        this.credentialsManager = credentialsManager;
+        this.baseUrl = stripTrailingSlash(properties.firebase().apiBaseUrl());
+        this.uploadBaseUrl = stripTrailingSlash(properties.firebase().uploadBaseUrl());
+        this.uploader = new FirebaseUploader(httpClient, publishProperties.upload());
     }
 
     /**
-     * Deploys the site to a Firebase preview channel and returns the preview URL.
+     * Deploys the site to a Firebase preview channel.
      *
      * @param site the generated static site
-     * @return the preview channel URL (e.g. {@code https://site--preview-abc123.web.app})
+     * @return the deploy result, with the preview channel URL (e.g. {@code https://site--preview-abc123.web.app})
+     */
+    public DeployResult deployToPreview(GeneratedSite site) throws IOException, InterruptedException {
+        return deployToPreview(site, PublishProgressListener.NONE);
+    }
+
+    /**
+     * Deploys the site to a Firebase preview channel, reporting each stage to the listener.
      */
-    public String deployToPreview(GeneratedSite site) throws IOException, InterruptedException {
+    public DeployResult deployToPreview(GeneratedSite site, PublishProgressListener listener)
+            throws IOException, InterruptedException {
         validateConfig();
         String siteId = properties.firebase().siteId();
         log.info("Deploying {} files to Firebase preview channel for site '{}'", site.fileCount(), siteId);
 
-        // Prepare gzipped content and hashes
-        var fileHashes = prepareFiles(site);
-
-        // Create version
-        String versionId = createVersion(siteId);
-        log.info("Created version: {}", versionId);
-
-        // Populate files and upload required ones
-        var uploadUrl = populateFiles(versionId, fileHashes);
-        uploadFiles(uploadUrl, fileHashes);
-
-        // Finalize version
-        finalizeVersion(versionId);
-        log.info("Version finalized: {}", versionId);
+        var result = uploadVersion(siteId, site, listener);
 
         // Create preview channel and release
-        String previewUrl = createPreviewRelease(siteId, versionId);
+        listener.stageStarted(PublishStage.RELEASE);
+        String previewUrl = createPreviewRelease(siteId, result.versionName());
         log.info("Preview deployed: {}", previewUrl);
 
-        return previewUrl;
+        return result.withUrl(previewUrl);
     }
 
     /**
      * Deploys the site to the live Firebase Hosting channel.
      *
      * @param site the generated static site
+     * @return the deploy result, with the live site URL
      */
-    public void deployToLive(GeneratedSite site) throws IOException, InterruptedException {
+    public DeployResult deployToLive(GeneratedSite site) throws IOException, InterruptedException {
+        return deployToLive(site, PublishProgressListener.NONE);
+    }
+
+    /**
+     * Deploys the site to the live Firebase Hosting channel, reporting each stage to the listener.
+     */
+    public DeployResult deployToLive(GeneratedSite site, PublishProgressListener listener)
+            throws IOException, InterruptedException {
         validateConfig();
         String siteId = properties.firebase().siteId();
         log.info("Deploying {} files to Firebase live channel for site '{}'", site.fileCount(), siteId);
 
+        var result = uploadVersion(siteId, site, listener);
+
+        listener.stageStarted(PublishStage.RELEASE);
+        createLiveRelease(siteId, result.versionName(), result.fileCount());
+        log.info("Live deployment complete for site '{}'", siteId);
+
+        return result.withUrl("https://" + siteId + ".web.app");
+    }
+
+    /**
+     * Releases the version last deployed to the preview channel to the live channel.
+     * The version is already finalized on Firebase, so this is a single release call:
+     * nothing is regenerated or uploaded, and live serves exactly what was previewed.
+     *
+     * @return the deploy result for the promoted version, with the live site URL,
+     *         or empty if the preview channel does not exist or has no release
+     */
+    public Optional<DeployResult> promotePreviewToLive() throws IOException, InterruptedException {
+        validateConfig();
+        String siteId = properties.firebase().siteId();
+        var channel = firebaseFind(baseUrl + "/sites/" + siteId + "/channels/" + PREVIEW_CHANNEL);
+        if (channel.isEmpty()) {
+            return Optional.empty();
+        }
+        var version = objectMapper.readTree(channel.get()).path("release").path("version");
+        if (!version.hasNonNull("name")) {
+            return Optional.empty();
+        }
+        String versionName = version.get("name").asText();
+        int fileCount = version.path("fileCount").asInt();
+        log.info("Promoting preview version {} to the live channel for site '{}'", versionName, siteId);
+
+        createLiveRelease(siteId, versionName, fileCount);
+        log.info("Live deployment complete for site '{}'", siteId);
+
+        return Optional.of(new DeployResult(versionName, "https://" + siteId + ".web.app",
+                fileCount, 0, fileCount, 0, version.path("versionBytes").asLong()));
+    }
+
+    /**
+     * Returns the most recent live releases ({@code tauphat.publish.releases.history-size}),
+     * newest first, as listed by Firebase. The first entry is the version currently served.
+     */
+    public List<LiveRelease> liveReleases() throws IOException, InterruptedException {
+        validateConfig();
+        String siteId = properties.firebase().siteId();
+        var response = firebaseGet(baseUrl + "/sites/" + siteId + "/channels/live/releases?pageSize="
+                + publishProperties.releases().historySize());
+        var releases = new ArrayList<LiveRelease>();
+        var versions = new HashSet<String>();
+        for (var release : objectMapper.readTree(response).path("releases")) {
+            var version = release.path("version");
+            // Releases without a version (e.g. disabling the site) cannot be rolled back to
+            if (version.hasNonNull("name") && versions.add(version.get("name").asText())) {
+                releases.add(new LiveRelease(version.get("name").asText(),
+                        Instant.parse(release.path("releaseTime").asText()), version.path("fileCount").asInt()));
+            }
+        }
+        return releases;
+    }
+
+    /**
+     * Re-releases a previous live version to the live channel. Versions stay finalized on
+     * Firebase, so this is a single release call without rendering or uploading.
+     *
+     * @param versionName a version from {@link #liveReleases()}
+     * @return the new live release, or empty if the version is not in the release history
+     */
+    public Optional<LiveRelease> rollbackTo(String versionName) throws IOException, InterruptedException {
+        validateConfig();
+        var target = liveReleases().stream()
+                .filter(release -> release.versionName().equals(versionName))
+                .findFirst();
+        if (target.isEmpty()) {
+            return Optional.empty();
+        }
+        String siteId = properties.firebase().siteId();
+        log.info("Rolling back live channel for site '{}' to version {}", siteId, versionName);
+        return Optional.of(createLiveRelease(siteId, versionName, target.get().fileCount()));
+    }
+
+    /**
+     * Creates a version, populates and uploads its files, and finalizes it.
+     * The returned result has no URL yet; that depends on where the version is released.
+     */
+    private DeployResult uploadVersion(String siteId, GeneratedSite site, PublishProgressListener listener)
+            throws IOException, InterruptedException {
         var fileHashes = prepareFiles(site);
 
+        listener.stageStarted(PublishStage.POPULATE);
         String versionId = createVersion(siteId);
         log.info("Created version: {}", versionId);
 
-        var uploadUrl = populateFiles(versionId, fileHashes);
-        uploadFiles(uploadUrl, fileHashes);
+        // Populate files and upload only the ones Firebase does not have yet
+        var populated = populateFiles(versionId, fileHashes);
+        listener.stageStarted(PublishStage.UPLOAD);
+        var result = uploadFiles(versionId, populated, fileHashes, listener);
 
+        listener.stageStarted(PublishStage.FINALIZE);
         finalizeVersion(versionId);
         log.info("Version finalized: {}", versionId);
-
-        createLiveRelease(siteId, versionId);
-        log.info("Live deployment complete for site '{}'", siteId);
+        return result;
     }
 
     // ── Firebase Hosting REST API steps ─────────────────────────────────────
@@ -126,7 +245,7 @@ public class FirebaseHostingService {
         );
 
         var response = firebasePost(
-                BASE_URL + "/sites/" + siteId + "/versions",
+                baseUrl + "/sites/" + siteId + "/versions",
                 objectMapper.writeValueAsString(configMap)
         );
         var json = objectMapper.readTree(response);
@@ -135,68 +254,120 @@ public class FirebaseHostingService {
 
     /**
      * Step 2: Populate files in the version.
-     * Sends a map of {"/path": "gzipSha256Hash"} and receives the upload URL
-     * plus which files need to be uploaded.
-     * Returns the upload URL prefix.
+     * Sends maps of {"/path": "gzipSha256Hash"} and receives the upload URL
+     * plus the hashes of the files Firebase does not have yet.
+     * <p>
+     * Firebase caps the number of files per call, so the file map is split into batches of
+     * {@code tauphat.publish.upload.populate-batch-size}, sent concurrently with streamed
+     * request bodies, and the required hashes of all batches are merged.
      */
-    private String populateFiles(String versionName, Map<String, FileData> fileHashes)
+    private PopulateResult populateFiles(String versionName, Map<String, FileData> fileHashes)
             throws IOException, InterruptedException {
-        var filesMap = new LinkedHashMap<String, String>();
+        var files = new ArrayList<Map.Entry<String, String>>(fileHashes.size());
         for (var entry : fileHashes.entrySet()) {
             // Firebase expects paths starting with /
             String path = entry.getKey().startsWith("/") ? entry.getKey() : "/" + entry.getKey();
-            filesMap.put(path, entry.getValue().hash());
+            files.add(Map.entry(path, entry.getValue().hash()));
         }
 
-        var body = Map.of("files", filesMap);
-        var response = firebasePost(
-                BASE_URL + "/" + versionName + ":populateFiles",
-                objectMapper.writeValueAsString(body)
-        );
+        int batchSize = publishProperties.upload().populateBatchSize();
+        var batches = new ArrayList<List<Map.Entry<String, String>>>();
+        for (int from = 0; from < files.size(); from += batchSize) {
+            batches.add(files.subList(from, Math.min(from + batchSize, files.size())));
+        }
+
+        var permits = new Semaphore(publishProperties.upload().populateConcurrency());
+        var results = new ArrayList<Future<PopulateResult>>(batches.size());
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (var batch : batches) {
+                results.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return populateBatch(versionName, batch);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+
+            String uploadUrl = "";
+            var requiredHashes = new HashSet<String>();
+            for (var result : results) {
+                var batchResult = result.get();
+                if (uploadUrl.isBlank()) {
+                    uploadUrl = batchResult.uploadUrl();
+                }
+                requiredHashes.addAll(batchResult.requiredHashes());
+            }
+            log.info("Firebase requires {} of {} files to be uploaded ({} populate batches)",
+                    requiredHashes.size(), fileHashes.size(), batches.size());
+            return new PopulateResult(uploadUrl, requiredHashes);
+        } catch (ExecutionException e) {
+            results.forEach(result -> result.cancel(true));
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("populateFiles failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private PopulateResult populateBatch(String versionName, List<Map.Entry<String, String>> batch)
+            throws IOException, InterruptedException {
+        var body = HttpRequest.BodyPublishers.ofInputStream(() -> {
+            try {
+                return new PopulateFilesBody(objectMapper.getFactory(), batch);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        var response = firebasePost(baseUrl + "/" + versionName + ":populateFiles", body);
         var json = objectMapper.readTree(response);
 
         String uploadUrl = json.has("uploadUrl") ? json.get("uploadUrl").asText() : "";
-        int requiredCount = json.has("uploadRequiredHashes")
-                ? json.get("uploadRequiredHashes").size()
-                : 0;
-        log.info("Firebase requires {} file uploads", requiredCount);
-
-        return uploadUrl;
+        var requiredHashes = new HashSet<String>();
+        if (json.has("uploadRequiredHashes")) {
+            json.get("uploadRequiredHashes").forEach(hash -> requiredHashes.add(hash.asText()));
+        }
+        return new PopulateResult(uploadUrl, requiredHashes);
     }
 
+    private record PopulateResult(String uploadUrl, Set<String> requiredHashes) {}
+
     /**
      * Step 3: Upload gzipped file bytes for each required hash.
      * Firebase expects: POST {uploadUrl}/{hash} with the gzipped content.
+     * Files whose hash Firebase already has are skipped, and a hash shared by several
+     * paths is uploaded once. Uploads run concurrently via {@link FirebaseUploader};
+     * a file that cannot be uploaded fails the deploy.
      */
-    private void uploadFiles(String uploadUrl, Map<String, FileData> fileHashes)
-            throws IOException, InterruptedException {
-        if (uploadUrl == null || uploadUrl.isBlank()) {
-            log.info("No files need uploading (all already cached by Firebase)");
-            return;
-        }
-
-        String accessToken = getAccessToken();
-        int uploaded = 0;
-
+    private DeployResult uploadFiles(String versionName, PopulateResult populated, Map<String, FileData> fileHashes,
+                                     PublishProgressListener listener) throws IOException, InterruptedException {
+        var toUpload = new LinkedHashMap<String, FirebaseUploader.UploadFile>();
+        long uploadedBytes = 0;
+        long skippedBytes = 0;
         for (var entry : fileHashes.entrySet()) {
             var fileData = entry.getValue();
-            String url = uploadUrl + "/" + fileData.hash();
-
-            var request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .header("Authorization", "Bearer " + accessToken)
-                    .header("Content-Type", "application/octet-stream")
-                    .POST(HttpRequest.BodyPublishers.ofByteArray(fileData.gzipped()))
-                    .build();
-
-            var response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() >= 400) {
-                log.warn("Upload failed for {}: {} {}", entry.getKey(), response.statusCode(), response.body());
+            if (populated.requiredHashes().contains(fileData.hash())
+                    && toUpload.putIfAbsent(fileData.hash(),
+                            new FirebaseUploader.UploadFile(entry.getKey(), fileData.hash(), fileData.gzipped())) == null) {
+                uploadedBytes += fileData.gzipped().size();
             } else {
-                uploaded++;
+                skippedBytes += fileData.gzipped().size();
             }
         }
-        log.info("Uploaded {} files to Firebase", uploaded);
+
+        if (toUpload.isEmpty()) {
+            log.info("No files need uploading (all already cached by Firebase)");
+        } else if (populated.uploadUrl() == null || populated.uploadUrl().isBlank()) {
+            throw new IOException("Firebase requested %d uploads but returned no upload URL".formatted(toUpload.size()));
+        } else {
+            uploader.upload(uploadUrl(populated.uploadUrl()), toUpload.values(), getAccessToken(), listener);
+            log.info("Uploaded {} files ({} bytes) to Firebase, skipped {} bytes already stored",
+                    toUpload.size(), uploadedBytes, skippedBytes);
+        }
+
+        return new DeployResult(versionName, null, fileHashes.size(),
+                toUpload.size(), fileHashes.size() - toUpload.size(), uploadedBytes, skippedBytes);
     }
 
     /**
@@ -204,7 +375,7 @@ public class FirebaseHostingService {
      */
     private void finalizeVersion(String versionName) throws IOException, InterruptedException {
         firebasePatch(
-                BASE_URL + "/" + versionName + "?update_mask=status",
+                baseUrl + "/" + versionName + "?update_mask=status",
                 "{\"status\": \"FINALIZED\"}"
         );
     }
@@ -216,8 +387,8 @@ public class FirebaseHostingService {
     private String createPreviewRelease(String siteId, String versionName)
             throws IOException, InterruptedException {
         // Create or get the preview channel
-        String channelId = "preview";
-        String channelUrl = BASE_URL + "/sites/" + siteId + "/channels/" + channelId;
+        String channelId = PREVIEW_CHANNEL;
+        String channelUrl = baseUrl + "/sites/" + siteId + "/channels/" + channelId;
 
         // Try to create the channel (if it already exists, that's fine)
         try {
@@ -225,7 +396,7 @@ public class FirebaseHostingService {
                     "ttl", "604800s" // 7 days
             );
             firebasePost(
-                    BASE_URL + "/sites/" + siteId + "/channels?channelId=" + channelId,
+                    baseUrl + "/sites/" + siteId + "/channels?channelId=" + channelId,
                     objectMapper.writeValueAsString(channelBody)
             );
         } catch (IOException e) {
@@ -254,42 +425,47 @@ public class FirebaseHostingService {
     /**
      * Step 4b (live): Release the version to the live channel.
      */
-    private void createLiveRelease(String siteId, String versionName)
+    private LiveRelease createLiveRelease(String siteId, String versionName, int fileCount)
             throws IOException, InterruptedException {
         var releaseBody = Map.of("message", "Deploy from TaupHat Studio");
         firebasePost(
-                BASE_URL + "/sites/" + siteId + "/channels/live/releases?versionName=" + versionName,
+                baseUrl + "/sites/" + siteId + "/channels/live/releases?versionName=" + versionName,
                 objectMapper.writeValueAsString(releaseBody)
         );
+
+        return new LiveRelease(versionName, Instant.now(), fileCount);
     }
 
     // ── File preparation ────────────────────────────────────────────────────
 
     /**
-     * Gzips each file and computes SHA-256 of the gzipped content.
+     * Collects the gzipped content and hash of each file, which {@link GeneratedSite}
+     * already holds from the render pass.
      * Returns a map from relative path to {@link FileData}.
      */
     private Map<String, FileData> prepareFiles(GeneratedSite site) {
         var result = new LinkedHashMap<String, FileData>();
         for (var entry : site.getFiles().entrySet()) {
-            byte[] gzipped = gzip(entry.getValue().content());
-            String hash = sha256Hex(gzipped);
-            result.put(entry.getKey(), new FileData(gzipped, hash));
+            result.put(entry.getKey(), new FileData(entry.getValue().gzipped(), entry.getValue().hash()));
         }
         return result;
     }
 
-    private record FileData(byte[] gzipped, String hash) {}
+    private record FileData(FileContent gzipped, String hash) {}
 
     // ── HTTP helpers ────────────────────────────────────────────────────────
 
     private String firebasePost(String url, String body) throws IOException, InterruptedException {
+        return firebasePost(url, HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8));
+    }
+
+    private String firebasePost(String url, HttpRequest.BodyPublisher body) throws IOException, InterruptedException {
         String accessToken = getAccessToken();
         var request = HttpRequest.newBuilder()
                 .uri(URI.create(url))
                 .header("Authorization", "Bearer " + accessToken)
                 .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .POST(body)
                 .build();
 
         var response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
@@ -330,41 +506,54 @@ public class FirebaseHostingService {
         return response.body();
     }
 
+    /**
+     * Like {@link #firebaseGet}, but returns empty if the resource does not exist.
+     */
+    private Optional<String> firebaseFind(String url) throws IOException, InterruptedException {
+        String accessToken = getAccessToken();
+        var request = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .header("Authorization", "Bearer " + accessToken)
+                .GET()
+                .build();
+
+        var response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() == 404) {
+            return Optional.empty();
+        }
+        if (response.statusCode() >= 400) {
+            throw new IOException("Firebase API error (%d): %s".formatted(response.statusCode(), response.body()));
+        }
+        return Optional.of(response.body());
+    }
+
     private String getAccessToken() throws IOException {
-        var credentials = GoogleCredentials.getApplicationDefault()
-                .createScoped(HOSTING_SCOPE);
-        credentials.refreshIfExpired();
-        return credentials.getAccessToken().getTokenValue();
+        return credentialsManager.accessToken(HOSTING_SCOPE);
     }
 
     // ── Utility ─────────────────────────────────────────────────────────────
 
-    private void validateConfig() {
-        String siteId = properties.firebase().siteId();
-        if (siteId == null || siteId.isBlank()) {
-            throw new IllegalStateException(
-                    "Firebase site ID is not configured. Set tauphat.firebase.site-id or FIREBASE_SITE_ID environment variable.");
+    /**
+     * Points the upload URL returned by {@code populateFiles} at {@code tauphat.firebase.upload-base-url},
+     * if one is configured.
+     */
+    private String uploadUrl(String returned) {
+        if (uploadBaseUrl.isEmpty()) {
+            return returned;
         }
+        var uri = URI.create(returned);
+        return uploadBaseUrl + uri.getRawPath() + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : "");
     }
 
-    private static byte[] gzip(byte[] data) {
-        try (var baos = new ByteArrayOutputStream();
-             var gzip = new GZIPOutputStream(baos)) {
-            gzip.write(data);
-            gzip.finish();
-            return baos.toByteArray();
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to gzip content", e);
-        }
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
     }
 
-    private static String sha256Hex(byte[] data) {
-        try {
-            var digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(data);
-            return HexFormat.of().formatHex(hash);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("SHA-256 not available", e);
+    private void validateConfig() {
+        String siteId = properties.firebase().siteId();
+        if (siteId == null || siteId.isBlank()) {
+            throw new IllegalStateException(
+                    "Firebase site ID is not configured. Set tauphat.firebase.site-id or FIREBASE_SITE_ID environment variable.");
         }
     }
 }
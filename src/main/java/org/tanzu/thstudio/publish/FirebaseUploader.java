@@ -0,0 +1,180 @@
+package org.tanzu.thstudio.publish;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Uploads gzipped files to a Firebase Hosting version's upload URL.
+ * <p>
+ * Files are sent concurrently on virtual threads over a shared {@link HttpClient}
+ * (HTTP/2, so requests are multiplexed over few connections), with at most
+ * {@code tauphat.publish.upload.concurrency} requests in flight. Each file is retried
+ * with exponential backoff on 429, 5xx and I/O errors, honouring {@code Retry-After};
+ * any other error status, or running out of attempts, fails the whole upload.
+ */
+class FirebaseUploader {
+
+    private static final Logger log = LoggerFactory.getLogger(FirebaseUploader.class);
+
+    private final HttpClient httpClient;
+    private final PublishProperties.UploadProperties properties;
+
+    FirebaseUploader(HttpClient httpClient, PublishProperties.UploadProperties properties) {
+        this.httpClient = httpClient;
+        this.properties = properties;
+    }
+
+    /**
+     * A file to upload: its site path (for error reporting), gzip hash and gzipped content.
+     */
+    record UploadFile(String path, String hash, FileContent gzipped) {}
+
+    /**
+     * Uploads all files and returns how many were sent.
+     *
+     * @throws IOException if any file could not be uploaded; remaining uploads are cancelled
+     */
+    int upload(String uploadUrl, Collection<UploadFile> files, String accessToken)
+            throws IOException, InterruptedException {
+        return upload(uploadUrl, files, accessToken, PublishProgressListener.NONE);
+    }
+
+    /**
+     * Uploads all files as {@link #upload(String, Collection, String)} does, reporting
+     * {@link PublishStage#UPLOAD} progress to the listener as each file completes.
+     */
+    int upload(String uploadUrl, Collection<UploadFile> files, String accessToken, PublishProgressListener listener)
+            throws IOException, InterruptedException {
+        var completed = new AtomicInteger();
+        var permits = new Semaphore(properties.concurrency());
+        var retries = new AtomicInteger();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var futures = new ArrayList<Future<?>>(files.size());
+            for (var file : files) {
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        uploadWithRetry(uploadUrl, file, accessToken, retries, listener);
+                        listener.progress(PublishStage.UPLOAD, completed.incrementAndGet(), files.size());
+                    } finally {
+                        permits.release();
+                    }
+                    return null;
+                }));
+            }
+            awaitAll(futures);
+        }
+        if (retries.get() > 0) {
+            log.info("Upload needed {} retries", retries.get());
+        }
+        return files.size();
+    }
+
+    private void uploadWithRetry(String uploadUrl, UploadFile file, String accessToken, AtomicInteger retries,
+                                 PublishProgressListener listener) throws IOException, InterruptedException {
+        var request = HttpRequest.newBuilder()
+                .uri(URI.create(uploadUrl + "/" + file.hash()))
+                .timeout(properties.requestTimeout())
+                .header("Authorization", "Bearer " + accessToken)
+                .header("Content-Type", "application/octet-stream")
+                .POST(streamingBody(file.gzipped()))
+                .build();
+
+        for (int attempt = 1; ; attempt++) {
+            long retryAfterMillis = -1;
+            String failure = null;
+            HttpResponse<String> response = null;
+            try {
+                response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            } catch (IOException e) {
+                failure = e.toString();
+            }
+            if (response != null) {
+                int status = response.statusCode();
+                if (status < 400) {
+                    return;
+                }
+                failure = "HTTP %d: %s".formatted(status, response.body());
+                if (status != 429 && status < 500) {
+                    throw new IOException("Upload failed for %s (%s)".formatted(file.path(), failure));
+                }
+                retryAfterMillis = retryAfterMillis(response);
+            }
+
+            if (attempt >= properties.maxAttempts()) {
+                throw new IOException("Upload failed for %s after %d attempts (%s)"
+                        .formatted(file.path(), attempt, failure));
+            }
+            long delay = retryAfterMillis >= 0 ? retryAfterMillis : backoffMillis(attempt);
+            log.debug("Retrying upload of {} in {} ms ({})", file.path(), delay, failure);
+            retries.incrementAndGet();
+            listener.retried(PublishStage.UPLOAD);
+            Thread.sleep(delay);
+        }
+    }
+
+    /**
+     * Exponential backoff with jitter, capped at the configured maximum.
+     */
+    private long backoffMillis(int attempt) {
+        long base = properties.initialBackoff().toMillis() << Math.min(attempt - 1, 20);
+        long capped = Math.min(base, properties.maxBackoff().toMillis());
+        return ThreadLocalRandom.current().nextLong(capped / 2, capped + 1);
+    }
+
+    private long retryAfterMillis(HttpResponse<?> response) {
+        return response.headers().firstValue("Retry-After")
+                .map(value -> {
+                    try {
+                        return Math.min(Long.parseLong(value.trim()) * 1000, properties.maxBackoff().toMillis());
+                    } catch (NumberFormatException e) {
+                        // HTTP-date form: fall back to the regular backoff
+                        return -1L;
+                    }
+                })
+                .orElse(-1L);
+    }
+
+    private static void awaitAll(List<Future<?>> futures) throws IOException, InterruptedException {
+        try {
+            for (var future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Upload failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        }
+    }
+
+    private static HttpRequest.BodyPublisher streamingBody(FileContent content) {
+        return HttpRequest.BodyPublishers.fromPublisher(HttpRequest.BodyPublishers.ofInputStream(() -> {
+            try {
+                return content.openStream();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read file for upload", e);
+            }
+        }), content.size());
+    }
+}
@@ -1,30 +1,87 @@
 package org.tanzu.thstudio.publish;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Holds all files generated for the static site as a map from
  * relative path (e.g. "index.html", "comics/index.html") to file content.
+ * <p>
+ * Files are kept gzipped together with the SHA-256 of the gzipped bytes, i.e. exactly
+ * what Firebase Hosting expects, as produced by a {@link GzipSink}. The bytes are placed
+ * by a {@link ContentStore}: small files stay on the heap, large ones (or anything beyond
+ * the heap budget) are spilled to temp files and read back as streams.
+ * <p>
+ * Rendered files may also carry a {@link Fingerprint} of their inputs, which lets the
+ * next build reuse an entry as-is when nothing it depends on has changed.
  */
 public class GeneratedSite {
 
+    static final String HTML = "text/html; charset=utf-8";
+    static final String CSS = "text/css; charset=utf-8";
+    static final String JS = "application/javascript; charset=utf-8";
+
     private final Map<String, FileEntry> files = new LinkedHashMap<>();
+    private final Map<String, String> fingerprints = new HashMap<>();
+    private final ContentStore store;
+    private int reusedCount;
+    private long renderedBytes;
+
+    GeneratedSite(ContentStore store) {
+        this.store = store;
+    }
 
     public void addHtml(String path, String content) {
-        files.put(path, new FileEntry(content.getBytes(java.nio.charset.StandardCharsets.UTF_8), "text/html; charset=utf-8"));
+        add(path, GzipSink.compress(content.getBytes(StandardCharsets.UTF_8)), HTML);
     }
 
     public void addCss(String path, String content) {
-        files.put(path, new FileEntry(content.getBytes(java.nio.charset.StandardCharsets.UTF_8), "text/css; charset=utf-8"));
+        add(path, GzipSink.compress(content.getBytes(StandardCharsets.UTF_8)), CSS);
     }
 
     public void addJs(String path, String content) {
-        files.put(path, new FileEntry(content.getBytes(java.nio.charset.StandardCharsets.UTF_8), "application/javascript; charset=utf-8"));
+        add(path, GzipSink.compress(content.getBytes(StandardCharsets.UTF_8)), JS);
     }
 
     public void addBinary(String path, byte[] content, String contentType) {
-        files.put(path, new FileEntry(content, contentType));
+        add(path, GzipSink.compress(content), contentType);
+    }
+
+    /**
+     * Adds a file that was already compressed and hashed by a {@link GzipSink}.
+     */
+    void add(String path, GzipSink.Result compressed, String contentType) {
+        files.put(path, new FileEntry(store.store(compressed.gzipped()), compressed.sha256(),
+                compressed.size(), contentType));
+        renderedBytes += compressed.size();
+    }
+
+    /**
+     * Records the input fingerprint of a file that was just added.
+     */
+    void fingerprint(String path, String fingerprint) {
+        fingerprints.put(path, fingerprint);
+    }
+
+    /**
+     * Returns the entry for {@code path} if it was built from inputs with the given fingerprint.
+     */
+    FileEntry reusableEntry(String path, String fingerprint) {
+        return fingerprint.equals(fingerprints.get(path)) ? files.get(path) : null;
+    }
+
+    /**
+     * Adds an entry carried over unchanged from a previous build.
+     */
+    void addReused(String path, FileEntry entry, String fingerprint) {
+        files.put(path, entry);
+        fingerprints.put(path, fingerprint);
+        reusedCount++;
     }
 
     public Map<String, FileEntry> getFiles() {
@@ -35,5 +92,33 @@ public class GeneratedSite {
         return files.size();
     }
 
-    public record FileEntry(byte[] content, String contentType) {}
+    /**
+     * Number of files carried over from the previous build without re-rendering.
+     */
+    public int reusedCount() {
+        return reusedCount;
+    }
+
+    /**
+     * Uncompressed size of the files produced by this build, i.e. excluding reused files.
+     */
+    public long renderedBytes() {
+        return renderedBytes;
+    }
+
+    /**
+     * @param gzipped     the gzipped file content
+     * @param hash        hex SHA-256 of the gzipped content
+     * @param size        uncompressed size in bytes
+     * @param contentType the file's MIME type
+     */
+    public record FileEntry(FileContent gzipped, String hash, long size, String contentType) {
+
+        /**
+         * Opens a stream over the uncompressed file content.
+         */
+        public InputStream openStream() throws IOException {
+            return new GZIPInputStream(gzipped.openStream());
+        }
+    }
 }
@@ -0,0 +1,173 @@
+package org.tanzu.thstudio.publish;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Single-pass pipeline that compresses and hashes a published file while it is produced:
+ * <pre>
+ *   Writer (UTF-8) → CRC-32 → deflate → SHA-256 → gzipped bytes
+ * </pre>
+ * The output is a standard gzip member (same header as {@link java.util.zip.GZIPOutputStream},
+ * with a zero modification time) compressed at a fixed level, so the same input always
+ * produces the same bytes. The hash is the SHA-256 of the gzipped bytes as
+ * required by Firebase Hosting. Deflaters are pooled, since each one holds native memory
+ * that is otherwise only released when it is explicitly ended.
+ * <p>
+ * A sink is used by one thread for one file: write through {@link #writer()} or
+ * {@link #stream()}, then call {@link #finish()}. Closing a sink that was not finished
+ * (e.g. because rendering threw) abandons the file and returns its deflater to the pool.
+ */
+final class GzipSink implements AutoCloseable {
+
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int COMPRESSION_LEVEL = 6;
+    private static final int BUFFER_SIZE = 8192;
+    private static final Queue<Deflater> DEFLATERS = new ConcurrentLinkedQueue<>();
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(BUFFER_SIZE);
+    private final MessageDigest digest = sha256();
+    private final DigestOutputStream hashed = new DigestOutputStream(buffer, digest);
+    private final Deflater deflater = acquireDeflater();
+    private final DeflaterOutputStream deflated = new DeflaterOutputStream(hashed, deflater, BUFFER_SIZE);
+    private final CRC32 crc = new CRC32();
+    private final CountingCrcStream input = new CountingCrcStream(deflated);
+    private Writer writer;
+    private boolean released;
+
+    GzipSink() {
+        try {
+            hashed.write(HEADER);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Compresses the given bytes in one go.
+     */
+    static Result compress(byte[] content) {
+        try (var sink = new GzipSink()) {
+            sink.stream().write(content);
+            return sink.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** UTF-8 character input, e.g. for {@code TemplateEngine.process(template, ctx, writer)}. */
+    Writer writer() {
+        if (writer == null) {
+            writer = new OutputStreamWriter(input, StandardCharsets.UTF_8);
+        }
+        return writer;
+    }
+
+    /** Raw byte input. */
+    OutputStream stream() {
+        return input;
+    }
+
+    /**
+     * Completes the gzip member and returns the compressed bytes and their hash.
+     * The sink cannot be used afterwards.
+     */
+    Result finish() {
+        try {
+            if (writer != null) {
+                writer.flush();
+            }
+            deflated.finish();
+            writeIntLE(hashed, (int) crc.getValue());
+            writeIntLE(hashed, (int) input.count);
+            return new Result(buffer.toByteArray(), HexFormat.of().formatHex(digest.digest()), input.count);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compress published file", e);
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Returns the deflater to the pool; a no-op once the sink is finished or closed.
+     */
+    @Override
+    public void close() {
+        if (!released) {
+            released = true;
+            deflater.reset();
+            DEFLATERS.offer(deflater);
+        }
+    }
+
+    /** Number of idle pooled deflaters. */
+    static int pooledDeflaters() {
+        return DEFLATERS.size();
+    }
+
+    /**
+     * @param gzipped the complete gzip member
+     * @param sha256  hex SHA-256 of {@code gzipped}
+     * @param size    uncompressed size in bytes
+     */
+    record Result(byte[] gzipped, String sha256, long size) {}
+
+    private static Deflater acquireDeflater() {
+        var deflater = DEFLATERS.poll();
+        return deflater != null ? deflater : new Deflater(COMPRESSION_LEVEL, true);
+    }
+
+    private static void writeIntLE(OutputStream out, int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >> 8) & 0xff);
+        out.write((value >> 16) & 0xff);
+        out.write((value >> 24) & 0xff);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /** Tracks the CRC-32 and length of the uncompressed bytes. */
+    private final class CountingCrcStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingCrcStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            crc.update(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            crc.update(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.tanzu.thstudio.publish;
+
+import org.tanzu.thstudio.site.SiteConfig;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The shared layout fragments (analytics, head assets, navigation header, footer and scripts)
+ * rendered once per build by {@link SiteRendererService#renderLayout(SiteConfig, int)}.
+ * <p>
+ * These fragments depend only on the site config and the copyright year, so pages insert the pre-rendered
+ * markup ({@code th:utext="${layout.footer}"}) instead of re-processing the fragment
+ * for every page.
+ */
+class LayoutFragments {
+
+    /** Navigation sections a page can mark as active in the header. */
+    static final List<String> NAV_SECTIONS = List.of("home", "comics", "portfolio", "commissions", "about");
+
+    private final SiteConfig config;
+    private final String analytics;
+    private final String headAssets;
+    private final Map<String, String> headers;
+    private final String footer;
+    private final String scripts;
+
+    LayoutFragments(SiteConfig config, String analytics, String headAssets, Map<String, String> headers,
+                    String footer, String scripts) {
+        this.config = config;
+        this.analytics = analytics;
+        this.headAssets = headAssets;
+        this.headers = Map.copyOf(headers);
+        this.footer = footer;
+        this.scripts = scripts;
+    }
+
+    SiteConfig config() {
+        return config;
+    }
+
+    public String getAnalytics() {
+        return analytics;
+    }
+
+    public String getHeadAssets() {
+        return headAssets;
+    }
+
+    /**
+     * Returns the site header with the given navigation section marked as active.
+     */
+    public String header(String active) {
+        var header = headers.get(active);
+        if (header == null) {
+            throw new IllegalArgumentException("Unknown navigation section: " + active);
+        }
+        return header;
+    }
+
+    public String getFooter() {
+        return footer;
+    }
+
+    public String getScripts() {
+        return scripts;
+    }
+}
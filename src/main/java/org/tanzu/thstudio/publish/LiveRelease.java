@@ -0,0 +1,13 @@
+package org.tanzu.thstudio.publish;
+
+import java.time.Instant;
+
+/**
+ * A version that was released to the live channel.
+ *
+ * @param versionName the Firebase version (e.g. {@code sites/my-site/versions/abc123})
+ * @param releasedAt  when it was released
+ * @param fileCount   number of files in the version
+ */
+public record LiveRelease(String versionName, Instant releasedAt, int fileCount) {
+}
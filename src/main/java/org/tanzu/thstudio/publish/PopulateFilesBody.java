@@ -0,0 +1,96 @@
+package org.tanzu.thstudio.publish;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams a {@code populateFiles} request body, {@code {"files": {"/path": "hash", ...}}},
+ * as an {@link InputStream}.
+ * <p>
+ * The JSON is produced on demand by a {@link JsonGenerator} a few entries at a time while
+ * the HTTP client reads the stream, so the body of a large batch is never held as one
+ * string or byte array.
+ */
+class PopulateFilesBody extends InputStream {
+
+    private static final int ENTRIES_PER_FILL = 64;
+
+    private final Iterator<Map.Entry<String, String>> entries;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(4096);
+    private final JsonGenerator generator;
+
+    private byte[] chunk = new byte[0];
+    private int position;
+    private boolean started;
+    private boolean finished;
+
+    /**
+     * @param files path → gzip hash entries; paths must already start with {@code /}
+     */
+    PopulateFilesBody(JsonFactory jsonFactory, List<Map.Entry<String, String>> files) throws IOException {
+        this.entries = files.iterator();
+        this.generator = jsonFactory.createGenerator(buffer);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureAvailable()) {
+            return -1;
+        }
+        return chunk[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!ensureAvailable()) {
+            return -1;
+        }
+        int n = Math.min(len, chunk.length - position);
+        System.arraycopy(chunk, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    private boolean ensureAvailable() throws IOException {
+        while (position >= chunk.length) {
+            if (finished) {
+                return false;
+            }
+            fill();
+        }
+        return true;
+    }
+
+    private void fill() throws IOException {
+        buffer.reset();
+        if (!started) {
+            generator.writeStartObject();
+            generator.writeObjectFieldStart("files");
+            started = true;
+        }
+        for (int i = 0; i < ENTRIES_PER_FILL && entries.hasNext(); i++) {
+            var entry = entries.next();
+            generator.writeStringField(entry.getKey(), entry.getValue());
+        }
+        if (!entries.hasNext()) {
+            generator.writeEndObject();
+            generator.writeEndObject();
+            generator.close();
+            finished = true;
+        } else {
+            generator.flush();
+        }
+        chunk = buffer.toByteArray();
+        position = 0;
+    }
+}
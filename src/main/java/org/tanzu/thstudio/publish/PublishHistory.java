@@ -0,0 +1,136 @@
+package org.tanzu.thstudio.publish;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+/**
+ * A finished publish job: its outcome, how long each {@link PublishStage} took
+ * (in milliseconds, {@code null} if the stage did not run) and what was transferred.
+ */
+@Entity
+@Table(name = "publish_history")
+public class PublishHistory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String jobId;
+
+    @Column(nullable = false)
+    private String target;
+
+    @Column(nullable = false)
+    private String outcome;
+
+    @Column(nullable = false)
+    private Instant startedAt;
+
+    @Column(nullable = false)
+    private Instant finishedAt;
+
+    @Column(nullable = false)
+    private Long durationMs;
+
+    private Long queryMs;
+    private Long renderMs;
+    private Long compressMs;
+    private Long populateMs;
+    private Long uploadMs;
+    private Long finalizeMs;
+    private Long releaseMs;
+
+    private String versionName;
+    private Integer fileCount;
+    private Integer renderedFiles;
+    private Long renderedBytes;
+    private Integer uploadedFiles;
+    private Long uploadedBytes;
+    private Integer skippedFiles;
+    private Long skippedBytes;
+
+    @Column(nullable = false)
+    private Integer uploadRetries = 0;
+
+    @Column(columnDefinition = "TEXT")
+    private String error;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+
+    public String getTarget() { return target; }
+    public void setTarget(String target) { this.target = target; }
+
+    public String getOutcome() { return outcome; }
+    public void setOutcome(String outcome) { this.outcome = outcome; }
+
+    public Instant getStartedAt() { return startedAt; }
+    public void setStartedAt(Instant startedAt) { this.startedAt = startedAt; }
+
+    public Instant getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+
+    public Long getDurationMs() { return durationMs; }
+    public void setDurationMs(Long durationMs) { this.durationMs = durationMs; }
+
+    public Long getQueryMs() { return queryMs; }
+    public void setQueryMs(Long queryMs) { this.queryMs = queryMs; }
+
+    public Long getRenderMs() { return renderMs; }
+    public void setRenderMs(Long renderMs) { this.renderMs = renderMs; }
+
+    public Long getCompressMs() { return compressMs; }
+    public void setCompressMs(Long compressMs) { this.compressMs = compressMs; }
+
+    public Long getPopulateMs() { return populateMs; }
+    public void setPopulateMs(Long populateMs) { this.populateMs = populateMs; }
+
+    public Long getUploadMs() { return uploadMs; }
+    public void setUploadMs(Long uploadMs) { this.uploadMs = uploadMs; }
+
+    public Long getFinalizeMs() { return finalizeMs; }
+    public void setFinalizeMs(Long finalizeMs) { this.finalizeMs = finalizeMs; }
+
+    public Long getReleaseMs() { return releaseMs; }
+    public void setReleaseMs(Long releaseMs) { this.releaseMs = releaseMs; }
+
+    public String getVersionName() { return versionName; }
+    public void setVersionName(String versionName) { this.versionName = versionName; }
+
+    public Integer getFileCount() { return fileCount; }
+    public void setFileCount(Integer fileCount) { this.fileCount = fileCount; }
+
+    public Integer getRenderedFiles() { return renderedFiles; }
+    public void setRenderedFiles(Integer renderedFiles) { this.renderedFiles = renderedFiles; }
+
+    public Long getRenderedBytes() { return renderedBytes; }
+    public void setRenderedBytes(Long renderedBytes) { this.renderedBytes = renderedBytes; }
+
+    public Integer getUploadedFiles() { return uploadedFiles; }
+    public void setUploadedFiles(Integer uploadedFiles) { this.uploadedFiles = uploadedFiles; }
+
+    public Long getUploadedBytes() { return uploadedBytes; }
+    public void setUploadedBytes(Long uploadedBytes) { this.uploadedBytes = uploadedBytes; }
+
+    public Integer getSkippedFiles() { return skippedFiles; }
+    public void setSkippedFiles(Integer skippedFiles) { this.skippedFiles = skippedFiles; }
+
+    public Long getSkippedBytes() { return skippedBytes; }
+    public void setSkippedBytes(Long skippedBytes) { this.skippedBytes = skippedBytes; }
+
+    public Integer getUploadRetries() { return uploadRetries; }
+    public void setUploadRetries(Integer uploadRetries) { this.uploadRetries = uploadRetries; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
@@ -0,0 +1,11 @@
+package org.tanzu.thstudio.publish;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface PublishHistoryRepository extends JpaRepository<PublishHistory, Long> {
+
+    List<PublishHistory> findAllByOrderByStartedAtDesc(Pageable pageable);
+}
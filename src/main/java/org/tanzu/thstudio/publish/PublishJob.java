@@ -0,0 +1,255 @@
+package org.tanzu.thstudio.publish;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A generate-and-deploy run started by {@link PublishJobService}.
+ * <p>
+ * The job is the {@link PublishProgressListener} for its own pipeline: stage changes and
+ * progress are recorded on the job and pushed to every attached {@link SseEmitter} as
+ * {@code stage}, {@code progress} and finally {@code complete} events. Progress events are
+ * throttled to whole-percent steps so a large upload does not flood the stream.
+ * <p>
+ * Events are built under the job's lock but written by a sender thread per stream, so a slow
+ * or stalled client never holds up the pipeline reporting progress, or other clients.
+ */
+public class PublishJob implements PublishProgressListener {
+
+    private static final Logger log = LoggerFactory.getLogger(PublishJob.class);
+
+    public enum Target { PREVIEW, LIVE }
+
+    public enum State { RUNNING, SUCCEEDED, FAILED }
+
+    /**
+     * JSON view of a job, as returned by the job endpoints and sent in SSE events.
+     */
+    public record View(String id, Target target, State state, PublishStage stage,
+                       int completed, int total, Instant startedAt, Instant finishedAt,
+                       DeployResult result, String error) {}
+
+    private final String id = UUID.randomUUID().toString();
+    private final Target target;
+    private final SiteManifest manifest;
+    private final Instant startedAt = Instant.now();
+    private final CompletableFuture<DeployResult> completion = new CompletableFuture<>();
+    private final List<EventStream> streams = new CopyOnWriteArrayList<>();
+
+    private State state = State.RUNNING;
+    private PublishStage stage;
+    private int completed;
+    private int total;
+    private int lastPercent = -1;
+    private Instant finishedAt;
+    private long stageStartedNanos;
+    private final Map<PublishStage, Duration> stageDurations = new EnumMap<>(PublishStage.class);
+    private int retries;
+    private DeployResult result;
+    private String error;
+
+    PublishJob(Target target, SiteManifest manifest) {
+        this.target = target;
+        this.manifest = manifest;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public Target target() {
+        return target;
+    }
+
+    /**
+     * The plan of the site the job builds, taken when it was submitted.
+     */
+    SiteManifest manifest() {
+        return manifest;
+    }
+
+    /**
+     * Completes with the deploy result, or exceptionally with the failure.
+     */
+    CompletableFuture<DeployResult> completion() {
+        return completion;
+    }
+
+    synchronized boolean isRunning() {
+        return state == State.RUNNING;
+    }
+
+    /**
+     * How long each stage that has finished took.
+     */
+    synchronized Map<PublishStage, Duration> stageDurations() {
+        return new EnumMap<>(stageDurations);
+    }
+
+    synchronized int retries() {
+        return retries;
+    }
+
+    Instant startedAt() {
+        return startedAt;
+    }
+
+    synchronized Instant finishedAt() {
+        return finishedAt;
+    }
+
+    synchronized View view() {
+        return new View(id, target, state, stage, completed, total, startedAt, finishedAt, result, error);
+    }
+
+    // ── Progress ────────────────────────────────────────────────────────────
+
+    @Override
+    public synchronized void stageStarted(PublishStage stage) {
+        endStage();
+        this.stage = stage;
+        this.stageStartedNanos = System.nanoTime();
+        this.completed = 0;
+        this.total = 0;
+        this.lastPercent = -1;
+        broadcast("stage", Map.of("stage", stage));
+    }
+
+    @Override
+    public synchronized void progress(PublishStage stage, int completed, int total) {
+        if (stage != this.stage || completed < this.completed) {
+            return;
+        }
+        this.completed = completed;
+        this.total = total;
+        int percent = total > 0 ? (int) (completed * 100L / total) : 100;
+        if (percent > lastPercent) {
+            lastPercent = percent;
+            broadcast("progress", Map.of("stage", stage, "completed", completed, "total", total));
+        }
+    }
+
+    @Override
+    public synchronized void retried(PublishStage stage) {
+        retries++;
+    }
+
+    private void endStage() {
+        if (stage != null) {
+            stageDurations.merge(stage, Duration.ofNanos(System.nanoTime() - stageStartedNanos), Duration::plus);
+        }
+    }
+
+    synchronized void succeed(DeployResult result) {
+        this.state = State.SUCCEEDED;
+        this.result = result;
+        finish();
+        completion.complete(result);
+    }
+
+    synchronized void fail(Exception e) {
+        this.state = State.FAILED;
+        this.error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        finish();
+        completion.completeExceptionally(e);
+    }
+
+    private void finish() {
+        endStage();
+        finishedAt = Instant.now();
+        broadcast("complete", view());
+        streams.forEach(EventStream::complete);
+        streams.clear();
+    }
+
+    // ── Event streaming ─────────────────────────────────────────────────────
+
+    /**
+     * Attaches an SSE stream to the job. The current state is sent straight away, so a
+     * client attaching mid-build (or after it finished) is brought up to date.
+     */
+    synchronized void attach(SseEmitter emitter) {
+        var stream = new EventStream(emitter);
+        stream.send("status", view());
+        if (state != State.RUNNING) {
+            stream.send("complete", view());
+            stream.complete();
+            return;
+        }
+        emitter.onCompletion(() -> drop(stream));
+        emitter.onTimeout(() -> drop(stream));
+        emitter.onError(e -> drop(stream));
+        streams.add(stream);
+    }
+
+    /**
+     * Queues an event on every attached stream. Called with the job's lock held, so each
+     * stream receives events in the order the job produced them; {@code data} must not change
+     * afterwards.
+     */
+    private void broadcast(String event, Object data) {
+        streams.forEach(stream -> stream.send(event, data));
+    }
+
+    private void drop(EventStream stream) {
+        streams.remove(stream);
+        stream.close();
+    }
+
+    /**
+     * One client's event stream, written in order by its own virtual thread.
+     */
+    private final class EventStream {
+
+        private final SseEmitter emitter;
+        private final ExecutorService sender =
+                Executors.newSingleThreadExecutor(Thread.ofVirtual().name("publish-events").factory());
+
+        EventStream(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void send(String event, Object data) {
+            submit(() -> {
+                try {
+                    emitter.send(SseEmitter.event().name(event).data(data));
+                } catch (IOException | IllegalStateException e) {
+                    // Client went away; the job carries on without it
+                    log.debug("Dropping publish event stream for job {}: {}", id, e.getMessage());
+                    drop(this);
+                }
+            });
+        }
+
+        void complete() {
+            submit(emitter::complete);
+            sender.shutdown();
+        }
+
+        void close() {
+            sender.shutdownNow();
+        }
+
+        private void submit(Runnable task) {
+            try {
+                sender.execute(task);
+            } catch (RejectedExecutionException e) {
+                // Already completed or dropped
+            }
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package org.tanzu.thstudio.publish;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs generate-and-deploy builds as background {@link PublishJob}s.
+ * <p>
+ * Builds are single-flight per target: while a preview (or live) build is running, further
+ * requests for the same target attach to it instead of starting another build, so a burst
+ * of clicks or API calls renders and uploads the site once. Jobs run on virtual threads;
+ * the most recent ones are kept so clients can look up a finished job's result.
+ * <p>
+ * Every submission plans the site ({@link SiteManifestPlanner}) from the database, so changes
+ * made by any instance — CMS edits, or image variants completed by a worker — are seen.
+ * A running build only absorbs new requests while the plan still matches its own, and the
+ * site last generated for the current plan — usually warmed by {@link StagedSiteBuilder} —
+ * is reused instead of rendering again, so such a publish only uploads and releases.
+ * <p>
+ * The manifest of each successful deploy is stored as a {@link DeployedManifest}, so
+ * {@link #planFiles()} reports staleness against what live really serves, across restarts
+ * and instances.
+ * <p>
+ * Every finished job is recorded as Micrometer metrics ({@code tauphat.publish.*}: stage
+ * and total timers, rendered/uploaded bytes, skipped files, upload retries) and as a
+ * {@link PublishHistory} row.
+ */
+@Service
+public class PublishJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(PublishJobService.class);
+
+    /** Finished jobs kept for lookup after they complete. */
+    private static final int RECENT_JOBS = 20;
+
+    private final SiteGeneratorService generatorService;
+    private final FirebaseHostingService firebaseHostingService;
+    private final SiteManifestPlanner planner;
+    private final MeterRegistry meterRegistry;
+    private final PublishHistoryRepository historyRepository;
+    private final DeployedManifestRepository deployedRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<PublishJob.Target, PublishJob> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, PublishJob> jobs = new LinkedHashMap<>();
+    private final ReentrantLock generation = new ReentrantLock();
+    /** The last generated site; read and written only while holding {@code generation}. */
+    private StagedSite staged;
+
+    public PublishJobService(SiteGeneratorService generatorService,
+                             FirebaseHostingService firebaseHostingService,
+                             SiteManifestPlanner planner,
+                             MeterRegistry meterRegistry,
+                             PublishHistoryRepository historyRepository,
+                             DeployedManifestRepository deployedRepository) {
+        this.generatorService = generatorService;
+        this.firebaseHostingService = firebaseHostingService;
+        this.planner = planner;
+        this.meterRegistry = meterRegistry;
+        this.historyRepository = historyRepository;
+        this.deployedRepository = deployedRepository;
+    }
+
+    /**
+     * The job a publish request was handed: either a new build, or the build already
+     * running for the same target ({@code attached}).
+     */
+    public record Submission(PublishJob job, boolean attached) {}
+
+    /**
+     * A file the next build will produce, and whether it differs from the live site.
+     */
+    public record PlannedFile(String path, String owner, String contentType, boolean stale) {}
+
+    /**
+     * A generated site and the digest of the manifest planned before it was rendered.
+     */
+    private record StagedSite(GeneratedSite site, String manifestDigest) {}
+
+    /**
+     * Starts a build for the target, or attaches to the one already in flight if it builds
+     * the same plan.
+     */
+    public Submission submit(PublishJob.Target target) {
+        var manifest = planner.plan();
+        var created = new PublishJob[1];
+        var job = inFlight.compute(target, (t, running) -> {
+            if (running != null && running.isRunning()
+                    && running.manifest().digest().equals(manifest.digest())) {
+                return running;
+            }
+            created[0] = new PublishJob(t, manifest);
+            return created[0];
+        });
+        if (created[0] == null) {
+            log.info("Attaching to in-flight {} publish job {}", target, job.id());
+            return new Submission(job, true);
+        }
+
+        synchronized (jobs) {
+            jobs.put(job.id(), job);
+            while (jobs.size() > RECENT_JOBS) {
+                jobs.remove(jobs.keySet().iterator().next());
+            }
+        }
+        log.info("Starting {} publish job {}", target, job.id());
+        executor.execute(() -> run(job));
+        return new Submission(job, false);
+    }
+
+    public Optional<PublishJob> find(String id) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(id));
+        }
+    }
+
+    /**
+     * Returns the recent jobs, newest first.
+     */
+    public List<PublishJob> recentJobs() {
+        synchronized (jobs) {
+            return new ArrayList<>(jobs.values()).reversed();
+        }
+    }
+
+    /**
+     * Plans the next build's files without rendering, marking those that changed since
+     * the last live deploy. Everything is stale while live's manifest is not known.
+     */
+    public List<PlannedFile> planFiles() {
+        var manifest = planner.plan();
+        var live = deployedStamps(PublishJob.Target.LIVE);
+        return manifest.entries().stream()
+                .map(entry -> new PlannedFile(entry.path(), entry.owner(), entry.contentType(),
+                        manifest.isStale(entry, live)))
+                .toList();
+    }
+
+    /**
+     * Records that the last preview was released to live as-is.
+     */
+    @Transactional
+    public void previewPromoted() {
+        deployedRepository.findById(PublishJob.Target.PREVIEW.name()).ifPresentOrElse(preview -> {
+            var live = new DeployedManifest();
+            live.setTarget(PublishJob.Target.LIVE.name());
+            live.setDigest(preview.getDigest());
+            live.setStamps(preview.getStamps());
+            live.setDeployedAt(Instant.now());
+            deployedRepository.save(live);
+        }, () -> deployedRepository.deleteById(PublishJob.Target.LIVE.name()));
+    }
+
+    /**
+     * Records that live now serves an older version whose manifest is not known.
+     */
+    public void liveRolledBack() {
+        deployedRepository.deleteById(PublishJob.Target.LIVE.name());
+    }
+
+    /**
+     * Generates the site for the current plan unless it is already staged.
+     */
+    public void refreshStagedSite() {
+        siteFor(planner.plan(), PublishProgressListener.NONE);
+    }
+
+    /**
+     * The site a job deploys, and whether it was taken from the staged build
+     * rather than rendered by the job itself.
+     */
+    private record Build(GeneratedSite site, boolean staged) {}
+
+    /**
+     * Returns the staged site if it was built from the same plan, or generates it. The plan
+     * is taken before rendering, so an edit racing the render only costs another render.
+     * <p>
+     * Generation is serialized: a job arriving while the staged refresh (or another job)
+     * renders waits for it, then reuses its site if it was built from the same plan.
+     */
+    private Build siteFor(SiteManifest manifest, PublishProgressListener listener) {
+        generation.lock();
+        try {
+            var current = staged;
+            if (current != null && current.manifestDigest().equals(manifest.digest())) {
+                log.info("Using staged build for manifest {}", manifest.digest());
+                return new Build(current.site(), true);
+            }
+            var site = generatorService.generate(listener);
+            staged = new StagedSite(site, manifest.digest());
+            return new Build(site, false);
+        } finally {
+            generation.unlock();
+        }
+    }
+
+    private void run(PublishJob job) {
+        Build build = null;
+        DeployResult result = null;
+        try {
+            var manifest = job.manifest();
+            build = siteFor(manifest, job);
+            var site = build.site();
+            result = switch (job.target()) {
+                case PREVIEW -> firebaseHostingService.deployToPreview(site, job);
+                case LIVE -> firebaseHostingService.deployToLive(site, job);
+            };
+            deployed(job.target(), manifest);
+            inFlight.remove(job.target(), job);
+            job.succeed(result);
+            log.info("{} publish job {} complete", job.target(), job.id());
+        } catch (Exception e) {
+            inFlight.remove(job.target(), job);
+            log.error("{} publish job {} failed", job.target(), job.id(), e);
+            job.fail(e);
+        }
+        record(job, build, result);
+    }
+
+    // ── Deployed manifests ──────────────────────────────────────────────────
+
+    /**
+     * Stores the manifest just released to the target. Failures are logged only; the files
+     * are then reported stale until the next deploy.
+     */
+    private void deployed(PublishJob.Target target, SiteManifest manifest) {
+        try {
+            var deployed = new DeployedManifest();
+            deployed.setTarget(target.name());
+            deployed.setDigest(manifest.digest());
+            deployed.setStamps(objectMapper.writeValueAsString(manifest.stamps()));
+            deployed.setDeployedAt(Instant.now());
+            deployedRepository.save(deployed);
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Failed to store the {} manifest {}: {}", target, manifest.digest(), e.getMessage());
+        }
+    }
+
+    /**
+     * The stamps last released to the target by path, or {@code null} if they are not known.
+     */
+    private Map<String, String> deployedStamps(PublishJob.Target target) {
+        var deployed = deployedRepository.findById(target.name()).orElse(null);
+        if (deployed == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(deployed.getStamps(), new TypeReference<Map<String, String>>() {});
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable {} manifest {}: {}", target, deployed.getDigest(), e.getMessage());
+            return null;
+        }
+    }
+
+    // ── Telemetry ───────────────────────────────────────────────────────────
+
+    /**
+     * Records a finished job as Micrometer metrics and as a {@link PublishHistory} row.
+     * Failures here are logged only; they never fail the publish itself.
+     */
+    private void record(PublishJob job, Build build, DeployResult result) {
+        try {
+            var view = job.view();
+            var target = job.target().name().toLowerCase(Locale.ROOT);
+            var outcome = view.state().name().toLowerCase(Locale.ROOT);
+            var stages = job.stageDurations();
+            var duration = Duration.between(job.startedAt(), job.finishedAt());
+
+            Timer.builder("tauphat.publish.duration")
+                    .description("Total time of a publish job")
+                    .tags("target", target, "outcome", outcome)
+                    .register(meterRegistry)
+                    .record(duration);
+            stages.forEach((stage, time) -> Timer.builder("tauphat.publish.stage")
+                    .description("Time spent in a publish stage")
+                    .tags("target", target, "stage", stage.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry)
+                    .record(time));
+            counter("tauphat.publish.upload.retries", "Upload requests retried", target)
+                    .increment(job.retries());
+
+            var history = new PublishHistory();
+            history.setJobId(job.id());
+            history.setTarget(job.target().name());
+            history.setOutcome(view.state().name());
+            history.setStartedAt(job.startedAt());
+            history.setFinishedAt(job.finishedAt());
+            history.setDurationMs(duration.toMillis());
+            history.setQueryMs(millis(stages.get(PublishStage.QUERY)));
+            history.setRenderMs(millis(stages.get(PublishStage.RENDER)));
+            history.setCompressMs(millis(stages.get(PublishStage.COMPRESS)));
+            history.setPopulateMs(millis(stages.get(PublishStage.POPULATE)));
+            history.setUploadMs(millis(stages.get(PublishStage.UPLOAD)));
+            history.setFinalizeMs(millis(stages.get(PublishStage.FINALIZE)));
+            history.setReleaseMs(millis(stages.get(PublishStage.RELEASE)));
+            history.setUploadRetries(job.retries());
+            history.setError(view.error());
+
+            if (build != null) {
+                var site = build.site();
+                int renderedFiles = build.staged() ? 0 : site.fileCount() - site.reusedCount();
+                long renderedBytes = build.staged() ? 0 : site.renderedBytes();
+                history.setFileCount(site.fileCount());
+                history.setRenderedFiles(renderedFiles);
+                history.setRenderedBytes(renderedBytes);
+                counter("tauphat.publish.rendered.bytes", "Uncompressed bytes rendered", target)
+                        .increment(renderedBytes);
+            }
+            if (result != null) {
+                history.setVersionName(result.versionName());
+                history.setUploadedFiles(result.uploadedFiles());
+                history.setUploadedBytes(result.uploadedBytes());
+                history.setSkippedFiles(result.skippedFiles());
+                history.setSkippedBytes(result.skippedBytes());
+                counter("tauphat.publish.uploaded.bytes", "Gzipped bytes uploaded to Firebase", target)
+                        .increment(result.uploadedBytes());
+                counter("tauphat.publish.skipped.files", "Files Firebase already had", target)
+                        .increment(result.skippedFiles());
+            }
+            historyRepository.save(history);
+        } catch (RuntimeException e) {
+            log.warn("Failed to record publish job {}: {}", job.id(), e.getMessage());
+        }
+    }
+
+    private Counter counter(String name, String description, String target) {
+        return Counter.builder(name).description(description).tag("target", target).register(meterRegistry);
+    }
+
+    private static Long millis(Duration duration) {
+        return duration != null ? duration.toMillis() : null;
+    }
+
+    /**
+     * Returns the most recent publish runs, newest first.
+     */
+    public List<PublishHistory> history(int limit) {
+        return historyRepository.findAllByOrderByStartedAtDesc(PageRequest.of(0, limit));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
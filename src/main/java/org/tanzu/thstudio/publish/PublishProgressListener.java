@@ -0,0 +1,29 @@
+package org.tanzu.thstudio.publish;
+
+/**
+ * Receives progress from {@link SiteGeneratorService#generate(PublishProgressListener)} and
+ * the {@link FirebaseHostingService} deploy methods. Callbacks may come from several
+ * threads at once (e.g. while pages render or files upload concurrently).
+ */
+public interface PublishProgressListener {
+
+    PublishProgressListener NONE = new PublishProgressListener() {};
+
+    /**
+     * Called when a stage starts.
+     */
+    default void stageStarted(PublishStage stage) {
+    }
+
+    /**
+     * Called as work within a stage completes, e.g. pages rendered or files uploaded.
+     */
+    default void progress(PublishStage stage, int completed, int total) {
+    }
+
+    /**
+     * Called when a request within a stage is retried, e.g. an upload after a 503.
+     */
+    default void retried(PublishStage stage) {
+    }
+}
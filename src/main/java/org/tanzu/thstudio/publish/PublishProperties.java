@@ -0,0 +1,123 @@
+package org.tanzu.thstudio.publish;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties("tauphat.publish")
+public record PublishProperties(RenderProperties render, TemplateProperties templates, StorageProperties storage,
+                                ArtifactCacheProperties artifactCache, UploadProperties upload,
+                                ReleaseProperties releases, StagingProperties staging) {
+
+    public PublishProperties {
+        if (render == null) render = new RenderProperties(null, null);
+        if (templates == null) templates = new TemplateProperties(null, null, null);
+        if (storage == null) storage = new StorageProperties(null, null, null);
+        if (artifactCache == null) artifactCache = new ArtifactCacheProperties(null, null, null);
+        if (upload == null) upload = new UploadProperties(null, null, null, null, null, null, null);
+        if (releases == null) releases = new ReleaseProperties(null);
+        if (staging == null) staging = new StagingProperties(null, null, null);
+    }
+
+    /**
+     * @param incremental reuse files from the previous build whose inputs are unchanged
+     * @param parallelism maximum number of pages rendered at once; 1 renders sequentially
+     */
+    public record RenderProperties(Boolean incremental, Integer parallelism) {
+        public RenderProperties {
+            if (incremental == null) incremental = true;
+            if (parallelism == null || parallelism <= 0) parallelism = Runtime.getRuntime().availableProcessors();
+        }
+    }
+
+    /**
+     * @param cacheMode    how cached parsed templates are invalidated
+     * @param cacheTtl     in production mode, how long a parsed template stays cached ({@code null} = forever)
+     * @param cacheMaxSize maximum number of parsed templates kept in the cache
+     */
+    public record TemplateProperties(TemplateCacheMode cacheMode, Duration cacheTtl, Integer cacheMaxSize) {
+        public TemplateProperties {
+            if (cacheMode == null) cacheMode = TemplateCacheMode.PRODUCTION;
+            if (cacheMaxSize == null || cacheMaxSize <= 0) cacheMaxSize = 64;
+        }
+    }
+
+    /**
+     * @param heapBudget     total size of generated file content kept on the heap
+     * @param spillThreshold files larger than this are always written to a temp file
+     * @param directory      parent directory for spill files ({@code null} = system temp directory)
+     */
+    public record StorageProperties(DataSize heapBudget, DataSize spillThreshold, Path directory) {
+        public StorageProperties {
+            if (heapBudget == null) heapBudget = DataSize.ofMegabytes(64);
+            if (spillThreshold == null) spillThreshold = DataSize.ofKilobytes(256);
+        }
+    }
+
+    /**
+     * @param enabled   cache gzipped static assets on disk across builds and restarts
+     * @param directory cache directory ({@code null} = {@code tauphat-artifacts} in the system temp directory)
+     * @param maxSize   total size of cached files before least recently used entries are evicted
+     */
+    public record ArtifactCacheProperties(Boolean enabled, Path directory, DataSize maxSize) {
+        public ArtifactCacheProperties {
+            if (enabled == null) enabled = true;
+            if (directory == null) directory = Path.of(System.getProperty("java.io.tmpdir"), "tauphat-artifacts");
+            if (maxSize == null) maxSize = DataSize.ofMegabytes(64);
+        }
+    }
+
+    /**
+     * @param concurrency         maximum number of file uploads in flight
+     * @param maxAttempts         attempts per file before the deploy fails (429, 5xx and I/O errors are retried)
+     * @param initialBackoff      delay before the first retry, doubled on each further attempt
+     * @param maxBackoff          upper bound for a single retry delay, including {@code Retry-After}
+     * @param requestTimeout      timeout for a single upload request
+     * @param populateBatchSize   maximum number of files per {@code populateFiles} call
+     * @param populateConcurrency maximum number of {@code populateFiles} calls in flight
+     */
+    public record UploadProperties(Integer concurrency, Integer maxAttempts, Duration initialBackoff,
+                                   Duration maxBackoff, Duration requestTimeout,
+                                   Integer populateBatchSize, Integer populateConcurrency) {
+        public UploadProperties {
+            if (concurrency == null || concurrency <= 0) concurrency = 16;
+            if (maxAttempts == null || maxAttempts <= 0) maxAttempts = 4;
+            if (initialBackoff == null) initialBackoff = Duration.ofMillis(500);
+            if (maxBackoff == null) maxBackoff = Duration.ofSeconds(10);
+            if (requestTimeout == null) requestTimeout = Duration.ofSeconds(60);
+            if (populateBatchSize == null || populateBatchSize <= 0) populateBatchSize = 1000;
+            if (populateConcurrency == null || populateConcurrency <= 0) populateConcurrency = 4;
+        }
+    }
+
+    /**
+     * @param historySize number of recent live releases listed for rollback
+     */
+    public record ReleaseProperties(Integer historySize) {
+        public ReleaseProperties {
+            if (historySize == null || historySize <= 0) historySize = 10;
+        }
+    }
+
+    /**
+     * @param enabled     rebuild a staged site in the background after content edits
+     * @param debounce    quiet period after the last edit before the staged site is rebuilt
+     * @param autoPreview also deploy each staged build to the preview channel
+     */
+    public record StagingProperties(Boolean enabled, Duration debounce, Boolean autoPreview) {
+        public StagingProperties {
+            if (enabled == null) enabled = true;
+            if (debounce == null) debounce = Duration.ofSeconds(30);
+            if (autoPreview == null) autoPreview = false;
+        }
+    }
+
+    public enum TemplateCacheMode {
+        /** Templates are parsed once and kept until the TTL (if any) expires. */
+        PRODUCTION,
+        /** Templates are re-parsed whenever their classpath resource is modified. */
+        DEVELOPMENT
+    }
+}
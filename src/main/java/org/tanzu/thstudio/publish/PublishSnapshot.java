@@ -0,0 +1,119 @@
+package org.tanzu.thstudio.publish;
+
+import org.tanzu.thstudio.portfolio.PortfolioItem;
+import org.tanzu.thstudio.portfolio.PortfolioSet;
+import org.tanzu.thstudio.site.SiteConfig;
+import org.tanzu.thstudio.webcomic.WebcomicIssue;
+import org.tanzu.thstudio.webcomic.WebcomicPage;
+import org.tanzu.thstudio.webcomic.WebcomicSeries;
+
+import java.time.Instant;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Immutable view of everything the static site is rendered from, loaded by
+ * {@link PublishSnapshotLoader} in a fixed number of queries.
+ * <p>
+ * Once loaded, rendering only reads simple properties of the contained entities
+ * and never goes back to the persistence context.
+ */
+record PublishSnapshot(SiteConfig config,
+                       List<SeriesSnapshot> series,
+                       List<PortfolioItem> portfolioItems,
+                       List<SetSnapshot> sets) {
+
+    PublishSnapshot {
+        series = List.copyOf(series);
+        portfolioItems = List.copyOf(portfolioItems);
+        sets = List.copyOf(sets);
+    }
+
+    List<WebcomicSeries> activeSeries() {
+        return series.stream().map(SeriesSnapshot::series).toList();
+    }
+
+    /**
+     * The first active series, if it has at least one published issue.
+     */
+    SeriesSnapshot latestSeries() {
+        return series.isEmpty() || series.getFirst().issues().isEmpty() ? null : series.getFirst();
+    }
+
+    List<PortfolioItem> standaloneItems() {
+        return portfolioItems.stream().filter(item -> item.getSetId() == null).toList();
+    }
+
+    /**
+     * The latest {@code updatedAt} of anything in the snapshot, or {@code null} if it holds
+     * no timestamps at all.
+     */
+    Instant lastModified() {
+        var series = this.series.stream().flatMap(s -> Stream.concat(
+                Stream.of(s.series().getUpdatedAt()),
+                s.issues().stream().flatMap(issue -> Stream.concat(
+                        Stream.of(issue.issue().getUpdatedAt()),
+                        issue.pages().stream().map(WebcomicPage::getUpdatedAt)))));
+        var portfolio = Stream.concat(
+                portfolioItems.stream().map(PortfolioItem::getUpdatedAt),
+                sets.stream().map(s -> s.set().getUpdatedAt()));
+        return Stream.of(Stream.of(config.getUpdatedAt()), series, portfolio)
+                .flatMap(Function.identity())
+                .filter(Objects::nonNull)
+                .max(Instant::compareTo)
+                .orElse(null);
+    }
+
+    /**
+     * The footer copyright year: the (UTC) year the content was last modified, so that
+     * rebuilding unchanged content never depends on the build date.
+     */
+    int copyrightYear() {
+        return copyrightYear(lastModified());
+    }
+
+    static int copyrightYear(Instant lastModified) {
+        return lastModified != null
+                ? lastModified.atZone(ZoneOffset.UTC).getYear()
+                : Year.now(ZoneOffset.UTC).getValue();
+    }
+
+    /**
+     * An active series with its published issues, newest first.
+     */
+    record SeriesSnapshot(WebcomicSeries series, List<IssueSnapshot> issues) {
+        SeriesSnapshot {
+            issues = List.copyOf(issues);
+        }
+
+        List<WebcomicIssue> publishedIssues() {
+            return issues.stream().map(IssueSnapshot::issue).toList();
+        }
+    }
+
+    /**
+     * A published issue with its pages and precomputed reader navigation links.
+     *
+     * @param previous the next-older published issue in the series, or {@code null}
+     * @param next     the next-newer published issue in the series, or {@code null}
+     */
+    record IssueSnapshot(WebcomicIssue issue, List<WebcomicPage> pages,
+                         WebcomicIssue previous, WebcomicIssue next) {
+        IssueSnapshot {
+            pages = List.copyOf(pages);
+        }
+    }
+
+    /**
+     * A portfolio set with its items in set order.
+     */
+    record SetSnapshot(PortfolioSet set, List<PortfolioItem> items) {
+        SetSnapshot {
+            items = List.copyOf(items);
+        }
+    }
+}
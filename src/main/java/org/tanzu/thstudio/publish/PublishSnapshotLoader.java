@@ -0,0 +1,100 @@
+package org.tanzu.thstudio.publish;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.tanzu.thstudio.image.ImageStatus;
+import org.tanzu.thstudio.portfolio.PortfolioItem;
+import org.tanzu.thstudio.portfolio.PortfolioItemRepository;
+import org.tanzu.thstudio.portfolio.PortfolioSetRepository;
+import org.tanzu.thstudio.site.SiteConfigService;
+import org.tanzu.thstudio.webcomic.WebcomicIssue;
+import org.tanzu.thstudio.webcomic.WebcomicIssueRepository;
+import org.tanzu.thstudio.webcomic.WebcomicPage;
+import org.tanzu.thstudio.webcomic.WebcomicPageRepository;
+import org.tanzu.thstudio.webcomic.WebcomicSeriesRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Loads the complete publishable content graph into a {@link PublishSnapshot}.
+ * <p>
+ * Each level of the graph (active series, their published issues, the pages of those
+ * issues, portfolio sets and items) is fetched with a single set-based query and
+ * grouped in memory, so the number of queries per publish stays constant no matter
+ * how many series, issues or sets exist.
+ * <p>
+ * Pages and portfolio items whose image variants are still processing (or failed) are left
+ * out, so the full-resolution original is never published in their place. They appear once
+ * a worker marks them {@link ImageStatus#READY}, which also changes the planned manifest.
+ */
+@Component
+class PublishSnapshotLoader {
+
+    private final SiteConfigService siteConfigService;
+    private final WebcomicSeriesRepository seriesRepository;
+    private final WebcomicIssueRepository issueRepository;
+    private final WebcomicPageRepository pageRepository;
+    private final PortfolioItemRepository portfolioRepository;
+    private final PortfolioSetRepository portfolioSetRepository;
+
+    PublishSnapshotLoader(SiteConfigService siteConfigService,
+                          WebcomicSeriesRepository seriesRepository,
+                          WebcomicIssueRepository issueRepository,
+                          WebcomicPageRepository pageRepository,
+                          PortfolioItemRepository portfolioRepository,
+                          PortfolioSetRepository portfolioSetRepository) {
+        this.siteConfigService = siteConfigService;
+        this.seriesRepository = seriesRepository;
+        this.issueRepository = issueRepository;
+        this.pageRepository = pageRepository;
+        this.portfolioRepository = portfolioRepository;
+        this.portfolioSetRepository = portfolioSetRepository;
+    }
+
+    @Transactional(readOnly = true)
+    PublishSnapshot load() {
+        var config = siteConfigService.getConfig();
+        var activeSeries = seriesRepository.findByActiveTrueOrderBySortOrderAsc();
+
+        Map<Long, List<WebcomicIssue>> issuesBySeries = issueRepository
+                .findByPublishedTrueAndSeries_ActiveTrueOrderByIssueNumberDesc().stream()
+                .collect(Collectors.groupingBy(WebcomicIssue::getSeriesId, LinkedHashMap::new, Collectors.toList()));
+        Map<Long, List<WebcomicPage>> pagesByIssue = pageRepository
+                .findByIssue_PublishedTrueAndIssue_Series_ActiveTrueOrderByPageNumberAsc().stream()
+                .filter(page -> page.getImageStatus() == ImageStatus.READY)
+                .collect(Collectors.groupingBy(WebcomicPage::getIssueId, LinkedHashMap::new, Collectors.toList()));
+
+        var series = new ArrayList<PublishSnapshot.SeriesSnapshot>(activeSeries.size());
+        for (var s : activeSeries) {
+            var publishedIssues = issuesBySeries.getOrDefault(s.getId(), List.of());
+            var issues = new ArrayList<PublishSnapshot.IssueSnapshot>(publishedIssues.size());
+            for (int i = 0; i < publishedIssues.size(); i++) {
+                var issue = publishedIssues.get(i);
+                // Issues are ordered newest first, so "previous" is the following element
+                issues.add(new PublishSnapshot.IssueSnapshot(issue,
+                        pagesByIssue.getOrDefault(issue.getId(), List.of()),
+                        i + 1 < publishedIssues.size() ? publishedIssues.get(i + 1) : null,
+                        i > 0 ? publishedIssues.get(i - 1) : null));
+            }
+            series.add(new PublishSnapshot.SeriesSnapshot(s, issues));
+        }
+
+        var portfolioItems = portfolioRepository.findAllByOrderBySortOrderAsc().stream()
+                .filter(item -> item.getImageStatus() == ImageStatus.READY)
+                .toList();
+        Map<Long, List<PortfolioItem>> itemsBySet = portfolioItems.stream()
+                .filter(item -> item.getSetId() != null)
+                .sorted(Comparator.comparing(PortfolioItem::getSetSortOrder))
+                .collect(Collectors.groupingBy(PortfolioItem::getSetId));
+        var sets = portfolioSetRepository.findAllByOrderBySortOrderAsc().stream()
+                .map(set -> new PublishSnapshot.SetSnapshot(set, itemsBySet.getOrDefault(set.getId(), List.of())))
+                .toList();
+
+        return new PublishSnapshot(config, series, portfolioItems, sets);
+    }
+}
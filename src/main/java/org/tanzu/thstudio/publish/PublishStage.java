@@ -0,0 +1,21 @@
+package org.tanzu.thstudio.publish;
+
+/**
+ * The stages of a publish, in the order they run.
+ */
+public enum PublishStage {
+    /** Loading the content snapshot from the database. */
+    QUERY,
+    /** Rendering (and compressing) pages that changed since the previous build. */
+    RENDER,
+    /** Compressing static assets and assembling the generated site. */
+    COMPRESS,
+    /** Sending the version's file list to Firebase Hosting. */
+    POPULATE,
+    /** Uploading the files Firebase does not have yet. */
+    UPLOAD,
+    /** Finalizing the version. */
+    FINALIZE,
+    /** Releasing the version to a channel. */
+    RELEASE
+}
@@ -1,8 +1,9 @@
 package org.tanzu.thstudio.publish;
 
-import org.springframework.context.ApplicationContext;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.thymeleaf.cache.StandardCacheManager;
 import org.thymeleaf.spring6.SpringTemplateEngine;
 import org.thymeleaf.templatemode.TemplateMode;
 import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
@@ -14,34 +15,50 @@ import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
  *
  * Uses SpringTemplateEngine (SpEL) rather than the plain TemplateEngine (OGNL)
  * to avoid needing the OGNL library as an extra dependency.
+ *
+ * Parsed templates are cached in a bounded cache. In {@code production} mode entries
+ * expire after the configured TTL (or never); in {@code development} mode an entry is
+ * dropped as soon as its template file changes on the classpath.
  */
 @Configuration
+@EnableConfigurationProperties(PublishProperties.class)
 public class SiteGeneratorConfig {
 
     @Bean("siteTemplateEngine")
-    public SpringTemplateEngine siteTemplateEngine(ApplicationContext applicationContext) {
-        var htmlResolver = new ClassLoaderTemplateResolver();
-        htmlResolver.setPrefix("site-templates/");
+    public SpringTemplateEngine siteTemplateEngine(PublishProperties properties) {
+        var templates = properties.templates();
+
+        var htmlResolver = templateResolver(templates);
         htmlResolver.setSuffix(".html");
         htmlResolver.setTemplateMode(TemplateMode.HTML);
-        htmlResolver.setCharacterEncoding("UTF-8");
-        htmlResolver.setCacheable(false);
-        htmlResolver.setCheckExistence(true);
         htmlResolver.setOrder(1);
 
-        var textResolver = new ClassLoaderTemplateResolver();
-        textResolver.setPrefix("site-templates/");
+        var textResolver = templateResolver(templates);
         textResolver.setSuffix(".css.html");
         textResolver.setTemplateMode(TemplateMode.TEXT);
-        textResolver.setCharacterEncoding("UTF-8");
-        textResolver.setCacheable(false);
-        textResolver.setCheckExistence(true);
         textResolver.setOrder(0);
 
+        var cacheManager = new StandardCacheManager();
+        cacheManager.setTemplateCacheMaxSize(templates.cacheMaxSize());
+
         var engine = new SpringTemplateEngine();
         engine.addTemplateResolver(textResolver);
         engine.addTemplateResolver(htmlResolver);
+        engine.setCacheManager(cacheManager);
         engine.setEnableSpringELCompiler(true);
         return engine;
     }
+
+    private static ClassLoaderTemplateResolver templateResolver(PublishProperties.TemplateProperties templates) {
+        var developmentMode = templates.cacheMode() == PublishProperties.TemplateCacheMode.DEVELOPMENT;
+        var resolver = new SiteTemplateResolver(developmentMode);
+        resolver.setPrefix("site-templates/");
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(true);
+        if (!developmentMode && templates.cacheTtl() != null) {
+            resolver.setCacheTTLMs(templates.cacheTtl().toMillis());
+        }
+        resolver.setCheckExistence(true);
+        return resolver;
+    }
 }
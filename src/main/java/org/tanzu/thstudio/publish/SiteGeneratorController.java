@@ -2,22 +2,40 @@ package org.tanzu.thstudio.publish;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import org.tanzu.thstudio.config.TaupHatProperties;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * REST API for static site generation, preview, and deployment.
  * <p>
  * POST /api/publish/preview  — generates the site and deploys to a Firebase preview channel
  * POST /api/publish/deploy   — generates the site and deploys to the Firebase live channel
- * GET  /api/publish/preview-summary — generates in-memory and returns a file listing (no deploy)
+ * POST /api/publish/jobs?target=preview|live — starts (or joins) a background build, returns its job id
+ * GET  /api/publish/jobs     — lists recent build jobs
+ * GET  /api/publish/jobs/{id} — returns a build job's state and result
+ * GET  /api/publish/jobs/{id}/events — streams a build job's stage progress (server-sent events)
+ * POST /api/publish/promote  — releases the last preview version to the live channel as-is
+ * GET  /api/publish/releases — lists recent live releases
+ * GET  /api/publish/history  — lists recent publish runs with stage timings
+ * POST /api/publish/rollback — re-releases a recent live version ({"versionName": "..."})
+ * GET  /api/publish/preview-summary — plans the next build's files without rendering (no deploy)
  */
 @RestController
 @RequestMapping("/api/publish")
@@ -25,36 +43,156 @@ public class SiteGeneratorController {
 
     private static final Logger log = LoggerFactory.getLogger(SiteGeneratorController.class);
 
-    private final SiteGeneratorService generatorService;
+    /** How long a job event stream stays open; builds normally finish well within this. */
+    private static final Duration EVENT_STREAM_TIMEOUT = Duration.ofMinutes(30);
+
     private final FirebaseHostingService firebaseHostingService;
-    private final TaupHatProperties properties;
+    private final PublishJobService jobService;
 
-    public SiteGeneratorController(SiteGeneratorService generatorService,
-                                   FirebaseHostingService firebaseHostingService,
-                                   TaupHatProperties properties) {
-        this.generatorService = generatorService;
+    public SiteGeneratorController(FirebaseHostingService firebaseHostingService,
+                                   PublishJobService jobService) {
         this.firebaseHostingService = firebaseHostingService;
-        this.properties = properties;
+        this.jobService = jobService;
     }
 
     /**
      * Generates the static site and deploys it to a Firebase preview channel.
-     * Returns the preview URL for the user to view the staged site.
+     * Returns the preview URL for the user to view the staged site. Responds once the build
+     * finishes, joining one that is already running for the preview channel; no request
+     * thread is held while it runs.
      */
     @PostMapping("/preview")
-    public ResponseEntity<Map<String, Object>> preview() {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> preview() {
         log.info("Preview deployment requested");
+        return whenFinished(PublishJob.Target.PREVIEW, "previewUrl");
+    }
+
+    /**
+     * Generates the static site and deploys it to the Firebase live channel (production).
+     * Responds once the build finishes, joining one that is already running for the live channel.
+     */
+    @PostMapping("/deploy")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> deploy() {
+        log.info("Production deployment requested");
+        return whenFinished(PublishJob.Target.LIVE, "siteUrl");
+    }
+
+    private CompletableFuture<ResponseEntity<Map<String, Object>>> whenFinished(PublishJob.Target target,
+                                                                                String urlKey) {
+        CompletableFuture<DeployResult> completion;
         try {
-            var site = generatorService.generate();
-            String previewUrl = firebaseHostingService.deployToPreview(site);
+            completion = jobService.submit(target).job().completion();
+        } catch (RuntimeException e) {
+            // Planning the build failed before a job was started
+            completion = CompletableFuture.failedFuture(e);
+        }
+        return completion.handle((result, failure) -> {
+            if (failure != null) {
+                var e = failure instanceof CompletionException ? failure.getCause() : failure;
+                log.error("{} deployment failed", target, e);
+                return ResponseEntity.internalServerError().body(Map.of(
+                        "status", "error",
+                        "message", e.getMessage() != null ? e.getMessage() : "Unknown error",
+                        "timestamp", LocalDateTime.now().toString()
+                ));
+            }
             return ResponseEntity.ok(Map.of(
                     "status", "success",
-                    "previewUrl", previewUrl,
-                    "fileCount", site.fileCount(),
+                    urlKey, result.url(),
+                    "fileCount", result.fileCount(),
+                    "deploy", result,
+                    "timestamp", LocalDateTime.now().toString()
+            ));
+        });
+    }
+
+    /**
+     * Starts a background build for the given target and returns its job id straight away
+     * (202 Accepted). If a build for the same target is already running, the request
+     * attaches to it and {@code attached} is true.
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<Map<String, Object>> startJob(@RequestParam(defaultValue = "preview") String target) {
+        PublishJob.Target jobTarget;
+        try {
+            jobTarget = PublishJob.Target.valueOf(target.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "error",
+                    "message", "target must be 'preview' or 'live'"
+            ));
+        }
+        var submission = jobService.submit(jobTarget);
+        return ResponseEntity.accepted().body(Map.of(
+                "status", "accepted",
+                "jobId", submission.job().id(),
+                "attached", submission.attached(),
+                "job", submission.job().view(),
+                "timestamp", LocalDateTime.now().toString()
+        ));
+    }
+
+    /**
+     * Lists recent build jobs, newest first.
+     */
+    @GetMapping("/jobs")
+    public List<PublishJob.View> jobs() {
+        return jobService.recentJobs().stream().map(PublishJob::view).toList();
+    }
+
+    /**
+     * Returns a build job's current stage, or its result once finished.
+     */
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<PublishJob.View> job(@PathVariable String id) {
+        return jobService.find(id)
+                .map(job -> ResponseEntity.ok(job.view()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Streams a build job's progress as server-sent events: {@code status} on connect,
+     * then {@code stage} and {@code progress} events, and a final {@code complete} event
+     * carrying the job's result or error.
+     */
+    @GetMapping(path = "/jobs/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> jobEvents(@PathVariable String id) {
+        var job = jobService.find(id);
+        if (job.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        var emitter = new SseEmitter(EVENT_STREAM_TIMEOUT.toMillis());
+        job.get().attach(emitter);
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * Releases the version last deployed to the preview channel to the live channel,
+     * without regenerating or uploading anything. Returns 409 if the preview channel has no release.
+     */
+    @PostMapping("/promote")
+    public ResponseEntity<Map<String, Object>> promote() {
+        log.info("Preview promotion requested");
+        try {
+            var promoted = firebaseHostingService.promotePreviewToLive();
+            promoted.ifPresent(r -> jobService.previewPromoted());
+            if (promoted.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                        "status", "error",
+                        "message", "The preview channel has no release yet. Generate a preview first.",
+                        "timestamp", LocalDateTime.now().toString()
+                ));
+            }
+            var result = promoted.get();
+            return ResponseEntity.ok(Map.of(
+                    "status", "success",
+                    "siteUrl", result.url(),
+                    "fileCount", result.fileCount(),
+                    "deploy", result,
                     "timestamp", LocalDateTime.now().toString()
             ));
         } catch (Exception e) {
-            log.error("Preview deployment failed", e);
+            log.error("Preview promotion failed", e);
             return ResponseEntity.internalServerError().body(Map.of(
                     "status", "error",
                     "message", e.getMessage() != null ? e.getMessage() : "Unknown error",
@@ -64,23 +202,65 @@ public class SiteGeneratorController {
     }
 
     /**
-     * Generates the static site and deploys it to the Firebase live channel (production).
+     * Lists the most recent live releases, newest first, as recorded by Firebase.
      */
-    @PostMapping("/deploy")
-    public ResponseEntity<Map<String, Object>> deploy() {
-        log.info("Production deployment requested");
+    @GetMapping("/releases")
+    public ResponseEntity<Map<String, Object>> releases() {
+        try {
+            return ResponseEntity.ok(Map.of(
+                    "status", "success",
+                    "releases", firebaseHostingService.liveReleases(),
+                    "timestamp", LocalDateTime.now().toString()
+            ));
+        } catch (Exception e) {
+            log.error("Listing live releases failed", e);
+            return ResponseEntity.internalServerError().body(Map.of(
+                    "status", "error",
+                    "message", e.getMessage() != null ? e.getMessage() : "Unknown error",
+                    "timestamp", LocalDateTime.now().toString()
+            ));
+        }
+    }
+
+    /**
+     * Lists recent publish runs, newest first, with per-stage timings and transfer statistics.
+     */
+    @GetMapping("/history")
+    public List<PublishHistory> history(@RequestParam(defaultValue = "50") int limit) {
+        return jobService.history(Math.clamp(limit, 1, 500));
+    }
+
+    /**
+     * Re-releases a recent live version to the live channel, without rendering or uploading.
+     * Returns 404 if the version is not in the release history.
+     */
+    @PostMapping("/rollback")
+    public ResponseEntity<Map<String, Object>> rollback(@RequestBody Map<String, String> body) {
+        String versionName = body.get("versionName");
+        if (versionName == null || versionName.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "error",
+                    "message", "versionName is required"
+            ));
+        }
+        log.info("Rollback to {} requested", versionName);
         try {
-            var site = generatorService.generate();
-            firebaseHostingService.deployToLive(site);
-            String siteUrl = "https://" + properties.firebase().siteId() + ".web.app";
+            var release = firebaseHostingService.rollbackTo(versionName);
+            release.ifPresent(r -> jobService.liveRolledBack());
+            if (release.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                        "status", "error",
+                        "message", "Version is not in the recent release history: " + versionName,
+                        "timestamp", LocalDateTime.now().toString()
+                ));
+            }
             return ResponseEntity.ok(Map.of(
                     "status", "success",
-                    "siteUrl", siteUrl,
-                    "fileCount", site.fileCount(),
+                    "release", release.get(),
                     "timestamp", LocalDateTime.now().toString()
             ));
         } catch (Exception e) {
-            log.error("Production deployment failed", e);
+            log.error("Rollback failed", e);
             return ResponseEntity.internalServerError().body(Map.of(
                     "status", "error",
                     "message", e.getMessage() != null ? e.getMessage() : "Unknown error",
@@ -90,18 +270,20 @@ public class SiteGeneratorController {
     }
 
     /**
-     * Generates the static site in-memory (without deploying) and returns a summary.
-     * Useful for validating the site before publishing.
+     * Returns the files the next build will produce, with their owning entity and whether
+     * each changed since the last live deploy. Nothing is rendered, so this is cheap to call.
      */
     @GetMapping("/preview-summary")
     public ResponseEntity<Map<String, Object>> previewSummary() {
         try {
-            var site = generatorService.generate();
-            var filePaths = site.getFiles().keySet().stream().sorted().toList();
+            var planned = jobService.planFiles();
+            var filePaths = planned.stream().map(PublishJobService.PlannedFile::path).sorted().toList();
             return ResponseEntity.ok(Map.of(
                     "status", "success",
-                    "fileCount", site.fileCount(),
+                    "fileCount", planned.size(),
+                    "staleCount", planned.stream().filter(PublishJobService.PlannedFile::stale).count(),
                     "files", filePaths,
+                    "manifest", planned,
                     "timestamp", LocalDateTime.now().toString()
             ));
         } catch (Exception e) {
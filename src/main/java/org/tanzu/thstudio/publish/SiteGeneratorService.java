@@ -4,137 +4,349 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.tanzu.thstudio.portfolio.PortfolioItemRepository;
-import org.tanzu.thstudio.portfolio.PortfolioSetRepository;
-import org.tanzu.thstudio.site.SiteConfigService;
-import org.tanzu.thstudio.webcomic.WebcomicIssueRepository;
-import org.tanzu.thstudio.webcomic.WebcomicPageRepository;
-import org.tanzu.thstudio.webcomic.WebcomicSeriesRepository;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
- * Orchestrates static site generation by fetching CMS content from repositories,
- * delegating rendering to {@link SiteRendererService}, and assembling the final
+ * Orchestrates static site generation by loading a {@link PublishSnapshot} of the CMS
+ * content, delegating rendering to {@link SiteRendererService}, and assembling the final
  * {@link GeneratedSite} for deployment via {@link FirebaseHostingService}.
  */
 @Service
-@Transactional(readOnly = true)
 public class SiteGeneratorService {
 
     private static final Logger log = LoggerFactory.getLogger(SiteGeneratorService.class);
 
+    /**
+     * A classpath asset copied into every build as-is.
+     */
+    record StaticAsset(String path, String classpath, String contentType) {
+
+        /**
+         * SHA-256 of the asset's bytes, so its manifest stamp changes exactly when its content does.
+         */
+        String version() {
+            try {
+                var content = new ClassPathResource(classpath).getContentAsByteArray();
+                return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to read static asset " + classpath, e);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+    }
+
+    static final List<StaticAsset> STATIC_ASSETS = List.of(
+            // JS assets
+            new StaticAsset("js/comic-reader.js", "site-assets/comic-reader.js", GeneratedSite.JS),
+            new StaticAsset("js/portfolio-lightbox.js", "site-assets/portfolio-lightbox.js", GeneratedSite.JS),
+            new StaticAsset("js/stars.js", "site-assets/stars.js", GeneratedSite.JS),
+            new StaticAsset("js/set-viewer.js", "site-assets/set-viewer.js", GeneratedSite.JS),
+            new StaticAsset("js/about-carousel.js", "site-assets/about-carousel.js", GeneratedSite.JS),
+            new StaticAsset("js/commissions-form.js", "site-assets/commissions-form.js", GeneratedSite.JS),
+            new StaticAsset("js/portfolio-filter.js", "site-assets/portfolio-filter.js", GeneratedSite.JS),
+            // Image assets
+            new StaticAsset("images/star.png", "site-assets/star.png", "image/png"),
+            new StaticAsset("images/favicon.png", "site-assets/favicon.png", "image/png"));
+
     private final SiteRendererService renderer;
-    private final SiteConfigService siteConfigService;
-    private final WebcomicSeriesRepository seriesRepository;
-    private final WebcomicIssueRepository issueRepository;
-    private final WebcomicPageRepository pageRepository;
-    private final PortfolioItemRepository portfolioRepository;
-    private final PortfolioSetRepository portfolioSetRepository;
-
-    public SiteGeneratorService(
-            SiteRendererService renderer,
-            SiteConfigService siteConfigService,
-            WebcomicSeriesRepository seriesRepository,
-            WebcomicIssueRepository issueRepository,
-            WebcomicPageRepository pageRepository,
-            PortfolioItemRepository portfolioRepository,
-            PortfolioSetRepository portfolioSetRepository) {
+    private final PublishSnapshotLoader snapshotLoader;
+    private final ContentStore contentStore;
+    private final CompressedArtifactCache artifactCache;
+    private final PublishProperties properties;
+
+    private volatile GeneratedSite lastBuild;
+
+    public SiteGeneratorService(SiteRendererService renderer,
+                                PublishSnapshotLoader snapshotLoader,
+                                ContentStore contentStore,
+                                CompressedArtifactCache artifactCache,
+                                PublishProperties properties) {
         this.renderer = renderer;
-        this.siteConfigService = siteConfigService;
-        this.seriesRepository = seriesRepository;
-        this.issueRepository = issueRepository;
-        this.pageRepository = pageRepository;
-        this.portfolioRepository = portfolioRepository;
-        this.portfolioSetRepository = portfolioSetRepository;
+        this.snapshotLoader = snapshotLoader;
+        this.contentStore = contentStore;
+        this.artifactCache = artifactCache;
+        this.properties = properties;
     }
 
     /**
      * Generates the full static site and returns the result without uploading.
+     * <p>
+     * The whole data snapshot is loaded up front; afterwards rendering never touches the
+     * persistence context, which lets pages be rendered concurrently on virtual threads
+     * (bounded by {@code tauphat.publish.render.parallelism}). Results are assembled in a
+     * fixed order, so the output is identical to a sequential build.
+     * <p>
+     * When incremental rendering is enabled, every page and the stylesheet are fingerprinted
+     * from the content, config fields and template versions they are rendered from. Files
+     * whose fingerprint matches the previous build are carried over without re-rendering.
      */
     public GeneratedSite generate() {
+        return generate(PublishProgressListener.NONE);
+    }
+
+    /**
+     * Generates the site as {@link #generate()} does, reporting the query, render and
+     * compress stages (and per-page render progress) to the given listener.
+     */
+    public GeneratedSite generate(PublishProgressListener listener) {
         log.info("Starting static site generation...");
-        var site = new GeneratedSite();
-        var config = siteConfigService.getConfig();
-        var activeSeries = seriesRepository.findByActiveTrueOrderBySortOrderAsc();
-        var portfolioItems = portfolioRepository.findAllByOrderBySortOrderAsc();
-        var portfolioSets = portfolioSetRepository.findAllByOrderBySortOrderAsc();
+        var previous = properties.render().incremental() ? lastBuild : null;
+        var templates = renderer.templateVersions();
+
+        // ── Load the data snapshot ──
+        listener.stageStarted(PublishStage.QUERY);
+        var snapshot = snapshotLoader.load();
+        var config = snapshot.config();
+        var year = snapshot.copyrightYear();
+        var activeSeries = snapshot.activeSeries();
+        var portfolioItems = snapshot.portfolioItems();
+        var standaloneItems = snapshot.standaloneItems();
+        var portfolioSets = snapshot.sets().stream().map(PublishSnapshot.SetSnapshot::set).toList();
+
+        var latestSeries = snapshot.latestSeries();
+        var latestIssue = latestSeries != null ? latestSeries.issues().getFirst().issue() : null;
+        var latestIssueSeries = latestSeries != null ? latestSeries.series() : null;
+
+        var issueCountsBySeries = new LinkedHashMap<Long, Integer>();
+        snapshot.series().forEach(s -> issueCountsBySeries.put(s.series().getId(), s.issues().size()));
+        var itemCountsBySet = new LinkedHashMap<Long, Integer>();
+        snapshot.sets().forEach(s -> itemCountsBySet.put(s.set().getId(), s.items().size()));
+
+        // Layout fragments shared by every page, rendered once for the whole build
+        var layout = renderer.renderLayout(config, year);
+
+        // ── Plan every rendered file ──
+        var tasks = new ArrayList<RenderTask>();
 
         // CSS
-        site.addCss("css/style.css", renderer.renderStyleCss(config));
-
-        // JS assets
-        site.addJs("js/comic-reader.js", loadStaticAsset("site-assets/comic-reader.js"));
-        site.addJs("js/portfolio-lightbox.js", loadStaticAsset("site-assets/portfolio-lightbox.js"));
-        site.addJs("js/stars.js", loadStaticAsset("site-assets/stars.js"));
-        site.addJs("js/set-viewer.js", loadStaticAsset("site-assets/set-viewer.js"));
-        site.addJs("js/about-carousel.js", loadStaticAsset("site-assets/about-carousel.js"));
-        site.addJs("js/commissions-form.js", loadStaticAsset("site-assets/commissions-form.js"));
-        site.addJs("js/portfolio-filter.js", loadStaticAsset("site-assets/portfolio-filter.js"));
-
-        // Image assets
-        site.addBinary("images/star.png", loadStaticBinaryAsset("site-assets/star.png"), "image/png");
-        site.addBinary("images/favicon.png", loadStaticBinaryAsset("site-assets/favicon.png"), "image/png");
-
-        // Home page — resolve latest issue for the first active series
-        var latestIssue = activeSeries.isEmpty() ? null
-                : issueRepository.findFirstBySeries_IdAndPublishedTrueOrderByIssueNumberDesc(
-                        activeSeries.getFirst().getId()).orElse(null);
-        var latestIssueSeries = latestIssue != null ? activeSeries.getFirst() : null;
-        site.addHtml("index.html",
-                renderer.renderHome(config, activeSeries, portfolioItems, latestIssue, latestIssueSeries));
+        var cssFingerprint = Fingerprint.of(templates.get("style"))
+                .add(config.getPrimaryColor())
+                .add(config.getSecondaryColor())
+                .add(config.getAccentColor())
+                .add(config.getHeadingFont())
+                .add(config.getBodyFont())
+                .add(config.getCustomFonts())
+                .add(config.getSiteTaglines());
+        tasks.add(new RenderTask("css/style.css", cssFingerprint.value(),
+                out -> renderer.renderStyleCss(out, config), GeneratedSite.CSS));
+
+        // Home page — latest issue for the first active series
+        var homeFingerprint = Fingerprint.of(templates.get("home"))
+                .layout(config, year)
+                .add(config.getSiteTaglines())
+                .issue(latestIssue)
+                .series(latestIssueSeries);
+        activeSeries.forEach(homeFingerprint::series);
+        portfolioItems.stream().limit(8).forEach(homeFingerprint::item);
+        tasks.add(html("index.html", homeFingerprint,
+                out -> renderer.renderHome(out, layout, activeSeries, portfolioItems, latestIssue, latestIssueSeries)));
 
         // Comics series list (with issue counts)
-        var issueCountsBySeries = new LinkedHashMap<Long, Integer>();
+        var seriesListFingerprint = Fingerprint.of(templates.get("series-list")).layout(config, year);
         for (var series : activeSeries) {
-            var publishedIssues = issueRepository.findBySeries_IdAndPublishedTrueOrderByIssueNumberDesc(series.getId());
-            issueCountsBySeries.put(series.getId(), publishedIssues.size());
+            seriesListFingerprint.series(series).add(issueCountsBySeries.get(series.getId()));
         }
-        site.addHtml("comics/index.html", renderer.renderSeriesList(config, activeSeries, issueCountsBySeries));
+        tasks.add(html("comics/index.html", seriesListFingerprint,
+                out -> renderer.renderSeriesList(out, layout, activeSeries, issueCountsBySeries)));
 
         // Each series detail + issue readers
-        for (var series : activeSeries) {
-            var publishedIssues = issueRepository.findBySeries_IdAndPublishedTrueOrderByIssueNumberDesc(series.getId());
-            site.addHtml("comics/" + series.getSlug() + "/index.html",
-                    renderer.renderSeriesDetail(config, series, publishedIssues));
-
-            for (var issue : publishedIssues) {
-                var pages = pageRepository.findByIssue_IdOrderByPageNumberAsc(issue.getId());
-                site.addHtml("comics/" + series.getSlug() + "/" + issue.getIssueNumber() + "/index.html",
-                        renderer.renderIssueReader(config, series, issue, pages, publishedIssues));
+        for (var seriesSnapshot : snapshot.series()) {
+            var series = seriesSnapshot.series();
+            var publishedIssues = seriesSnapshot.publishedIssues();
+            var detailFingerprint = Fingerprint.of(templates.get("series-detail")).layout(config, year).series(series);
+            publishedIssues.forEach(detailFingerprint::issue);
+            tasks.add(html("comics/" + series.getSlug() + "/index.html", detailFingerprint,
+                    out -> renderer.renderSeriesDetail(out, layout, series, publishedIssues)));
+
+            for (var issue : seriesSnapshot.issues()) {
+                var readerFingerprint = Fingerprint.of(templates.get("issue-reader"))
+                        .layout(config, year)
+                        .series(series)
+                        .issue(issue.issue())
+                        .pages(issue.pages())
+                        .issue(issue.previous())
+                        .issue(issue.next());
+                tasks.add(html("comics/" + series.getSlug() + "/" + issue.issue().getIssueNumber() + "/index.html",
+                        readerFingerprint,
+                        out -> renderer.renderIssueReader(out, layout, series, issue.issue(), issue.pages(),
+                                issue.previous(), issue.next())));
             }
         }
 
         // Portfolio page
-        var standaloneItems = portfolioItems.stream().filter(i -> i.getSetId() == null).toList();
-        site.addHtml("portfolio/index.html", renderer.renderPortfolio(config, standaloneItems, portfolioSets));
+        var portfolioFingerprint = Fingerprint.of(templates.get("portfolio")).layout(config, year);
+        standaloneItems.forEach(portfolioFingerprint::item);
+        for (var set : portfolioSets) {
+            portfolioFingerprint.set(set).add(itemCountsBySet.get(set.getId()));
+        }
+        tasks.add(html("portfolio/index.html", portfolioFingerprint,
+                out -> renderer.renderPortfolio(out, layout, standaloneItems, portfolioSets, itemCountsBySet)));
 
         // Portfolio set viewer pages
-        for (var set : portfolioSets) {
-            var setItems = portfolioRepository.findBySetIdOrderBySetSortOrderAsc(set.getId());
-            site.addHtml("portfolio/sets/" + set.getId() + "/index.html",
-                    renderer.renderPortfolioSet(config, set, setItems));
+        for (var setSnapshot : snapshot.sets()) {
+            var set = setSnapshot.set();
+            var setFingerprint = Fingerprint.of(templates.get("portfolio-set")).layout(config, year).set(set);
+            setSnapshot.items().forEach(setFingerprint::item);
+            tasks.add(html("portfolio/sets/" + set.getId() + "/index.html", setFingerprint,
+                    out -> renderer.renderPortfolioSet(out, layout, set, setSnapshot.items())));
         }
 
         // Commissions & About
-        site.addHtml("commissions/index.html", renderer.renderCommissions(config));
-        site.addHtml("about/index.html", renderer.renderAbout(config));
+        tasks.add(html("commissions/index.html",
+                Fingerprint.of(templates.get("commissions")).layout(config, year)
+                        .add(config.getCommissionsEmail())
+                        .add(config.getCommissionsNote()),
+                out -> renderer.renderCommissions(out, layout)));
+        tasks.add(html("about/index.html",
+                Fingerprint.of(templates.get("about")).layout(config, year)
+                        .add(config.getSocialLinks()),
+                out -> renderer.renderAbout(out, layout)));
+
+        // ── Render ──
+        listener.stageStarted(PublishStage.RENDER);
+        var stale = tasks.stream()
+                .filter(task -> previous == null || previous.reusableEntry(task.path(), task.fingerprint()) == null)
+                .toList();
+        var rendered = renderAll(stale, listener);
+
+        // ── Compress static assets and assemble ──
+        listener.stageStarted(PublishStage.COMPRESS);
+        var site = new GeneratedSite(contentStore);
+
+        for (var asset : STATIC_ASSETS) {
+            addStaticAsset(site, asset);
+        }
 
-        log.info("Static site generation complete: {} files", site.fileCount());
+        for (var task : tasks) {
+            var content = rendered.get(task);
+            if (content != null) {
+                site.add(task.path(), content, task.contentType());
+                site.fingerprint(task.path(), task.fingerprint());
+            } else {
+                site.addReused(task.path(), previous.reusableEntry(task.path(), task.fingerprint()), task.fingerprint());
+            }
+        }
+
+        lastBuild = site;
+        log.info("Static site generation complete: {} files ({} reused from previous build)",
+                site.fileCount(), site.reusedCount());
+        log.debug("Generated content storage: {} bytes on heap, {} bytes spilled to disk",
+                contentStore.heapBytes(), contentStore.spilledBytes());
         return site;
     }
 
+    // ── Rendering ───────────────────────────────────────────────────────────
+
+    /**
+     * A file to render: its output path, input fingerprint, the render call writing the
+     * file's text and its content type.
+     */
+    private record RenderTask(String path, String fingerprint, Consumer<Writer> render, String contentType) {}
+
+    private static RenderTask html(String path, Fingerprint fingerprint, Consumer<Writer> render) {
+        return new RenderTask(path, fingerprint.value(), render, GeneratedSite.HTML);
+    }
+
+    /**
+     * Renders a task straight into a {@link GzipSink}, so the page is encoded, compressed
+     * and hashed in the same pass that produces it. The sink's deflater goes back to the pool
+     * even when the template throws.
+     */
+    private static GzipSink.Result render(RenderTask task) {
+        try (var sink = new GzipSink()) {
+            task.render().accept(sink.writer());
+            return sink.finish();
+        }
+    }
+
+    /**
+     * Renders the given tasks, concurrently on virtual threads when parallelism allows,
+     * and returns their compressed output keyed by task.
+     */
+    private Map<RenderTask, GzipSink.Result> renderAll(List<RenderTask> tasks, PublishProgressListener listener) {
+        var results = new IdentityHashMap<RenderTask, GzipSink.Result>();
+        var completed = new AtomicInteger();
+        int parallelism = properties.render().parallelism();
+        if (parallelism <= 1 || tasks.size() <= 1) {
+            for (var task : tasks) {
+                results.put(task, render(task));
+                listener.progress(PublishStage.RENDER, completed.incrementAndGet(), tasks.size());
+            }
+            return results;
+        }
+
+        var permits = new Semaphore(parallelism);
+        var executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            var futures = new ArrayList<Future<GzipSink.Result>>(tasks.size());
+            for (var task : tasks) {
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        var result = render(task);
+                        listener.progress(PublishStage.RENDER, completed.incrementAndGet(), tasks.size());
+                        return result;
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            for (int i = 0; i < tasks.size(); i++) {
+                results.put(tasks.get(i), futures.get(i).get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            executor.shutdownNow();
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Page rendering failed", e.getCause());
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while rendering pages", e);
+        } finally {
+            executor.close();
+        }
+    }
+
     // ── Static asset loading ────────────────────────────────────────────────
 
-    private String loadStaticAsset(String classpath) {
+    /**
+     * Adds a classpath asset, taking its gzipped form from the {@link CompressedArtifactCache}
+     * so unchanged assets are not re-compressed on every build.
+     */
+    private void addStaticAsset(GeneratedSite site, StaticAsset asset) {
+        var content = GeneratedSite.JS.equals(asset.contentType())
+                ? loadStaticAsset(asset.classpath())
+                : loadStaticBinaryAsset(asset.classpath());
+        site.add(asset.path(), artifactCache.compress(content), asset.contentType());
+    }
+
+    private byte[] loadStaticAsset(String classpath) {
         try {
-            return new ClassPathResource(classpath).getContentAsString(StandardCharsets.UTF_8);
+            return new ClassPathResource(classpath).getContentAsByteArray();
         } catch (IOException e) {
             log.error("Failed to load static asset: {}", classpath, e);
-            return "/* Failed to load " + classpath + " */";
+            return ("/* Failed to load " + classpath + " */").getBytes(StandardCharsets.UTF_8);
         }
     }
 
@@ -0,0 +1,70 @@
+package org.tanzu.thstudio.publish;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The files a build produces, planned without rendering them.
+ * <p>
+ * Each entry carries a stamp: a digest of the template version and the IDs and
+ * {@code updatedAt} times of the rows the file is rendered from. A file whose stamp
+ * differs from the one recorded at the last deploy (or that was not part of it) is stale.
+ * The path-to-stamp index is built once, so comparing two manifests is linear in their size.
+ * <p>
+ * The manifest's {@link #digest()} covers every path and stamp, so two plans with the same
+ * digest describe the same site, whichever instance or process changed the database.
+ */
+final class SiteManifest {
+
+    /**
+     * @param path        output path, e.g. {@code comics/my-series/index.html}
+     * @param owner       the entity the file is built for, e.g. {@code series:3}
+     * @param contentType the file's content type
+     * @param stamp       digest of the file's inputs
+     */
+    record Entry(String path, String owner, String contentType, String stamp) {}
+
+    private final List<Entry> entries;
+    private final Map<String, String> stamps;
+    private final String digest;
+
+    SiteManifest(List<Entry> entries) {
+        this.entries = List.copyOf(entries);
+        var stamps = new LinkedHashMap<String, String>();
+        var digest = Fingerprint.of(null);
+        this.entries.forEach(entry -> {
+            stamps.put(entry.path(), entry.stamp());
+            digest.add(entry.path()).add(entry.stamp());
+        });
+        this.stamps = Collections.unmodifiableMap(stamps);
+        this.digest = digest.value();
+    }
+
+    List<Entry> entries() {
+        return entries;
+    }
+
+    /**
+     * Digest of every path and stamp in plan order.
+     */
+    String digest() {
+        return digest;
+    }
+
+    /**
+     * Each file's stamp by path, in plan order.
+     */
+    Map<String, String> stamps() {
+        return stamps;
+    }
+
+    /**
+     * Returns whether the entry differs from, or is missing in, the stamps of an earlier
+     * manifest. Everything is stale when there are no earlier stamps.
+     */
+    boolean isStale(Entry entry, Map<String, String> previous) {
+        return previous == null || !entry.stamp().equals(previous.get(entry.path()));
+    }
+}
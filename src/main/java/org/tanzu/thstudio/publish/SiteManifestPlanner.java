@@ -0,0 +1,180 @@
+package org.tanzu.thstudio.publish;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.tanzu.thstudio.portfolio.PortfolioItemRepository;
+import org.tanzu.thstudio.portfolio.PortfolioSetRepository;
+import org.tanzu.thstudio.site.SiteConfigRepository;
+import org.tanzu.thstudio.webcomic.WebcomicIssueRepository;
+import org.tanzu.thstudio.webcomic.WebcomicPageRepository;
+import org.tanzu.thstudio.webcomic.WebcomicSeriesRepository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Plans the {@link SiteManifest} of the next build without rendering anything.
+ * <p>
+ * Only IDs, slugs, issue numbers and {@code updatedAt} times are read, through projection
+ * queries (one per table), so planning is cheap enough to back a dashboard summary. The
+ * paths mirror those produced by {@link SiteGeneratorService#generate()}.
+ */
+@Component
+class SiteManifestPlanner {
+
+    private final SiteRendererService renderer;
+    private final SiteConfigRepository configRepository;
+    private final WebcomicSeriesRepository seriesRepository;
+    private final WebcomicIssueRepository issueRepository;
+    private final WebcomicPageRepository pageRepository;
+    private final PortfolioItemRepository portfolioRepository;
+    private final PortfolioSetRepository portfolioSetRepository;
+
+    SiteManifestPlanner(SiteRendererService renderer,
+                        SiteConfigRepository configRepository,
+                        WebcomicSeriesRepository seriesRepository,
+                        WebcomicIssueRepository issueRepository,
+                        WebcomicPageRepository pageRepository,
+                        PortfolioItemRepository portfolioRepository,
+                        PortfolioSetRepository portfolioSetRepository) {
+        this.renderer = renderer;
+        this.configRepository = configRepository;
+        this.seriesRepository = seriesRepository;
+        this.issueRepository = issueRepository;
+        this.pageRepository = pageRepository;
+        this.portfolioRepository = portfolioRepository;
+        this.portfolioSetRepository = portfolioSetRepository;
+    }
+
+    @Transactional(readOnly = true)
+    SiteManifest plan() {
+        var templates = renderer.templateVersions();
+        Instant configUpdatedAt = configRepository.findLatestUpdatedAt();
+        var series = seriesRepository.findActiveStamps();
+        Map<Long, List<WebcomicIssueRepository.Stamp>> issuesBySeries = issueRepository.findPublishedStamps().stream()
+                .collect(Collectors.groupingBy(WebcomicIssueRepository.Stamp::getSeriesId,
+                        LinkedHashMap::new, Collectors.toList()));
+        Map<Long, WebcomicPageRepository.IssueStamp> pagesByIssue = pageRepository.findPublishedIssueStamps().stream()
+                .collect(Collectors.toMap(WebcomicPageRepository.IssueStamp::getIssueId, Function.identity()));
+        var items = portfolioRepository.findAllStamps();
+        var sets = portfolioSetRepository.findAllStamps();
+        Map<Long, List<PortfolioItemRepository.Stamp>> itemsBySet = items.stream()
+                .filter(item -> item.getSetId() != null)
+                .collect(Collectors.groupingBy(PortfolioItemRepository.Stamp::getSetId));
+
+        // The footer year follows the latest change, so it is part of every page's stamp
+        var lastModified = Stream.of(Stream.of(configUpdatedAt),
+                        series.stream().map(WebcomicSeriesRepository.Stamp::getUpdatedAt),
+                        issuesBySeries.values().stream().flatMap(List::stream)
+                                .map(WebcomicIssueRepository.Stamp::getUpdatedAt),
+                        pagesByIssue.values().stream().map(WebcomicPageRepository.IssueStamp::getUpdatedAt),
+                        items.stream().map(PortfolioItemRepository.Stamp::getUpdatedAt),
+                        sets.stream().map(PortfolioSetRepository.Stamp::getUpdatedAt))
+                .flatMap(Function.identity())
+                .filter(Objects::nonNull)
+                .max(Instant::compareTo)
+                .orElse(null);
+        int year = PublishSnapshot.copyrightYear(lastModified);
+
+        var entries = new ArrayList<SiteManifest.Entry>();
+
+        // CSS and config-only pages
+        entries.add(new SiteManifest.Entry("css/style.css", "site-config", GeneratedSite.CSS,
+                Fingerprint.of(templates.get("style")).add(configUpdatedAt).value()));
+
+        // Home page — active series, the latest issue and the first portfolio items
+        var home = Fingerprint.of(templates.get("home")).add(configUpdatedAt).add(year);
+        series.forEach(s -> home.add(s.getId()).add(s.getUpdatedAt()));
+        if (!series.isEmpty()) {
+            var latest = issuesBySeries.getOrDefault(series.getFirst().getId(), List.of());
+            if (!latest.isEmpty()) {
+                home.add(latest.getFirst().getId()).add(latest.getFirst().getUpdatedAt());
+            }
+        }
+        items.stream().limit(8).forEach(item -> home.add(item.getId()).add(item.getUpdatedAt()));
+        entries.add(html("index.html", "site", home));
+
+        // Comics series list
+        var seriesList = Fingerprint.of(templates.get("series-list")).add(configUpdatedAt).add(year);
+        for (var s : series) {
+            seriesList.add(s.getId()).add(s.getUpdatedAt())
+                    .add(issuesBySeries.getOrDefault(s.getId(), List.of()).size());
+        }
+        entries.add(html("comics/index.html", "series", seriesList));
+
+        // Series detail and issue readers
+        for (var s : series) {
+            var issues = issuesBySeries.getOrDefault(s.getId(), List.of());
+            var detail = Fingerprint.of(templates.get("series-detail")).add(configUpdatedAt).add(year)
+                    .add(s.getId()).add(s.getUpdatedAt());
+            issues.forEach(issue -> detail.add(issue.getId()).add(issue.getUpdatedAt()));
+            entries.add(html("comics/" + s.getSlug() + "/index.html", "series:" + s.getId(), detail));
+
+            for (int i = 0; i < issues.size(); i++) {
+                var issue = issues.get(i);
+                var pages = pagesByIssue.get(issue.getId());
+                var reader = Fingerprint.of(templates.get("issue-reader")).add(configUpdatedAt).add(year)
+                        .add(s.getId()).add(s.getUpdatedAt())
+                        .add(issue.getId()).add(issue.getUpdatedAt())
+                        .add(pages != null ? pages.getPageCount() : 0)
+                        .add(pages != null ? pages.getUpdatedAt() : null);
+                // Neighbouring issues are linked from the reader
+                addIssue(reader, i + 1 < issues.size() ? issues.get(i + 1) : null);
+                addIssue(reader, i > 0 ? issues.get(i - 1) : null);
+                entries.add(html("comics/" + s.getSlug() + "/" + issue.getIssueNumber() + "/index.html",
+                        "issue:" + issue.getId(), reader));
+            }
+        }
+
+        // Portfolio page — standalone items and sets with item counts
+        var portfolio = Fingerprint.of(templates.get("portfolio")).add(configUpdatedAt).add(year);
+        items.stream().filter(item -> item.getSetId() == null)
+                .forEach(item -> portfolio.add(item.getId()).add(item.getUpdatedAt()));
+        for (var set : sets) {
+            portfolio.add(set.getId()).add(set.getUpdatedAt())
+                    .add(itemsBySet.getOrDefault(set.getId(), List.of()).size());
+        }
+        entries.add(html("portfolio/index.html", "portfolio", portfolio));
+
+        // Portfolio set viewer pages
+        for (var set : sets) {
+            var viewer = Fingerprint.of(templates.get("portfolio-set")).add(configUpdatedAt).add(year)
+                    .add(set.getId()).add(set.getUpdatedAt());
+            itemsBySet.getOrDefault(set.getId(), List.of())
+                    .forEach(item -> viewer.add(item.getId()).add(item.getUpdatedAt()));
+            entries.add(html("portfolio/sets/" + set.getId() + "/index.html", "set:" + set.getId(), viewer));
+        }
+
+        // Commissions & About
+        entries.add(html("commissions/index.html", "site-config",
+                Fingerprint.of(templates.get("commissions")).add(configUpdatedAt).add(year)));
+        entries.add(html("about/index.html", "site-config",
+                Fingerprint.of(templates.get("about")).add(configUpdatedAt).add(year)));
+
+        // Static assets only change with the application; they are stamped by content
+        for (var asset : SiteGeneratorService.STATIC_ASSETS) {
+            entries.add(new SiteManifest.Entry(asset.path(), "asset", asset.contentType(), asset.version()));
+        }
+
+        return new SiteManifest(entries);
+    }
+
+    private static SiteManifest.Entry html(String path, String owner, Fingerprint fingerprint) {
+        return new SiteManifest.Entry(path, owner, GeneratedSite.HTML, fingerprint.value());
+    }
+
+    private static void addIssue(Fingerprint fingerprint, WebcomicIssueRepository.Stamp issue) {
+        if (issue == null) {
+            fingerprint.add(null);
+        } else {
+            fingerprint.add(issue.getId()).add(issue.getUpdatedAt());
+        }
+    }
+}
@@ -5,53 +5,66 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 import org.tanzu.thstudio.config.TaupHatProperties;
 import org.tanzu.thstudio.portfolio.PortfolioItem;
-import org.tanzu.thstudio.portfolio.PortfolioItemRepository;
 import org.tanzu.thstudio.portfolio.PortfolioSet;
 import org.tanzu.thstudio.site.SiteConfig;
 import org.tanzu.thstudio.webcomic.WebcomicIssue;
 import org.tanzu.thstudio.webcomic.WebcomicPage;
 import org.tanzu.thstudio.webcomic.WebcomicSeries;
 import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.TemplateSpec;
 import org.thymeleaf.context.Context;
+import org.thymeleaf.templatemode.TemplateMode;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.io.IOException;
+import java.io.Writer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HexFormat;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Handles all Thymeleaf template rendering for the static site,
  * including HTML pages and the theme-driven CSS stylesheet.
+ * <p>
+ * Pages are written straight to the given {@link Writer} (typically a {@link GzipSink})
+ * rather than being buffered into a {@code String} first.
  */
 @Service
 class SiteRendererService {
 
     private static final Logger log = LoggerFactory.getLogger(SiteRendererService.class);
 
+    private static final String TEMPLATE_ROOT = "site-templates/";
+    private static final String LAYOUT_TEMPLATE = "fragments/layout.html";
+    private static final String LAYOUT_FRAGMENTS = "fragments/layout";
+    private static final List<String> TEMPLATES = List.of(
+            "style.css", "home", "series-list", "series-detail", "issue-reader",
+            "portfolio", "portfolio-set", "about", "commissions");
+
     private final TemplateEngine templateEngine;
-    private final PortfolioItemRepository portfolioRepository;
     private final TaupHatProperties properties;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     SiteRendererService(
             @Qualifier("siteTemplateEngine") TemplateEngine templateEngine,
-            PortfolioItemRepository portfolioRepository,
             TaupHatProperties properties) {
         this.templateEngine = templateEngine;
-        this.portfolioRepository = portfolioRepository;
         this.properties = properties;
     }
 
     // ── CSS ──────────────────────────────────────────────────────────────────
 
-    String renderStyleCss(SiteConfig config) {
+    void renderStyleCss(Writer out, SiteConfig config) {
         var customFontNames = parseCustomFonts(config.getCustomFonts());
         var googleFontsImport = buildGoogleFontsImport(config.getHeadingFont(), config.getBodyFont(), customFontNames);
 
@@ -71,40 +84,72 @@ class SiteRendererService {
         ctx.setVariable("taglineHoldPct", String.format("%.0f", (1.0 / taglineCount) * 70));
         ctx.setVariable("taglineFadePct", String.format("%.0f", (1.0 / taglineCount) * 90));
 
-        return templateEngine.process("style", ctx);
+        templateEngine.process("style", ctx, out);
+    }
+
+    // ── Layout ──────────────────────────────────────────────────────────────
+
+    /**
+     * Renders the config-dependent layout fragments once, so that every page of a build
+     * inserts the same pre-rendered head assets, header, footer and scripts.
+     *
+     * @param copyrightYear the footer year, taken from the content rather than the clock
+     *                      (see {@link PublishSnapshot#copyrightYear()}) so that rebuilding
+     *                      unchanged content produces identical bytes
+     */
+    LayoutFragments renderLayout(SiteConfig config, int copyrightYear) {
+        var ctx = configContext(config);
+        ctx.setVariable("year", copyrightYear);
+        var headers = new LinkedHashMap<String, String>();
+        for (var section : LayoutFragments.NAV_SECTIONS) {
+            ctx.setVariable("active", section);
+            headers.put(section, renderFragment("header", ctx));
+        }
+        ctx.removeVariable("active");
+        return new LayoutFragments(config,
+                renderFragment("analytics", ctx),
+                renderFragment("headAssets", ctx),
+                headers,
+                renderFragment("footer", ctx),
+                renderFragment("scripts", ctx));
+    }
+
+    private String renderFragment(String fragment, Context ctx) {
+        return templateEngine.process(
+                new TemplateSpec(LAYOUT_FRAGMENTS, Set.of(fragment), TemplateMode.HTML, null), ctx);
     }
 
     // ── Page rendering ──────────────────────────────────────────────────────
 
-    String renderHome(SiteConfig config, List<WebcomicSeries> activeSeries,
-                      List<PortfolioItem> portfolioItems, WebcomicIssue latestIssue,
-                      WebcomicSeries latestIssueSeries) {
-        var ctx = baseContext(config);
+    void renderHome(Writer out, LayoutFragments layout, List<WebcomicSeries> activeSeries,
+                    List<PortfolioItem> portfolioItems, WebcomicIssue latestIssue,
+                    WebcomicSeries latestIssueSeries) {
+        var ctx = baseContext(layout);
         ctx.setVariable("activeSeries", activeSeries);
         ctx.setVariable("portfolioItems", portfolioItems.stream().limit(8).toList());
-        ctx.setVariable("taglines", parseTaglines(config.getSiteTaglines()));
+        ctx.setVariable("taglines", parseTaglines(layout.config().getSiteTaglines()));
 
         if (latestIssue != null) {
             ctx.setVariable("latestIssue", latestIssue);
             ctx.setVariable("latestIssueSeries", latestIssueSeries);
         }
 
-        return templateEngine.process("home", ctx);
+        templateEngine.process("home", ctx, out);
     }
 
-    String renderSeriesList(SiteConfig config, List<WebcomicSeries> activeSeries,
-                            Map<Long, Integer> issueCountsBySeries) {
-        var ctx = baseContext(config);
+    void renderSeriesList(Writer out, LayoutFragments layout, List<WebcomicSeries> activeSeries,
+                          Map<Long, Integer> issueCountsBySeries) {
+        var ctx = baseContext(layout);
         ctx.setVariable("activeSeries", activeSeries);
         for (var series : activeSeries) {
             ctx.setVariable("issueCount_" + series.getId(), issueCountsBySeries.getOrDefault(series.getId(), 0));
         }
-        return templateEngine.process("series-list", ctx);
+        templateEngine.process("series-list", ctx, out);
     }
 
-    String renderSeriesDetail(SiteConfig config, WebcomicSeries series,
-                              List<WebcomicIssue> publishedIssues) {
-        var ctx = baseContext(config);
+    void renderSeriesDetail(Writer out, LayoutFragments layout, WebcomicSeries series,
+                            List<WebcomicIssue> publishedIssues) {
+        var ctx = baseContext(layout);
         ctx.setVariable("series", series);
         ctx.setVariable("issues", publishedIssues);
         if (series.getDescription() != null && !series.getDescription().isEmpty()) {
@@ -113,13 +158,13 @@ class SiteRendererService {
         if (series.getCoverImageUrl() != null && !series.getCoverImageUrl().isEmpty()) {
             ctx.setVariable("ogImageUrl", series.getCoverImageUrl());
         }
-        return templateEngine.process("series-detail", ctx);
+        templateEngine.process("series-detail", ctx, out);
     }
 
-    String renderIssueReader(SiteConfig config, WebcomicSeries series,
-                             WebcomicIssue issue, List<WebcomicPage> pages,
-                             List<WebcomicIssue> allIssues) {
-        var ctx = baseContext(config);
+    void renderIssueReader(Writer out, LayoutFragments layout, WebcomicSeries series,
+                           WebcomicIssue issue, List<WebcomicPage> pages,
+                           WebcomicIssue prevIssue, WebcomicIssue nextIssue) {
+        var ctx = baseContext(layout);
         ctx.setVariable("series", series);
         ctx.setVariable("issue", issue);
         ctx.setVariable("pages", pages);
@@ -137,27 +182,19 @@ class SiteRendererService {
         }).toList();
         ctx.setVariable("pagesJson", pagesJson);
 
-        int currentIdx = -1;
-        for (int i = 0; i < allIssues.size(); i++) {
-            if (allIssues.get(i).getId().equals(issue.getId())) {
-                currentIdx = i;
-                break;
-            }
-        }
-        // allIssues is ordered newest first (DESC), so "previous" is at higher index
-        if (currentIdx >= 0 && currentIdx < allIssues.size() - 1) {
-            ctx.setVariable("prevIssue", allIssues.get(currentIdx + 1));
+        if (prevIssue != null) {
+            ctx.setVariable("prevIssue", prevIssue);
         }
-        if (currentIdx > 0) {
-            ctx.setVariable("nextIssue", allIssues.get(currentIdx - 1));
+        if (nextIssue != null) {
+            ctx.setVariable("nextIssue", nextIssue);
         }
 
-        return templateEngine.process("issue-reader", ctx);
+        templateEngine.process("issue-reader", ctx, out);
     }
 
-    String renderPortfolio(SiteConfig config, List<PortfolioItem> standaloneItems,
-                           List<PortfolioSet> sets) {
-        var ctx = baseContext(config);
+    void renderPortfolio(Writer out, LayoutFragments layout, List<PortfolioItem> standaloneItems,
+                         List<PortfolioSet> sets, Map<Long, Integer> itemCountsBySet) {
+        var ctx = baseContext(layout);
 
         record PortfolioEntry(String type, int sortOrder, PortfolioItem item, PortfolioSet set, int itemCount) {}
 
@@ -166,17 +203,17 @@ class SiteRendererService {
             entries.add(new PortfolioEntry("item", item.getSortOrder(), item, null, 0));
         }
         for (var set : sets) {
-            int count = portfolioRepository.findBySetIdOrderBySetSortOrderAsc(set.getId()).size();
-            entries.add(new PortfolioEntry("set", set.getSortOrder(), null, set, count));
+            entries.add(new PortfolioEntry("set", set.getSortOrder(), null, set,
+                    itemCountsBySet.getOrDefault(set.getId(), 0)));
         }
         entries.sort(Comparator.comparingInt(PortfolioEntry::sortOrder));
 
         ctx.setVariable("entries", entries);
-        return templateEngine.process("portfolio", ctx);
+        templateEngine.process("portfolio", ctx, out);
     }
 
-    String renderPortfolioSet(SiteConfig config, PortfolioSet set, List<PortfolioItem> items) {
-        var ctx = baseContext(config);
+    void renderPortfolioSet(Writer out, LayoutFragments layout, PortfolioSet set, List<PortfolioItem> items) {
+        var ctx = baseContext(layout);
         ctx.setVariable("set", set);
         ctx.setVariable("items", items);
 
@@ -203,41 +240,77 @@ class SiteRendererService {
         }).toList();
         ctx.setVariable("itemsJson", itemsJson);
 
-        return templateEngine.process("portfolio-set", ctx);
+        templateEngine.process("portfolio-set", ctx, out);
     }
 
-    String renderAbout(SiteConfig config) {
-        var ctx = baseContext(config);
-        ctx.setVariable("socialLinks", parseSocialLinks(config.getSocialLinks()));
-        return templateEngine.process("about", ctx);
+    void renderAbout(Writer out, LayoutFragments layout) {
+        var ctx = baseContext(layout);
+        ctx.setVariable("socialLinks", parseSocialLinks(layout.config().getSocialLinks()));
+        templateEngine.process("about", ctx, out);
     }
 
-    String renderCommissions(SiteConfig config) {
-        var ctx = baseContext(config);
-        ctx.setVariable("commissionsEmail", config.getCommissionsEmail());
-        return templateEngine.process("commissions", ctx);
+    void renderCommissions(Writer out, LayoutFragments layout) {
+        var ctx = baseContext(layout);
+        ctx.setVariable("commissionsEmail", layout.config().getCommissionsEmail());
+        templateEngine.process("commissions", ctx, out);
+    }
+
+    // ── Template versions ───────────────────────────────────────────────────
+
+    /**
+     * Returns a content hash for each template (keyed by template name, e.g. "home"),
+     * covering the template itself and the shared layout fragments, so that editing a
+     * template invalidates every file rendered from it.
+     */
+    Map<String, String> templateVersions() {
+        byte[] layout = readTemplate(LAYOUT_TEMPLATE);
+        var versions = new LinkedHashMap<String, String>();
+        for (var template : TEMPLATES) {
+            try {
+                var digest = MessageDigest.getInstance("SHA-256");
+                digest.update(readTemplate(template + ".html"));
+                digest.update(layout);
+                versions.put(template.replace(".css", ""), HexFormat.of().formatHex(digest.digest()));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+        return versions;
+    }
+
+    private static byte[] readTemplate(String name) {
+        try {
+            return new ClassPathResource(TEMPLATE_ROOT + name).getContentAsByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read site template " + name, e);
+        }
     }
 
     // ── Helpers ─────────────────────────────────────────────────────────────
 
-    private Context baseContext(SiteConfig config) {
+    private Context baseContext(LayoutFragments layout) {
+        var ctx = configContext(layout.config());
+        ctx.setVariable("layout", layout);
+        return ctx;
+    }
+
+    private Context configContext(SiteConfig config) {
         var ctx = new Context();
         ctx.setVariable("config", config);
         ctx.setVariable("siteName", config.getSiteName());
         ctx.setVariable("adobeFontsUrl", config.getAdobeFontsUrl());
         ctx.setVariable("googleAnalyticsId", config.getGoogleAnalyticsId());
-        ctx.setVariable("year", LocalDateTime.now().getYear());
-        ctx.setVariable("generatedAt", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
 
+        // Inlined as JSON, so keep a fixed key order (Map.of iteration order varies between JVM runs)
         var firebase = properties.firebase();
-        ctx.setVariable("firebaseConfig", Map.of(
-                "apiKey", firebase.apiKey(),
-                "authDomain", firebase.authDomain(),
-                "projectId", firebase.projectId(),
-                "storageBucket", firebase.storageBucket(),
-                "messagingSenderId", firebase.messagingSenderId(),
-                "appId", firebase.appId()
-        ));
+        var firebaseConfig = new LinkedHashMap<String, String>();
+        firebaseConfig.put("apiKey", firebase.apiKey());
+        firebaseConfig.put("authDomain", firebase.authDomain());
+        firebaseConfig.put("projectId", firebase.projectId());
+        firebaseConfig.put("storageBucket", firebase.storageBucket());
+        firebaseConfig.put("messagingSenderId", firebase.messagingSenderId());
+        firebaseConfig.put("appId", firebase.appId());
+        ctx.setVariable("firebaseConfig", firebaseConfig);
         ctx.setVariable("recaptchaSiteKey", firebase.recaptchaSiteKey());
 
         return ctx;
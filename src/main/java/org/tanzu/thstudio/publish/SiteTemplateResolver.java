@@ -0,0 +1,67 @@
+package org.tanzu.thstudio.publish;
+
+import org.springframework.util.ClassUtils;
+import org.thymeleaf.IEngineConfiguration;
+import org.thymeleaf.cache.ICacheEntryValidity;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Classpath template resolver for the static site templates.
+ * <p>
+ * In production the standard TTL-based validity applies. With modification checks
+ * enabled (development), parsed templates stay cached but each cache entry is
+ * invalidated as soon as the underlying template resource's modification time
+ * changes, so template edits are picked up without disabling caching altogether.
+ */
+class SiteTemplateResolver extends ClassLoaderTemplateResolver {
+
+    private final boolean checkModification;
+
+    SiteTemplateResolver(boolean checkModification) {
+        this.checkModification = checkModification;
+    }
+
+    @Override
+    protected ICacheEntryValidity computeValidity(IEngineConfiguration configuration, String ownerTemplate,
+                                                  String template, Map<String, Object> templateResolutionAttributes) {
+        if (!checkModification) {
+            return super.computeValidity(configuration, ownerTemplate, template, templateResolutionAttributes);
+        }
+        URL resource = ClassUtils.getDefaultClassLoader().getResource(getPrefix() + template + getSuffix());
+        return resource != null
+                ? new ModificationCheckValidity(resource, lastModified(resource))
+                : super.computeValidity(configuration, ownerTemplate, template, templateResolutionAttributes);
+    }
+
+    private static long lastModified(URL resource) {
+        try {
+            if ("file".equals(resource.getProtocol())) {
+                return Files.getLastModifiedTime(Path.of(resource.toURI())).toMillis();
+            }
+            return resource.openConnection().getLastModified();
+        } catch (IOException | URISyntaxException e) {
+            // Unreadable resources are treated as modified so they get resolved again
+            return -1;
+        }
+    }
+
+    private record ModificationCheckValidity(URL resource, long modifiedAt) implements ICacheEntryValidity {
+
+        @Override
+        public boolean isCacheable() {
+            return true;
+        }
+
+        @Override
+        public boolean isCacheStillValid() {
+            return modifiedAt != -1 && lastModified(resource) == modifiedAt;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.tanzu.thstudio.publish;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.tanzu.thstudio.image.ImageVariantsReadyEvent;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a warm staged build of the site after content edits.
+ * <p>
+ * Every {@link ContentChangedEvent}, and every {@link ImageVariantsReadyEvent} from a worker
+ * on this instance, restarts a quiet-period timer
+ * ({@code tauphat.publish.staging.debounce}); when it expires the site is rebuilt in the
+ * background via {@link PublishJobService#refreshStagedSite()}, or deployed to the preview
+ * channel when {@code tauphat.publish.staging.auto-preview} is set. A publish that follows
+ * then only has to upload and release the staged site.
+ */
+@Component
+public class StagedSiteBuilder {
+
+    private static final Logger log = LoggerFactory.getLogger(StagedSiteBuilder.class);
+
+    private final PublishJobService jobService;
+    private final PublishProperties.StagingProperties properties;
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("staged-site-builder").factory());
+
+    private ScheduledFuture<?> pending;
+
+    public StagedSiteBuilder(PublishJobService jobService, PublishProperties publishProperties) {
+        this.jobService = jobService;
+        this.properties = publishProperties.staging();
+    }
+
+    @EventListener
+    public void onContentChanged(ContentChangedEvent event) {
+        schedule(event.path());
+    }
+
+    @EventListener
+    public void onImageVariantsReady(ImageVariantsReadyEvent event) {
+        schedule(event.target() + " " + event.targetId() + " image variants");
+    }
+
+    private synchronized void schedule(String change) {
+        if (!properties.enabled()) {
+            return;
+        }
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        log.debug("Content changed ({}), staged build in {}", change, properties.debounce());
+        pending = scheduler.schedule(this::build, properties.debounce().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void build() {
+        try {
+            if (properties.autoPreview()) {
+                jobService.submit(PublishJob.Target.PREVIEW);
+            } else {
+                jobService.refreshStagedSite();
+            }
+        } catch (RuntimeException e) {
+            // The next publish builds from scratch instead
+            log.warn("Staged site build failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -5,8 +5,12 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 
+import java.time.Instant;
+
 @Entity
 @Table(name = "site_config")
 public class SiteConfig {
@@ -60,6 +64,15 @@ public class SiteConfig {
     @Column(length = 32)
     private String googleAnalyticsId;
 
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now();
+    }
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
@@ -110,4 +123,6 @@ public class SiteConfig {
 
     public String getGoogleAnalyticsId() { return googleAnalyticsId; }
     public void setGoogleAnalyticsId(String googleAnalyticsId) { this.googleAnalyticsId = googleAnalyticsId; }
+
+    public Instant getUpdatedAt() { return updatedAt; }
 }
@@ -1,6 +1,12 @@
 package org.tanzu.thstudio.site;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
 
 public interface SiteConfigRepository extends JpaRepository<SiteConfig, Long> {
+
+    @Query("select max(c.updatedAt) from SiteConfig c")
+    Instant findLatestUpdatedAt();
 }
@@ -12,8 +12,11 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OrderBy;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -49,6 +52,15 @@ public class WebcomicIssue {
     @JsonIgnore
     private List<WebcomicPage> pages = new ArrayList<>();
 
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now();
+    }
+
     // Transient field for JSON serialization
     public Long getSeriesId() {
         return series != null ? series.getId() : null;
@@ -77,4 +89,6 @@ public class WebcomicIssue {
 
     public List<WebcomicPage> getPages() { return pages; }
     public void setPages(List<WebcomicPage> pages) { this.pages = pages; }
+
+    public Instant getUpdatedAt() { return updatedAt; }
 }
@@ -1,7 +1,9 @@
 package org.tanzu.thstudio.webcomic;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,4 +16,21 @@ public interface WebcomicIssueRepository extends JpaRepository<WebcomicIssue, Lo
     Optional<WebcomicIssue> findBySeries_IdAndIssueNumber(Long seriesId, Integer issueNumber);
 
     Optional<WebcomicIssue> findFirstBySeries_IdAndPublishedTrueOrderByIssueNumberDesc(Long seriesId);
+
+    List<WebcomicIssue> findByPublishedTrueAndSeries_ActiveTrueOrderByIssueNumberDesc();
+
+    /**
+     * Identity and last change of an issue, without loading the entity.
+     */
+    interface Stamp {
+        Long getId();
+        Long getSeriesId();
+        Integer getIssueNumber();
+        Instant getUpdatedAt();
+    }
+
+    @Query("select i.id as id, i.series.id as seriesId, i.issueNumber as issueNumber, i.updatedAt as updatedAt "
+            + "from WebcomicIssue i where i.published = true and i.series.active = true "
+            + "order by i.issueNumber desc")
+    List<Stamp> findPublishedStamps();
 }
@@ -3,13 +3,20 @@ package org.tanzu.thstudio.webcomic;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import org.tanzu.thstudio.image.ImageStatus;
+
+import java.time.Instant;
 
 @Entity
 @Table(name = "webcomic_page")
@@ -34,6 +41,19 @@ public class WebcomicPage {
 
     private String optimizedUrl;
 
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ImageStatus imageStatus = ImageStatus.READY;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now();
+    }
+
     // Transient field for JSON serialization
     public Long getIssueId() {
         return issue != null ? issue.getId() : null;
@@ -56,4 +76,9 @@ public class WebcomicPage {
 
     public String getOptimizedUrl() { return optimizedUrl; }
     public void setOptimizedUrl(String optimizedUrl) { this.optimizedUrl = optimizedUrl; }
+
+    public ImageStatus getImageStatus() { return imageStatus; }
+    public void setImageStatus(ImageStatus imageStatus) { this.imageStatus = imageStatus; }
+
+    public Instant getUpdatedAt() { return updatedAt; }
 }
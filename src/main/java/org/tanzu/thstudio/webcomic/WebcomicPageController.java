@@ -2,6 +2,7 @@ package org.tanzu.thstudio.webcomic;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -13,12 +14,16 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 import org.tanzu.thstudio.image.ImageProcessingService;
+import org.tanzu.thstudio.image.ImageStatus;
+import org.tanzu.thstudio.image.ImageVariantJob;
+import org.tanzu.thstudio.image.ImageVariantWorker;
 import org.tanzu.thstudio.image.StorageService;
 
 import java.io.IOException;
 import java.net.URI;
 import java.util.Comparator;
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/webcomic/series/{seriesId}/issues/{issueId}/pages")
@@ -28,15 +33,21 @@ public class WebcomicPageController {
     private final WebcomicIssueRepository issueRepository;
     private final ImageProcessingService imageProcessingService;
     private final StorageService storageService;
+    private final ImageVariantWorker imageVariantWorker;
+    private final TransactionTemplate transactions;
 
     public WebcomicPageController(WebcomicPageRepository pageRepository,
                                   WebcomicIssueRepository issueRepository,
                                   ImageProcessingService imageProcessingService,
-                                  StorageService storageService) {
+                                  StorageService storageService,
+                                  ImageVariantWorker imageVariantWorker,
+                                  TransactionTemplate transactions) {
         this.pageRepository = pageRepository;
         this.issueRepository = issueRepository;
         this.imageProcessingService = imageProcessingService;
         this.storageService = storageService;
+        this.imageVariantWorker = imageVariantWorker;
+        this.transactions = transactions;
     }
 
     @GetMapping
@@ -48,6 +59,10 @@ public class WebcomicPageController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Stores the uploaded original and creates the page in the {@link ImageStatus#PROCESSING}
+     * state; the optimized and thumbnail variants are generated in the background.
+     */
     @PostMapping(consumes = "multipart/form-data")
     public ResponseEntity<WebcomicPage> upload(@PathVariable Long seriesId,
                                                @PathVariable Long issueId,
@@ -61,20 +76,26 @@ public class WebcomicPageController {
                         int nextPageNumber = existingPages.isEmpty() ? 1
                                 : existingPages.getLast().getPageNumber() + 1;
 
-                        // Process and upload image to GCS
+                        // Store the original in GCS; variants follow in the background. Page
+                        // numbers are reused after a delete, so the object name is unique instead
                         String basePath = "images/webcomic/" + seriesId + "/" + issueId;
-                        String filename = "page-" + String.format("%03d", nextPageNumber);
-                        var urls = imageProcessingService.processAndUpload(file, basePath, filename);
+                        String filename = "page-" + UUID.randomUUID();
+                        var original = imageProcessingService.storeOriginal(file, basePath, filename);
 
                         // Create page entity
                         var page = new WebcomicPage();
                         page.setIssue(issue);
                         page.setPageNumber(nextPageNumber);
-                        page.setImageUrl(urls.originalUrl());
-                        page.setThumbnailUrl(urls.thumbnailUrl());
-                        page.setOptimizedUrl(urls.optimizedUrl());
+                        page.setImageUrl(original.originalUrl());
+                        page.setImageStatus(ImageStatus.PROCESSING);
 
-                        var saved = pageRepository.save(page);
+                        // The page and its variant job commit together
+                        var saved = transactions.execute(status -> {
+                            var created = pageRepository.save(page);
+                            imageVariantWorker.submit(new ImageVariantJob(WebcomicPageImageTarget.TYPE,
+                                    created.getId(), original.originalUrl()));
+                            return created;
+                        });
                         var uri = URI.create("/api/webcomic/series/" + seriesId
                                 + "/issues/" + issueId + "/pages/" + saved.getId());
                         return ResponseEntity.created(uri).body(saved);
@@ -127,6 +148,7 @@ public class WebcomicPageController {
                     // Delete GCS assets for this page
                     deletePageAssets(page);
                     pageRepository.delete(page);
+                    imageVariantWorker.cancel(WebcomicPageImageTarget.TYPE, page.getId());
                     // Re-sequence remaining pages
                     var remaining = pageRepository.findByIssue_IdOrderByPageNumberAsc(issueId);
                     for (int i = 0; i < remaining.size(); i++) {
@@ -0,0 +1,46 @@
+package org.tanzu.thstudio.webcomic;
+
+import org.springframework.stereotype.Component;
+import org.tanzu.thstudio.image.ImageProcessingService;
+import org.tanzu.thstudio.image.ImageStatus;
+import org.tanzu.thstudio.image.ImageVariantTarget;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Receives background-generated variants for uploaded webcomic pages.
+ */
+@Component
+public class WebcomicPageImageTarget implements ImageVariantTarget {
+
+    public static final String TYPE = "webcomic-page";
+
+    private final WebcomicPageRepository pageRepository;
+
+    public WebcomicPageImageTarget(WebcomicPageRepository pageRepository) {
+        this.pageRepository = pageRepository;
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public Optional<ImageVariantStatus> status(long id) {
+        return pageRepository.findById(id).map(page -> new ImageVariantStatus(page.getImageStatus(),
+                page.getImageUrl(), page.getOptimizedUrl(), page.getThumbnailUrl()));
+    }
+
+    @Override
+    public boolean complete(long id, String originalUrl, ImageProcessingService.VariantUrls variants) {
+        return pageRepository.updateVariants(id, originalUrl, variants.optimizedUrl(), variants.thumbnailUrl(),
+                ImageStatus.READY, Instant.now()) > 0;
+    }
+
+    @Override
+    public void fail(long id, String originalUrl) {
+        pageRepository.updateImageStatus(id, originalUrl, ImageStatus.FAILED, Instant.now());
+    }
+}
@@ -1,10 +1,53 @@
 package org.tanzu.thstudio.webcomic;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import org.tanzu.thstudio.image.ImageStatus;
 
+import java.time.Instant;
 import java.util.List;
 
 public interface WebcomicPageRepository extends JpaRepository<WebcomicPage, Long> {
 
     List<WebcomicPage> findByIssue_IdOrderByPageNumberAsc(Long issueId);
+
+    List<WebcomicPage> findByIssue_PublishedTrueAndIssue_Series_ActiveTrueOrderByPageNumberAsc();
+
+    /**
+     * Page count and latest page change of an issue.
+     */
+    interface IssueStamp {
+        Long getIssueId();
+        Long getPageCount();
+        Instant getUpdatedAt();
+    }
+
+    @Query("select p.issue.id as issueId, count(p) as pageCount, max(p.updatedAt) as updatedAt "
+            + "from WebcomicPage p where p.issue.published = true and p.issue.series.active = true "
+            + "group by p.issue.id")
+    List<IssueStamp> findPublishedIssueStamps();
+
+    /**
+     * Stores generated variants and sets the image status, unless the page's image was replaced
+     * since the variants were requested. Returns the number of rows updated: 0 when superseded.
+     */
+    @Modifying
+    @Transactional
+    @Query("update WebcomicPage p set p.optimizedUrl = :optimizedUrl, p.thumbnailUrl = :thumbnailUrl, "
+            + "p.imageStatus = :status, p.updatedAt = :now "
+            + "where p.id = :id and p.imageUrl = :originalUrl")
+    int updateVariants(Long id, String originalUrl, String optimizedUrl, String thumbnailUrl,
+                       ImageStatus status, Instant now);
+
+    /**
+     * Sets the image status, unless the page's image was replaced since it was requested.
+     * Returns the number of rows updated.
+     */
+    @Modifying
+    @Transactional
+    @Query("update WebcomicPage p set p.imageStatus = :status, p.updatedAt = :now "
+            + "where p.id = :id and p.imageUrl = :originalUrl")
+    int updateImageStatus(Long id, String originalUrl, ImageStatus status, Instant now);
 }
@@ -9,8 +9,11 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OrderBy;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -44,6 +47,15 @@ public class WebcomicSeries {
     @JsonIgnore
     private List<WebcomicIssue> issues = new ArrayList<>();
 
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now();
+    }
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
@@ -67,4 +79,6 @@ public class WebcomicSeries {
 
     public List<WebcomicIssue> getIssues() { return issues; }
     public void setIssues(List<WebcomicIssue> issues) { this.issues = issues; }
+
+    public Instant getUpdatedAt() { return updatedAt; }
 }
@@ -1,7 +1,9 @@
 package org.tanzu.thstudio.webcomic;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +14,17 @@ public interface WebcomicSeriesRepository extends JpaRepository<WebcomicSeries,
     List<WebcomicSeries> findByActiveTrueOrderBySortOrderAsc();
 
     Optional<WebcomicSeries> findBySlug(String slug);
+
+    /**
+     * Identity and last change of a series, without loading the entity.
+     */
+    interface Stamp {
+        Long getId();
+        String getSlug();
+        Instant getUpdatedAt();
+    }
+
+    @Query("select s.id as id, s.slug as slug, s.updatedAt as updatedAt from WebcomicSeries s "
+            + "where s.active = true order by s.sortOrder asc")
+    List<Stamp> findActiveStamps();
 }
@@ -0,0 +1,6 @@
+-- V10__add_image_status.sql
+-- Uploaded pages and portfolio items are stored right away and get their optimized and
+-- thumbnail variants in the background; image_status tracks that work.
+
+ALTER TABLE webcomic_page  ADD COLUMN image_status VARCHAR(16) NOT NULL DEFAULT 'READY';
+ALTER TABLE portfolio_item ADD COLUMN image_status VARCHAR(16) NOT NULL DEFAULT 'READY';
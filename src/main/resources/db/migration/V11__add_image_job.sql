@@ -0,0 +1,27 @@
+-- V11__add_image_job.sql
+-- Durable queue of background image variant jobs, shared by every app instance. Workers claim
+-- rows with SELECT ... FOR UPDATE SKIP LOCKED and hold them under a lease; failed jobs are
+-- retried with backoff and end up DEAD after too many attempts.
+
+CREATE TABLE image_job (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    target           VARCHAR(32)              NOT NULL,
+    target_id        BIGINT                   NOT NULL,
+    original_url     VARCHAR(1024)            NOT NULL,
+    status           VARCHAR(16)              NOT NULL,
+    attempts         INT                      NOT NULL DEFAULT 0,
+    available_at     TIMESTAMP WITH TIME ZONE NOT NULL,
+    lease_owner      VARCHAR(255),
+    lease_expires_at TIMESTAMP WITH TIME ZONE,
+    last_error       TEXT,
+    created_at       TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at       TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_image_job_claim ON image_job (status, available_at);
+
+-- Uploads still processing were queued in memory only; move them to the durable queue
+INSERT INTO image_job (target, target_id, original_url, status, available_at)
+SELECT 'webcomic-page', id, image_url, 'PENDING', CURRENT_TIMESTAMP FROM webcomic_page WHERE image_status = 'PROCESSING';
+INSERT INTO image_job (target, target_id, original_url, status, available_at)
+SELECT 'portfolio-item', id, image_url, 'PENDING', CURRENT_TIMESTAMP FROM portfolio_item WHERE image_status = 'PROCESSING';
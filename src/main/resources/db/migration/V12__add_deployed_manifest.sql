@@ -0,0 +1,10 @@
+-- V12__add_deployed_manifest.sql
+-- The manifest last deployed to each target (LIVE, PREVIEW): its digest and every file's stamp
+-- as a JSON object of path to stamp, so staleness survives restarts and is shared by instances.
+
+CREATE TABLE deployed_manifest (
+    target      VARCHAR(16)              PRIMARY KEY,
+    digest      VARCHAR(64)              NOT NULL,
+    stamps      TEXT                     NOT NULL,
+    deployed_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,31 @@
+-- V9__add_publish_history.sql
+-- One row per publish job, with stage timings and transfer statistics, to track build times over time.
+
+CREATE TABLE publish_history (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    job_id          VARCHAR(36)              NOT NULL,
+    target          VARCHAR(16)              NOT NULL,
+    outcome         VARCHAR(16)              NOT NULL,
+    started_at      TIMESTAMP WITH TIME ZONE NOT NULL,
+    finished_at     TIMESTAMP WITH TIME ZONE NOT NULL,
+    duration_ms     BIGINT                   NOT NULL,
+    query_ms        BIGINT,
+    render_ms       BIGINT,
+    compress_ms     BIGINT,
+    populate_ms     BIGINT,
+    upload_ms       BIGINT,
+    finalize_ms     BIGINT,
+    release_ms      BIGINT,
+    version_name    VARCHAR(255),
+    file_count      INT,
+    rendered_files  INT,
+    rendered_bytes  BIGINT,
+    uploaded_files  INT,
+    uploaded_bytes  BIGINT,
+    skipped_files   INT,
+    skipped_bytes   BIGINT,
+    upload_retries  INT                      NOT NULL DEFAULT 0,
+    error           TEXT
+);
+
+CREATE INDEX idx_publish_history_started ON publish_history(started_at);
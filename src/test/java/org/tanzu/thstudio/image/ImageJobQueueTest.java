@@ -0,0 +1,132 @@
+package org.tanzu.thstudio.image;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "tauphat.image.jobs.enabled=false")
+@ActiveProfiles("local")
+class ImageJobQueueTest {
+
+    @Autowired ImageJobQueue queue;
+    @Autowired ImageJobRepository repository;
+    @Autowired TransactionTemplate transactions;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired ImageVariantWorker worker;
+    @Autowired ImageProperties properties;
+
+    @BeforeEach
+    void clear() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void claimsEachDueJobOnceAndSkipsRowsLockedElsewhere() throws Exception {
+        for (long id = 1; id <= 3; id++) {
+            queue.enqueue(new ImageVariantJob("webcomic-page", id, "https://example.com/" + id + ".png"));
+        }
+
+        // Another instance holds the oldest job while this one claims
+        var locked = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var other = CompletableFuture.runAsync(() -> transactions.executeWithoutResult(status -> {
+            jdbc.queryForList("SELECT id FROM image_job WHERE target_id = 1 FOR UPDATE");
+            locked.countDown();
+            await(release);
+        }));
+        await(locked);
+        var claimed = queue.claim(10);
+        release.countDown();
+        other.get(5, TimeUnit.SECONDS);
+
+        assertThat(claimed).extracting(ImageJob::getTargetId).containsExactly(2L, 3L);
+        assertThat(claimed).allSatisfy(job -> {
+            assertThat(job.getStatus()).isEqualTo(ImageJob.State.RUNNING);
+            assertThat(job.getAttempts()).isEqualTo(1);
+        });
+        assertThat(queue.claim(10)).extracting(ImageJob::getTargetId).containsExactly(1L);
+        assertThat(queue.claim(10)).isEmpty();
+    }
+
+    @Test
+    void retriesLaterAndDeadLettersOnlyWhileHoldingTheClaim() {
+        queue.enqueue(new ImageVariantJob("portfolio-item", 9, "https://example.com/9.png"));
+
+        var first = queue.claim(1).getFirst();
+        queue.retry(first, Duration.ofHours(1), "boom", true);
+        assertThat(queue.claim(1)).isEmpty();
+        var stored = repository.findById(first.getId()).orElseThrow();
+        assertThat(stored.getStatus()).isEqualTo(ImageJob.State.PENDING);
+        assertThat(stored.getAttempts()).isEqualTo(1);
+        assertThat(stored.getLastError()).isEqualTo("boom");
+
+        // A stale claim no longer matches and is ignored
+        queue.deadLetter(first, "stale");
+        assertThat(queue.count(ImageJob.State.DEAD)).isZero();
+    }
+
+    @Test
+    void deadLettersAJobWhoseLastAttemptNeverFinished() {
+        queue.enqueue(new ImageVariantJob("webcomic-page", 8, "https://example.com/8.png"));
+
+        // Every claiming worker dies without completing or retrying the job
+        for (int attempt = 1; attempt <= properties.jobs().maxAttempts(); attempt++) {
+            assertThat(queue.claim(1)).singleElement().satisfies(job -> {
+                assertThat(job.getStatus()).isEqualTo(ImageJob.State.RUNNING);
+                jdbc.update("UPDATE image_job SET lease_expires_at = available_at WHERE id = ?", job.getId());
+            });
+        }
+
+        assertThat(queue.claim(1)).singleElement().satisfies(job -> {
+            assertThat(job.getStatus()).isEqualTo(ImageJob.State.DEAD);
+            assertThat(job.getAttempts()).isEqualTo(properties.jobs().maxAttempts());
+        });
+        assertThat(queue.count(ImageJob.State.DEAD)).isEqualTo(1);
+        assertThat(queue.claim(1)).isEmpty();
+    }
+
+    @Test
+    void aJobSubmittedInARolledBackTransactionIsNotQueued() {
+        transactions.executeWithoutResult(status -> {
+            worker.submit(new ImageVariantJob("portfolio-item", 4, "https://example.com/4.png"));
+            status.setRollbackOnly();
+        });
+        assertThat(queue.count(ImageJob.State.PENDING)).isZero();
+
+        transactions.executeWithoutResult(status ->
+                worker.submit(new ImageVariantJob("portfolio-item", 4, "https://example.com/4.png")));
+        assertThat(queue.count(ImageJob.State.PENDING)).isEqualTo(1);
+    }
+
+    @Test
+    void cancellingDropsEveryJobOfTheDeletedEntity() {
+        queue.enqueue(new ImageVariantJob("webcomic-page", 5, "https://example.com/5.png"));
+        queue.enqueue(new ImageVariantJob("webcomic-page", 6, "https://example.com/6.png"));
+        var running = queue.claim(1).getFirst();
+
+        worker.cancel("webcomic-page", running.getTargetId());
+
+        // The claim is gone, so the running job's completion is ignored
+        queue.complete(running);
+        assertThat(repository.findAll()).extracting(ImageJob::getTargetId).containsExactly(6L);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.tanzu.thstudio.image;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImageMemoryBulkheadTest {
+
+    @Test
+    void rejectsJobsThatDoNotFitWithinTheTimeoutAndAdmitsThemOnceReleased() {
+        var registry = new SimpleMeterRegistry();
+        var bulkhead = new ImageMemoryBulkhead(new ImageProperties(DataSize.ofMegabytes(1),
+                Duration.ofMillis(50), Duration.ofSeconds(7), null), registry);
+
+        var first = bulkhead.acquire(800 * 1024);
+        assertThat(registry.get("tauphat.image.bulkhead.in-use").gauge().value()).isEqualTo(800 * 1024);
+        assertThatThrownBy(() -> bulkhead.acquire(800 * 1024))
+                .isInstanceOfSatisfying(ImageProcessingSaturatedException.class,
+                        e -> assertThat(e.getRetryAfter()).isEqualTo(Duration.ofSeconds(7)));
+        assertThat(registry.get("tauphat.image.bulkhead.rejected").counter().count()).isEqualTo(1);
+
+        first.close();
+        first.close();
+        assertThat(bulkhead.availableKib()).isEqualTo(1024);
+
+        // Larger than the whole budget: capped, so it still runs on its own
+        try (var oversized = bulkhead.acquire(DataSize.ofMegabytes(8).toBytes())) {
+            assertThat(bulkhead.availableKib()).isZero();
+        }
+        assertThat(bulkhead.availableKib()).isEqualTo(1024);
+        assertThat(bulkhead.queued()).isZero();
+    }
+}
@@ -0,0 +1,96 @@
+package org.tanzu.thstudio.image;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ImageProcessingServiceTest {
+
+    @Test
+    void subsamplesLargeSourcesButKeepsHeadroomForTheOptimizedVariant() {
+        assertThat(ImageProcessingService.subsampling(800)).isEqualTo(1);
+        assertThat(ImageProcessingService.subsampling(2400)).isEqualTo(1);
+        assertThat(ImageProcessingService.subsampling(4800)).isEqualTo(2);
+        assertThat(ImageProcessingService.subsampling(12000)).isEqualTo(5);
+        // 12000x9000 decodes at 2400x1800, plus a 1200x900 optimized and a 300x225 thumbnail variant
+        assertThat(ImageProcessingService.estimateBytes(12000, 9000, 5))
+                .isEqualTo((2400L * 1800 + 1200 * 900 + 300 * 225) * 4);
+    }
+
+    @Test
+    void reportsOriginalDimensionsAndResizesFromTheSubsampledDecode() throws Exception {
+        var source = new BufferedImage(6000, 400, BufferedImage.TYPE_INT_RGB);
+        var graphics = source.createGraphics();
+        graphics.setColor(Color.ORANGE);
+        graphics.fillRect(0, 0, 6000, 400);
+        graphics.dispose();
+        var png = new ByteArrayOutputStream();
+        ImageIO.write(source, "png", png);
+
+        var storage = mock(StorageService.class);
+        when(storage.upload(anyString(), any(Path.class), anyString())).thenReturn("original");
+        when(storage.upload(anyString(), any(byte[].class), anyString())).thenReturn("variant");
+        var service = new ImageProcessingService(storage, new ImageMemoryBulkhead(
+                new ImageProperties(null, null, null, null), new SimpleMeterRegistry()));
+
+        var urls = service.processAndUpload(new MockMultipartFile("file", "big.png", "image/png", png.toByteArray()),
+                "images/test", "big");
+
+        assertThat(urls.width()).isEqualTo(6000);
+        assertThat(urls.height()).isEqualTo(400);
+        var optimized = ArgumentCaptor.forClass(byte[].class);
+        verify(storage).upload(eq("images/test/optimized/big.png"), optimized.capture(), eq("image/png"));
+        var variant = ImageIO.read(new ByteArrayInputStream(optimized.getValue()));
+        assertThat(variant.getWidth()).isEqualTo(1200);
+        assertThat(variant.getHeight()).isEqualTo(80);
+    }
+
+    @Test
+    void deletesStoredOutputsWhenAnotherOutputFails() throws Exception {
+        var png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_RGB), "png", png);
+
+        var storage = mock(StorageService.class);
+        when(storage.upload(anyString(), any(Path.class), anyString())).thenReturn("original");
+        // The thumbnail upload fails once the optimized variant is stored
+        var optimizedStored = new CountDownLatch(1);
+        when(storage.upload(eq("images/test/optimized/page.png"), any(byte[].class), anyString())).thenAnswer(invocation -> {
+            optimizedStored.countDown();
+            return "variant";
+        });
+        when(storage.upload(eq("images/test/thumbnail/page.png"), any(byte[].class), anyString())).thenAnswer(invocation -> {
+            optimizedStored.await(5, TimeUnit.SECONDS);
+            throw new IllegalStateException("storage unavailable");
+        });
+        var service = new ImageProcessingService(storage, new ImageMemoryBulkhead(
+                new ImageProperties(null, null, null, null), new SimpleMeterRegistry()));
+
+        assertThatThrownBy(() -> service.processAndUpload(
+                new MockMultipartFile("file", "page.png", "image/png", png.toByteArray()), "images/test", "page"))
+                .hasMessage("storage unavailable");
+
+        verify(storage).delete("images/test/original/page.png");
+        verify(storage).delete("images/test/optimized/page.png");
+        verify(storage, never()).delete("images/test/thumbnail/page.png");
+    }
+}
@@ -0,0 +1,201 @@
+package org.tanzu.thstudio.image;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ImageVariantWorkerTest {
+
+    private static final String ORIGINAL = "https://storage.googleapis.com/b/images/x/original/a.jpg";
+    private static final ImageProcessingService.VariantUrls VARIANTS = new ImageProcessingService.VariantUrls(
+            "https://storage.googleapis.com/b/images/x/optimized/a.png",
+            "https://storage.googleapis.com/b/images/x/thumbnail/a.png");
+
+    @Test
+    void recordsVariantsCompletesTheJobAndAnnouncesTheChange() throws Exception {
+        var processing = mock(ImageProcessingService.class);
+        when(processing.generateVariants(ORIGINAL)).thenReturn(VARIANTS);
+        var target = target();
+        when(target.complete(7, ORIGINAL, VARIANTS)).thenReturn(true);
+        var events = mock(ApplicationEventPublisher.class);
+        var job = claimed(1);
+        var queue = queue(job);
+
+        worker(processing, target, queue, events).start();
+
+        verify(queue, timeout(5000)).complete(job);
+        verify(target).complete(7, ORIGINAL, VARIANTS);
+        verify(events).publishEvent(new ImageVariantsReadyEvent("test", 7));
+        verify(target, never()).fail(anyLong(), anyString());
+    }
+
+    @Test
+    void defersSaturatedJobsWithoutCountingTheAttempt() throws Exception {
+        var processing = mock(ImageProcessingService.class);
+        when(processing.generateVariants(ORIGINAL))
+                .thenThrow(new ImageProcessingSaturatedException("busy", Duration.ofSeconds(10)));
+        var job = claimed(1);
+        var queue = queue(job);
+
+        worker(processing, target(), queue, mock(ApplicationEventPublisher.class)).start();
+
+        verify(queue, timeout(5000)).retry(job, Duration.ofSeconds(3), null, false);
+    }
+
+    @Test
+    void retriesFailuresWithBackoffAndDeadLettersTheLastAttempt() throws Exception {
+        var processing = mock(ImageProcessingService.class);
+        when(processing.generateVariants(ORIGINAL)).thenThrow(new IOException("corrupt"));
+        var target = target();
+        var first = claimed(1);
+        var last = claimed(3);
+        var queue = queue(first, last);
+
+        worker(processing, target, queue, mock(ApplicationEventPublisher.class)).start();
+
+        verify(queue, timeout(5000)).retry(eq(first), eq(Duration.ofSeconds(1)), anyString(), eq(true));
+        verify(queue, timeout(5000)).deadLetter(eq(last), anyString());
+        verify(target, timeout(5000)).fail(7, ORIGINAL);
+        verify(queue, never()).retry(eq(last), any(), any(), anyBoolean());
+    }
+
+    @Test
+    void marksTheEntityOfAnAbandonedJobFailed() throws Exception {
+        var processing = mock(ImageProcessingService.class);
+        var target = target();
+        var abandoned = claimed(3);
+        abandoned.setStatus(ImageJob.State.DEAD);
+
+        worker(processing, target, queue(abandoned), mock(ApplicationEventPublisher.class)).start();
+
+        verify(target, timeout(5000)).fail(7, ORIGINAL);
+        verify(processing, never()).generateVariants(anyString());
+    }
+
+    @Test
+    void completesTheJobOfAnImageReplacedMeanwhileWithoutTouchingTheEntity() throws Exception {
+        var processing = mock(ImageProcessingService.class);
+        when(processing.generateVariants(ORIGINAL)).thenReturn(VARIANTS);
+        var target = target();
+        var events = mock(ApplicationEventPublisher.class);
+        var job = claimed(1);
+        var queue = queue(job);
+
+        worker(processing, target, queue, events).start();
+
+        verify(queue, timeout(5000)).complete(job);
+        verify(target, never()).fail(anyLong(), anyString());
+        verify(events, never()).publishEvent(any());
+    }
+
+    @Test
+    void wakesThePollerOnlyOnceTheSubmittingTransactionCommits() {
+        var queue = queue();
+        var worker = worker(mock(ImageProcessingService.class), target(), queue,
+                mock(ApplicationEventPublisher.class));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            worker.submit(new ImageVariantJob("test", 7, ORIGINAL));
+            verify(queue).enqueue(any());
+            verify(queue, after(200).never()).claim(anyInt());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(queue, timeout(5000)).claim(anyInt());
+    }
+
+    @Test
+    void wakingAfterShutdownIsIgnored() {
+        var worker = worker(mock(ImageProcessingService.class), target(), queue(), mock(ApplicationEventPublisher.class));
+        worker.shutdown();
+
+        worker.submit(new ImageVariantJob("test", 7, ORIGINAL));
+    }
+
+    @Test
+    void queueGaugesReadCountsRefreshedByThePoller() {
+        var queue = queue();
+        when(queue.count(ImageJob.State.PENDING)).thenReturn(4L);
+        when(queue.count(ImageJob.State.DEAD)).thenReturn(1L);
+        var registry = new SimpleMeterRegistry();
+
+        worker(mock(ImageProcessingService.class), target(), queue, mock(ApplicationEventPublisher.class), registry)
+                .start();
+
+        verify(queue, timeout(5000)).count(ImageJob.State.DEAD);
+        assertThat(registry.get("tauphat.image.jobs.pending").gauge().value()).isEqualTo(4);
+        assertThat(registry.get("tauphat.image.jobs.dead").gauge().value()).isEqualTo(1);
+        // Polls within the refresh interval and scrapes do not count again
+        verify(queue, after(200).times(1)).count(ImageJob.State.PENDING);
+    }
+
+    @Test
+    void doublesTheBackoffPerAttempt() {
+        assertThat(ImageVariantWorker.backoff(Duration.ofSeconds(30), 1)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(ImageVariantWorker.backoff(Duration.ofSeconds(30), 3)).isEqualTo(Duration.ofMinutes(2));
+        assertThat(ImageVariantWorker.backoff(Duration.ofSeconds(30), 40)).isEqualTo(Duration.ofDays(1));
+    }
+
+    private static ImageVariantTarget target() {
+        var target = mock(ImageVariantTarget.class);
+        when(target.type()).thenReturn("test");
+        return target;
+    }
+
+    private static ImageJob claimed(int attempts) {
+        var job = new ImageJob(new ImageVariantJob("test", 7, ORIGINAL), Instant.now());
+        job.setStatus(ImageJob.State.RUNNING);
+        job.setAttempts(attempts);
+        return job;
+    }
+
+    /**
+     * A queue that hands out each job once, one per claim.
+     */
+    private static ImageJobQueue queue(ImageJob... jobs) {
+        var queue = mock(ImageJobQueue.class);
+        var claims = when(queue.claim(anyInt()));
+        for (var job : jobs) {
+            claims = claims.thenReturn(List.of(job));
+        }
+        claims.thenReturn(List.of());
+        return queue;
+    }
+
+    private static ImageVariantWorker worker(ImageProcessingService processing, ImageVariantTarget target,
+                                             ImageJobQueue queue, ApplicationEventPublisher events) {
+        return worker(processing, target, queue, events, new SimpleMeterRegistry());
+    }
+
+    private static ImageVariantWorker worker(ImageProcessingService processing, ImageVariantTarget target,
+                                             ImageJobQueue queue, ApplicationEventPublisher events,
+                                             SimpleMeterRegistry registry) {
+        var jobs = new ImageProperties.JobProperties(true, 1, Duration.ofMillis(10), null, 3, Duration.ofSeconds(1));
+        return new ImageVariantWorker(processing, List.of(target), queue,
+                new ImageProperties(null, null, Duration.ofSeconds(3), jobs), events, registry);
+    }
+}
@@ -0,0 +1,65 @@
+package org.tanzu.thstudio.portfolio;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.tanzu.thstudio.image.ImageProcessingService;
+import org.tanzu.thstudio.image.ImageStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "tauphat.image.jobs.enabled=false")
+@ActiveProfiles("local")
+class PortfolioItemImageTargetTest {
+
+    @Autowired PortfolioItemImageTarget target;
+    @Autowired PortfolioItemRepository repository;
+
+    @AfterEach
+    void clear() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void completesOnlyWhileTheOriginalIsCurrent() {
+        var item = processing("https://example.com/a.png");
+        var variants = new ImageProcessingService.VariantUrls("https://example.com/a-opt.jpg",
+                "https://example.com/a-thumb.jpg");
+
+        assertThat(target.complete(item.getId(), item.getImageUrl(), variants)).isTrue();
+
+        var completed = repository.findById(item.getId()).orElseThrow();
+        assertThat(completed.getImageStatus()).isEqualTo(ImageStatus.READY);
+        assertThat(completed.getOptimizedUrl()).isEqualTo(variants.optimizedUrl());
+        assertThat(completed.getThumbnailUrl()).isEqualTo(variants.thumbnailUrl());
+        assertThat(completed.getUpdatedAt()).isAfter(item.getUpdatedAt());
+    }
+
+    @Test
+    void leavesAReplacedImageAlone() {
+        var item = processing("https://example.com/b.png");
+        item.setImageUrl("https://example.com/c.png");
+        item.setTitle("Edited meanwhile");
+        repository.save(item);
+
+        var variants = new ImageProcessingService.VariantUrls("https://example.com/b-opt.jpg",
+                "https://example.com/b-thumb.jpg");
+        assertThat(target.complete(item.getId(), "https://example.com/b.png", variants)).isFalse();
+        target.fail(item.getId(), "https://example.com/b.png");
+
+        var current = repository.findById(item.getId()).orElseThrow();
+        assertThat(current.getImageStatus()).isEqualTo(ImageStatus.PROCESSING);
+        assertThat(current.getOptimizedUrl()).isNull();
+        assertThat(current.getTitle()).isEqualTo("Edited meanwhile");
+    }
+
+    private PortfolioItem processing(String imageUrl) {
+        var item = new PortfolioItem();
+        item.setTitle("Artwork");
+        item.setImageUrl(imageUrl);
+        item.setImageStatus(ImageStatus.PROCESSING);
+        return repository.save(item);
+    }
+}
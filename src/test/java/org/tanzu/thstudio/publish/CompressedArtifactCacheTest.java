@@ -0,0 +1,49 @@
+package org.tanzu.thstudio.publish;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.tanzu.thstudio.publish.PublishPropertiesBuilder.publishProperties;
+
+class CompressedArtifactCacheTest {
+
+    @TempDir Path tempDir;
+
+    @Test
+    void survivesRestartsAndEvictsLeastRecentlyUsedEntries() throws Exception {
+        var first = cache(DataSize.ofKilobytes(1));
+        var asset = "console.log('stars');".repeat(10).getBytes(StandardCharsets.UTF_8);
+        var compressed = first.compress(asset);
+        assertThat(compressed.gzipped()).isEqualTo(GzipSink.compress(asset).gzipped());
+
+        // A new instance (e.g. after a restart) serves the entry from disk
+        var restarted = cache(DataSize.ofKilobytes(1));
+        var cached = restarted.compress(asset);
+        assertThat(cached.sha256()).isEqualTo(compressed.sha256());
+        assertThat(cached.gzipped()).isEqualTo(compressed.gzipped());
+        try (var files = Files.list(tempDir)) {
+            assertThat(files).hasSize(1);
+        }
+
+        // Filling the cache past its cap evicts the oldest entries
+        for (int i = 0; i < 50; i++) {
+            restarted.compress(("var n = " + i + ";").repeat(20).getBytes(StandardCharsets.UTF_8));
+        }
+        long total;
+        try (var files = Files.list(tempDir)) {
+            total = files.mapToLong(file -> file.toFile().length()).sum();
+        }
+        assertThat(total).isLessThanOrEqualTo(1024);
+    }
+
+    private CompressedArtifactCache cache(DataSize maxSize) {
+        return new CompressedArtifactCache(publishProperties().artifactCache(
+                new PublishProperties.ArtifactCacheProperties(true, tempDir, maxSize)).build());
+    }
+}
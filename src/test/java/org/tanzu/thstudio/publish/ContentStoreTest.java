@@ -0,0 +1,35 @@
+package org.tanzu.thstudio.publish;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.tanzu.thstudio.publish.PublishPropertiesBuilder.publishProperties;
+
+class ContentStoreTest {
+
+    @TempDir Path tempDir;
+
+    @Test
+    void spillsLargeFilesAndFilesBeyondTheHeapBudget() throws Exception {
+        var store = new ContentStore(publishProperties().storage(new PublishProperties.StorageProperties(
+                DataSize.ofBytes(100), DataSize.ofBytes(64), tempDir)).build());
+
+        var small = store.store(new byte[60]);
+        var large = store.store(new byte[80]);
+        var overBudget = store.store(new byte[60]);
+
+        assertThat(store.heapBytes()).isEqualTo(60);
+        assertThat(store.spilledBytes()).isEqualTo(140);
+        assertThat(large.size()).isEqualTo(80);
+        assertThat(large.bytes()).hasSize(80);
+        assertThat(overBudget.bytes()).hasSize(60);
+        assertThat(small.bytes()).hasSize(60);
+
+        store.deleteSpillDirectory();
+        assertThat(tempDir).isEmptyDirectory();
+    }
+}
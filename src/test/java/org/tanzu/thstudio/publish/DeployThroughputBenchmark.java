@@ -0,0 +1,66 @@
+package org.tanzu.thstudio.publish;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.tanzu.thstudio.publish.PublishPropertiesBuilder.publishProperties;
+
+/**
+ * End-to-end deploy throughput against {@link FakeFirebaseHostingServer}, with a small
+ * per-request latency standing in for the network.
+ * <p>
+ * Excluded from the default build; run with
+ * {@code mvn test -Dgroups=benchmark -Dsurefire.excludedGroups=}. Each run appends a JSON
+ * line per site size to {@code target/benchmarks/deploy-throughput.jsonl} so results can be
+ * collected and compared in CI.
+ */
+@Tag("benchmark")
+class DeployThroughputBenchmark {
+
+    private static final Duration LATENCY = Duration.ofMillis(5);
+
+    @ParameterizedTest
+    @ValueSource(ints = {100, 1_000, 10_000})
+    void deploy(int files) throws Exception {
+        try (var fake = FakeFirebaseHostingServer.start().latency(LATENCY)) {
+            var service = FirebaseHostingServiceTest.service(fake,
+                    publishProperties().build());
+            var site = FirebaseHostingServiceTest.site(files, "benchmark");
+            long bytes = site.getFiles().values().stream().mapToLong(entry -> entry.gzipped().size()).sum();
+
+            long start = System.nanoTime();
+            var result = service.deployToPreview(site);
+            var cold = Duration.ofNanos(System.nanoTime() - start);
+
+            // Redeploying the same content only populates and releases
+            start = System.nanoTime();
+            service.deployToPreview(site);
+            var warm = Duration.ofNanos(System.nanoTime() - start);
+
+            assertThat(result.uploadedFiles()).isEqualTo(files);
+            report(files, bytes, cold, warm);
+        }
+    }
+
+    private static void report(int files, long bytes, Duration cold, Duration warm) throws Exception {
+        double seconds = cold.toNanos() / 1e9;
+        var line = String.format(Locale.ROOT,
+                "{\"benchmark\":\"deploy\",\"files\":%d,\"gzippedBytes\":%d,\"latencyMs\":%d,"
+                        + "\"coldMs\":%d,\"warmMs\":%d,\"filesPerSecond\":%.1f,\"mbPerSecond\":%.2f}",
+                files, bytes, LATENCY.toMillis(), cold.toMillis(), warm.toMillis(),
+                files / seconds, bytes / seconds / (1024 * 1024));
+        System.out.println(line);
+        var output = Path.of("target", "benchmarks", "deploy-throughput.jsonl");
+        Files.createDirectories(output.getParent());
+        Files.writeString(output, line + System.lineSeparator(),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,266 @@
+package org.tanzu.thstudio.publish;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process stand-in for the Firebase Hosting REST API, for testing and benchmarking
+ * deploys offline.
+ * <p>
+ * Implements the calls {@link FirebaseHostingService} makes: create version,
+ * {@code populateFiles}, file upload, finalize, create/get channel, and create/list releases.
+ * Like Firebase, it remembers every uploaded hash across versions and only asks for
+ * hashes it has not seen, and it rejects uploads whose content does not match the hash.
+ * Every request can be delayed by a fixed latency, and a fraction of uploads can be
+ * failed with a 503 to exercise retries.
+ */
+class FakeFirebaseHostingServer implements AutoCloseable {
+
+    private static final Pattern VERSIONS = Pattern.compile("/v1beta1/sites/([^/]+)/versions");
+    private static final Pattern POPULATE = Pattern.compile("/v1beta1/(sites/[^/]+/versions/[^/:]+):populateFiles");
+    private static final Pattern VERSION = Pattern.compile("/v1beta1/(sites/[^/]+/versions/[^/:]+)");
+    private static final Pattern CHANNELS = Pattern.compile("/v1beta1/sites/([^/]+)/channels");
+    private static final Pattern CHANNEL = Pattern.compile("/v1beta1/sites/([^/]+)/channels/([^/]+)");
+    private static final Pattern RELEASES = Pattern.compile("/v1beta1/sites/([^/]+)/channels/([^/]+)/releases");
+    private static final Pattern UPLOAD = Pattern.compile("/upload/(sites/[^/]+/versions/[^/]+)/files/([0-9a-f]+)");
+
+    /**
+     * A release of a version to a channel.
+     */
+    record Release(String channel, String versionName, Instant releasedAt) {
+
+        Release(String channel, String versionName) {
+            this(channel, versionName, Instant.EPOCH);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Release release
+                    && channel.equals(release.channel) && versionName.equals(release.versionName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(channel, versionName);
+        }
+    }
+
+    private final HttpServer server;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Set<String> storedHashes = ConcurrentHashMap.newKeySet();
+    private final Map<String, String> versionStatus = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> versionFiles = new ConcurrentHashMap<>();
+    private final List<Release> releases = new CopyOnWriteArrayList<>();
+    private final AtomicInteger versionCounter = new AtomicInteger();
+    private final AtomicInteger uploads = new AtomicInteger();
+    private final AtomicInteger injectedFailures = new AtomicInteger();
+
+    private volatile Duration latency = Duration.ZERO;
+    private volatile double uploadFailureRate;
+
+    private FakeFirebaseHostingServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    static FakeFirebaseHostingServer start() throws IOException {
+        var fake = new FakeFirebaseHostingServer();
+        fake.server.start();
+        return fake;
+    }
+
+    /** Delay added to every request. */
+    FakeFirebaseHostingServer latency(Duration latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    /** Fraction (0–1) of upload requests answered with 503 Service Unavailable. */
+    FakeFirebaseHostingServer uploadFailureRate(double uploadFailureRate) {
+        this.uploadFailureRate = uploadFailureRate;
+        return this;
+    }
+
+    String apiBaseUrl() {
+        return baseUrl() + "/v1beta1";
+    }
+
+    int uploads() {
+        return uploads.get();
+    }
+
+    int injectedFailures() {
+        return injectedFailures.get();
+    }
+
+    String versionStatus(String versionName) {
+        return versionStatus.get(versionName);
+    }
+
+    List<Release> releases() {
+        return List.copyOf(releases);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    // ── Request handling ────────────────────────────────────────────────────
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!latency.isZero()) {
+                Thread.sleep(latency);
+            }
+            var method = exchange.getRequestMethod();
+            var path = exchange.getRequestURI().getPath();
+            var query = exchange.getRequestURI().getQuery();
+            var body = exchange.getRequestBody().readAllBytes();
+
+            Matcher m;
+            if (method.equals("POST") && (m = UPLOAD.matcher(path)).matches()) {
+                upload(exchange, m.group(2), body);
+            } else if (method.equals("POST") && (m = VERSIONS.matcher(path)).matches()) {
+                var name = "sites/" + m.group(1) + "/versions/v" + versionCounter.incrementAndGet();
+                versionStatus.put(name, "CREATED");
+                respond(exchange, 200, Map.of("name", name, "status", "CREATED"));
+            } else if (method.equals("POST") && (m = POPULATE.matcher(path)).matches()) {
+                populate(exchange, m.group(1), body);
+            } else if (method.equals("PATCH") && (m = VERSION.matcher(path)).matches()) {
+                var status = objectMapper.readTree(body).path("status").asText();
+                versionStatus.put(m.group(1), status);
+                respond(exchange, 200, Map.of("name", m.group(1), "status", status));
+            } else if (method.equals("POST") && (m = RELEASES.matcher(path)).matches()) {
+                var versionName = query.substring(query.indexOf("versionName=") + "versionName=".length());
+                if (!"FINALIZED".equals(versionStatus.get(versionName))) {
+                    respond(exchange, 400, Map.of("error", "version is not finalized: " + versionName));
+                    return;
+                }
+                releases.add(new Release(m.group(2), versionName, Instant.now()));
+                respond(exchange, 200, Map.of("name", path.substring("/v1beta1/".length()) + "/r" + releases.size(),
+                        "version", Map.of("name", versionName)));
+            } else if (method.equals("GET") && (m = RELEASES.matcher(path)).matches()) {
+                var listed = new ArrayList<Map<String, Object>>();
+                var channelReleases = releases(m.group(2));
+                for (int i = channelReleases.size() - 1; i >= 0; i--) {
+                    listed.add(release(channelReleases.get(i)));
+                }
+                respond(exchange, 200, Map.of("releases", listed));
+            } else if (method.equals("POST") && (m = CHANNELS.matcher(path)).matches()) {
+                var channelId = query.substring(query.indexOf("channelId=") + "channelId=".length());
+                respond(exchange, 200, channel(m.group(1), channelId));
+            } else if (method.equals("GET") && (m = CHANNEL.matcher(path)).matches()) {
+                if (!m.group(2).equals("live") && releases(m.group(2)).isEmpty()) {
+                    respond(exchange, 404, Map.of("error", "Unknown channel " + m.group(2)));
+                    return;
+                }
+                respond(exchange, 200, channel(m.group(1), m.group(2)));
+            } else {
+                respond(exchange, 404, Map.of("error", "Not found: " + method + " " + path));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void populate(HttpExchange exchange, String versionName, byte[] body) throws IOException {
+        if (!versionStatus.containsKey(versionName)) {
+            respond(exchange, 404, Map.of("error", "Unknown version " + versionName));
+            return;
+        }
+        var required = new ArrayList<String>();
+        var files = objectMapper.readTree(body).path("files");
+        versionFiles.computeIfAbsent(versionName, v -> new AtomicInteger()).addAndGet(files.size());
+        files.forEach(hash -> {
+            if (!storedHashes.contains(hash.asText()) && !required.contains(hash.asText())) {
+                required.add(hash.asText());
+            }
+        });
+        respond(exchange, 200, Map.of(
+                "uploadRequiredHashes", required,
+                "uploadUrl", baseUrl() + "/upload/" + versionName + "/files"));
+    }
+
+    private void upload(HttpExchange exchange, String hash, byte[] body) throws IOException {
+        if (ThreadLocalRandom.current().nextDouble() < uploadFailureRate) {
+            injectedFailures.incrementAndGet();
+            exchange.sendResponseHeaders(503, -1);
+            return;
+        }
+        if (!hash.equals(sha256(body))) {
+            respond(exchange, 400, Map.of("error", "Content does not match hash " + hash));
+            return;
+        }
+        storedHashes.add(hash);
+        uploads.incrementAndGet();
+        exchange.sendResponseHeaders(200, -1);
+    }
+
+    private Map<String, Object> channel(String siteId, String channelId) {
+        var channel = new LinkedHashMap<String, Object>();
+        channel.put("name", "sites/" + siteId + "/channels/" + channelId);
+        channel.put("url", "https://" + siteId + "--" + channelId + ".web.app");
+        var channelReleases = releases(channelId);
+        if (!channelReleases.isEmpty()) {
+            channel.put("release", release(channelReleases.getLast()));
+        }
+        return channel;
+    }
+
+    private List<Release> releases(String channel) {
+        return releases.stream().filter(release -> release.channel().equals(channel)).toList();
+    }
+
+    private Map<String, Object> release(Release release) {
+        var files = versionFiles.getOrDefault(release.versionName(), new AtomicInteger());
+        // Firebase serializes int64 fields as strings
+        return Map.of(
+                "releaseTime", release.releasedAt().toString(),
+                "version", Map.of("name", release.versionName(), "status", "FINALIZED",
+                        "fileCount", String.valueOf(files.get())));
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        var json = objectMapper.writeValueAsString(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, json.length);
+        exchange.getResponseBody().write(json);
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
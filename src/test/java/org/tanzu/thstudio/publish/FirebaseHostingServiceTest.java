@@ -0,0 +1,124 @@
+package org.tanzu.thstudio.publish;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.tanzu.thstudio.config.GoogleCredentialsManager;
+import org.tanzu.thstudio.config.TaupHatProperties;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.tanzu.thstudio.publish.PublishPropertiesBuilder.publishProperties;
+
+class FirebaseHostingServiceTest {
+
+    private FakeFirebaseHostingServer fake;
+
+    @BeforeEach
+    void startFake() throws Exception {
+        fake = FakeFirebaseHostingServer.start();
+    }
+
+    @AfterEach
+    void stopFake() {
+        fake.close();
+    }
+
+    @Test
+    void deploysToPreviewAndOnlyUploadsNewContentOnTheNextDeploy() throws Exception {
+        var service = service(fake, publishProperties().build());
+
+        var first = service.deployToPreview(site(50, "v1"));
+        assertThat(first.fileCount()).isEqualTo(50);
+        assertThat(first.uploadedFiles()).isEqualTo(50);
+        assertThat(first.url()).isEqualTo("https://test-site--preview.web.app");
+        assertThat(fake.versionStatus(first.versionName())).isEqualTo("FINALIZED");
+        assertThat(fake.releases()).containsExactly(
+                new FakeFirebaseHostingServer.Release("preview", first.versionName()));
+
+        // Ten files change; the rest are already stored
+        var second = service.deployToLive(site(50, "v1", 10, "v2"));
+        assertThat(second.uploadedFiles()).isEqualTo(10);
+        assertThat(second.skippedFiles()).isEqualTo(40);
+        assertThat(fake.uploads()).isEqualTo(60);
+        assertThat(service.liveReleases()).extracting(LiveRelease::versionName).containsExactly(second.versionName());
+    }
+
+    @Test
+    void readsReleaseHistoryAndThePreviewBackFromFirebaseAfterARestart() throws Exception {
+        var before = service(fake, publishProperties().build());
+        var first = before.deployToLive(site(20, "v1"));
+        var second = before.deployToLive(site(20, "v2"));
+        var preview = before.deployToPreview(site(20, "v3"));
+
+        var after = service(fake, publishProperties().build());
+        assertThat(after.liveReleases()).extracting(LiveRelease::versionName)
+                .containsExactly(second.versionName(), first.versionName());
+        assertThat(after.liveReleases().getLast().fileCount()).isEqualTo(20);
+
+        assertThat(after.rollbackTo(first.versionName())).map(LiveRelease::versionName)
+                .contains(first.versionName());
+
+        var promoted = after.promotePreviewToLive().orElseThrow();
+        assertThat(promoted.versionName()).isEqualTo(preview.versionName());
+        assertThat(promoted.fileCount()).isEqualTo(20);
+        assertThat(after.liveReleases().getFirst().versionName()).isEqualTo(preview.versionName());
+    }
+
+    @Test
+    void promotingWithoutAPreviewReleaseFindsNothing() throws Exception {
+        var service = service(fake, publishProperties().build());
+        service.deployToLive(site(5, "v1"));
+
+        assertThat(service.promotePreviewToLive()).isEmpty();
+    }
+
+    @Test
+    void retriesInjectedUploadFailures() throws Exception {
+        fake.uploadFailureRate(0.2).latency(Duration.ofMillis(2));
+        var upload = new PublishProperties.UploadProperties(8, 10, Duration.ofMillis(1), Duration.ofMillis(5),
+                null, 40, null);
+        var service = service(fake, publishProperties().upload(upload).build());
+
+        var result = service.deployToPreview(site(200, "flaky"));
+
+        assertThat(result.uploadedFiles()).isEqualTo(200);
+        assertThat(fake.uploads()).isEqualTo(200);
+        assertThat(fake.injectedFailures()).isPositive();
+    }
+
+    static FirebaseHostingService service(FakeFirebaseHostingServer fake, PublishProperties publishProperties)
+            throws Exception {
+        var credentials = mock(GoogleCredentialsManager.class);
+        when(credentials.accessToken(anyString())).thenReturn("test-token");
+        var firebase = new TaupHatProperties.FirebaseProperties("test-site", null, null, null, null, null, null,
+                null, fake.apiBaseUrl(), null);
+        return new FirebaseHostingService(new TaupHatProperties(null, null, firebase), publishProperties, credentials);
+    }
+
+    /**
+     * A synthetic site of {@code files} HTML pages whose content is derived from {@code seed}.
+     */
+    static GeneratedSite site(int files, String seed) {
+        return site(files, seed, 0, seed);
+    }
+
+    /**
+     * A synthetic site whose first {@code changed} pages use {@code changedSeed} instead.
+     */
+    static GeneratedSite site(int files, String seed, int changed, String changedSeed) {
+        var site = new GeneratedSite(new ContentStore(publishProperties().build()));
+        for (int i = 0; i < files; i++) {
+            var html = "<!DOCTYPE html><html><body><h1>Page %d</h1><p>%s</p></body></html>"
+                    .formatted(i, (i < changed ? changedSeed : seed).repeat(40));
+            site.add("pages/" + i + "/index.html", GzipSink.compress(html.getBytes(StandardCharsets.UTF_8)),
+                    GeneratedSite.HTML);
+        }
+        return site;
+    }
+}
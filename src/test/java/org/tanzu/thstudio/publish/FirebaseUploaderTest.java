@@ -0,0 +1,132 @@
+package org.tanzu.thstudio.publish;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FirebaseUploaderTest {
+
+    private HttpServer server;
+    private final Map<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+    private final Map<String, byte[]> received = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @BeforeEach
+    void startStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/upload/", exchange -> {
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            try {
+                var hash = exchange.getRequestURI().getPath().substring("/upload/".length());
+                var body = exchange.getRequestBody().readAllBytes();
+                int attempt = attempts.computeIfAbsent(hash, h -> new AtomicInteger()).incrementAndGet();
+                Thread.sleep(20);
+                int status;
+                if (hash.startsWith("flaky") && attempt == 1) {
+                    status = 503;
+                } else if (hash.startsWith("throttled") && attempt == 1) {
+                    exchange.getResponseHeaders().add("Retry-After", "0");
+                    status = 429;
+                } else if (hash.startsWith("rejected")) {
+                    status = 400;
+                } else if (hash.startsWith("down")) {
+                    status = 500;
+                } else {
+                    received.put(hash, body);
+                    status = 200;
+                }
+                exchange.sendResponseHeaders(status, -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+                exchange.close();
+            }
+        });
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+    }
+
+    @AfterEach
+    void stopStubServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void uploadsConcurrentlyAndRetriesTransientFailures() throws Exception {
+        var files = IntStream.range(0, 40)
+                .mapToObj(i -> file((i % 10 == 0 ? "flaky" : i % 10 == 1 ? "throttled" : "ok") + i))
+                .toList();
+
+        int uploaded = uploader(4, 3).upload(uploadUrl(), files, "token");
+
+        assertThat(uploaded).isEqualTo(40);
+        assertThat(received).hasSize(40);
+        assertThat(received.get("flaky0")).isEqualTo("flaky0".getBytes());
+        assertThat(attempts.get("flaky0")).hasValue(2);
+        assertThat(attempts.get("throttled1")).hasValue(2);
+        assertThat(attempts.get("ok2")).hasValue(1);
+        assertThat(maxInFlight.get()).isBetween(2, 4);
+    }
+
+    @Test
+    void failsOnPermanentErrors() {
+        assertThatThrownBy(() -> uploader(4, 3).upload(uploadUrl(), List.of(file("ok1"), file("rejected")), "token"))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("rejected")
+                .hasMessageContaining("HTTP 400");
+        assertThat(attempts.get("rejected")).hasValue(1);
+    }
+
+    @Test
+    void failsWhenRetriesAreExhausted() {
+        assertThatThrownBy(() -> uploader(4, 3).upload(uploadUrl(), List.of(file("down")), "token"))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("after 3 attempts");
+        assertThat(attempts.get("down")).hasValue(3);
+    }
+
+    private FirebaseUploader uploader(int concurrency, int maxAttempts) {
+        return new FirebaseUploader(HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build(),
+                new PublishProperties.UploadProperties(concurrency, maxAttempts,
+                        Duration.ofMillis(10), Duration.ofMillis(50), Duration.ofSeconds(5), null, null));
+    }
+
+    private String uploadUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/upload";
+    }
+
+    private static FirebaseUploader.UploadFile file(String hash) {
+        var content = hash.getBytes();
+        return new FirebaseUploader.UploadFile(hash + ".html", hash, new FileContent() {
+            @Override
+            public long size() {
+                return content.length;
+            }
+
+            @Override
+            public InputStream openStream() {
+                return new ByteArrayInputStream(content);
+            }
+        });
+    }
+}
@@ -0,0 +1,54 @@
+package org.tanzu.thstudio.publish;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GzipSinkTest {
+
+    @Test
+    void producesTheSameGzipAndHashAsASeparateCompressionPass() throws Exception {
+        var text = "<p>Café — taup hat</p>\n".repeat(2_000);
+        var utf8 = text.getBytes(StandardCharsets.UTF_8);
+
+        var sink = new GzipSink();
+        sink.writer().write(text);
+        var result = sink.finish();
+
+        var expected = new ByteArrayOutputStream();
+        try (var gzip = new GZIPOutputStream(expected)) {
+            gzip.write(utf8);
+        }
+        assertThat(result.gzipped()).isEqualTo(expected.toByteArray());
+        assertThat(result.sha256()).isEqualTo(
+                HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(expected.toByteArray())));
+        assertThat(result.size()).isEqualTo(utf8.length);
+
+        // Pooled deflaters are reset between files
+        assertThat(GzipSink.compress(utf8).gzipped()).isEqualTo(result.gzipped());
+    }
+
+    @Test
+    void returnsTheDeflaterWhenAFileIsAbandoned() throws Exception {
+        GzipSink.compress(new byte[16]);
+        int pooled = GzipSink.pooledDeflaters();
+
+        try (var sink = new GzipSink()) {
+            sink.writer().write("<p>half a page");
+            assertThat(GzipSink.pooledDeflaters()).isEqualTo(pooled - 1);
+            // The template throws before finish()
+        }
+        assertThat(GzipSink.pooledDeflaters()).isEqualTo(pooled);
+
+        var sink = new GzipSink();
+        sink.finish();
+        sink.close();
+        assertThat(GzipSink.pooledDeflaters()).isEqualTo(pooled);
+    }
+}
@@ -0,0 +1,38 @@
+package org.tanzu.thstudio.publish;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PopulateFilesBodyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void streamsTheFileMapAsJson() throws Exception {
+        var files = new ArrayList<Map.Entry<String, String>>();
+        for (int i = 0; i < 1_000; i++) {
+            files.add(Map.entry("/comics/series/" + i + "/index.html", "hash-" + i));
+        }
+
+        byte[] json;
+        try (var body = new PopulateFilesBody(objectMapper.getFactory(), files)) {
+            json = body.readAllBytes();
+        }
+
+        var parsed = objectMapper.readTree(json).get("files");
+        assertThat(parsed.size()).isEqualTo(1_000);
+        assertThat(parsed.get("/comics/series/999/index.html").asText()).isEqualTo("hash-999");
+    }
+
+    @Test
+    void streamsAnEmptyFileMap() throws Exception {
+        try (var body = new PopulateFilesBody(objectMapper.getFactory(), new ArrayList<>())) {
+            assertThat(new String(body.readAllBytes())).isEqualTo("{\"files\":{}}");
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package org.tanzu.thstudio.publish;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PublishJobServiceTest {
+
+    @Test
+    void concurrentRequestsForTheSameTargetShareOneBuild() throws Exception {
+        var registry = new SimpleMeterRegistry();
+        var history = mock(PublishHistoryRepository.class);
+        var generator = mock(SiteGeneratorService.class);
+        var hosting = mock(FirebaseHostingService.class);
+        var site = mock(GeneratedSite.class);
+        var release = new CountDownLatch(1);
+        when(generator.generate(any(PublishProgressListener.class))).thenAnswer(invocation -> {
+            PublishProgressListener listener = invocation.getArgument(0);
+            listener.stageStarted(PublishStage.RENDER);
+            release.await(5, TimeUnit.SECONDS);
+            return site;
+        });
+        var result = new DeployResult("sites/s/versions/v1", "https://s--preview.web.app", 3, 1, 2, 10, 20);
+        when(hosting.deployToPreview(eq(site), any())).thenReturn(result);
+        var service = new PublishJobService(generator, hosting, planner(), registry, history,
+                mock(DeployedManifestRepository.class));
+
+        var first = service.submit(PublishJob.Target.PREVIEW);
+        var second = service.submit(PublishJob.Target.PREVIEW);
+
+        assertThat(first.attached()).isFalse();
+        assertThat(second.attached()).isTrue();
+        assertThat(second.job()).isSameAs(first.job());
+
+        release.countDown();
+        assertThat(first.job().completion().get(5, TimeUnit.SECONDS)).isEqualTo(result);
+        var view = first.job().view();
+        assertThat(view.state()).isEqualTo(PublishJob.State.SUCCEEDED);
+        assertThat(view.stage()).isEqualTo(PublishStage.RENDER);
+        verify(generator, times(1)).generate(any(PublishProgressListener.class));
+        verify(history, timeout(5000)).save(any(PublishHistory.class));
+        assertThat(registry.get("tauphat.publish.stage").tag("stage", "render").timer().count()).isEqualTo(1);
+        assertThat(registry.get("tauphat.publish.duration").tag("outcome", "succeeded").timer().count())
+                .isEqualTo(1);
+
+        // Once finished, the next request starts a fresh build
+        var third = service.submit(PublishJob.Target.PREVIEW);
+        assertThat(third.attached()).isFalse();
+        assertThat(third.job().id()).isNotEqualTo(first.job().id());
+        third.job().completion().get(5, TimeUnit.SECONDS);
+        assertThat(service.recentJobs()).extracting(PublishJob::id)
+                .containsExactly(third.job().id(), first.job().id());
+    }
+
+    @Test
+    void reusesTheStagedSiteUntilThePlanChanges() throws Exception {
+        var generator = mock(SiteGeneratorService.class);
+        var hosting = mock(FirebaseHostingService.class);
+        var site = mock(GeneratedSite.class);
+        when(generator.generate(any(PublishProgressListener.class))).thenReturn(site);
+        when(hosting.deployToLive(eq(site), any()))
+                .thenReturn(new DeployResult("sites/s/versions/v1", "https://s.web.app", 3, 0, 3, 0, 30));
+        var planner = mock(SiteManifestPlanner.class);
+        when(planner.plan()).thenReturn(manifest("t1"), manifest("t1"), manifest("t2"));
+        var service = new PublishJobService(generator, hosting, planner, new SimpleMeterRegistry(),
+                mock(PublishHistoryRepository.class), mock(DeployedManifestRepository.class));
+
+        service.refreshStagedSite();
+        service.submit(PublishJob.Target.LIVE).job().completion().get(5, TimeUnit.SECONDS);
+        verify(generator, times(1)).generate(any(PublishProgressListener.class));
+
+        // A worker completed the page's image variants, bumping its updated_at; no event is published
+        service.submit(PublishJob.Target.LIVE).job().completion().get(5, TimeUnit.SECONDS);
+        verify(generator, times(2)).generate(any(PublishProgressListener.class));
+    }
+
+    @Test
+    void aJobWaitsForTheStagedRefreshOfTheSamePlan() throws Exception {
+        var generator = mock(SiteGeneratorService.class);
+        var hosting = mock(FirebaseHostingService.class);
+        var site = mock(GeneratedSite.class);
+        var rendering = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(generator.generate(any(PublishProgressListener.class))).thenAnswer(invocation -> {
+            rendering.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return site;
+        });
+        when(hosting.deployToPreview(eq(site), any()))
+                .thenReturn(new DeployResult("sites/s/versions/v1", "https://s--preview.web.app", 3, 0, 3, 0, 30));
+        var planner = mock(SiteManifestPlanner.class);
+        when(planner.plan()).thenReturn(manifest("t1"));
+        var service = new PublishJobService(generator, hosting, planner, new SimpleMeterRegistry(),
+                mock(PublishHistoryRepository.class), mock(DeployedManifestRepository.class));
+
+        var refresh = Thread.ofVirtual().start(service::refreshStagedSite);
+        assertThat(rendering.await(5, TimeUnit.SECONDS)).isTrue();
+        var job = service.submit(PublishJob.Target.PREVIEW).job();
+
+        release.countDown();
+        job.completion().get(5, TimeUnit.SECONDS);
+        refresh.join(5000);
+        verify(generator, times(1)).generate(any(PublishProgressListener.class));
+    }
+
+    @Test
+    void stalenessSurvivesARestart() throws Exception {
+        var generator = mock(SiteGeneratorService.class);
+        var hosting = mock(FirebaseHostingService.class);
+        var site = mock(GeneratedSite.class);
+        when(generator.generate(any(PublishProgressListener.class))).thenReturn(site);
+        when(hosting.deployToLive(eq(site), any()))
+                .thenReturn(new DeployResult("sites/s/versions/v1", "https://s.web.app", 1, 1, 0, 10, 0));
+        var planner = mock(SiteManifestPlanner.class);
+        when(planner.plan()).thenReturn(manifest("t1"), manifest("t1"), manifest("t2"));
+        var deployed = deployedManifests();
+
+        var service = new PublishJobService(generator, hosting, planner, new SimpleMeterRegistry(),
+                mock(PublishHistoryRepository.class), deployed);
+        service.submit(PublishJob.Target.LIVE).job().completion().get(5, TimeUnit.SECONDS);
+
+        // A new process knows what live serves
+        var restarted = new PublishJobService(generator, hosting, planner, new SimpleMeterRegistry(),
+                mock(PublishHistoryRepository.class), deployed);
+        assertThat(restarted.planFiles()).extracting(PublishJobService.PlannedFile::stale).containsExactly(false);
+        assertThat(restarted.planFiles()).extracting(PublishJobService.PlannedFile::stale).containsExactly(true);
+
+        restarted.liveRolledBack();
+        assertThat(deployed.findById(PublishJob.Target.LIVE.name())).isEmpty();
+    }
+
+    /**
+     * A repository keeping deployed manifests in a map, shared by service instances.
+     */
+    private static DeployedManifestRepository deployedManifests() {
+        var rows = new ConcurrentHashMap<String, DeployedManifest>();
+        var repository = mock(DeployedManifestRepository.class);
+        when(repository.save(any(DeployedManifest.class))).thenAnswer(invocation -> {
+            DeployedManifest row = invocation.getArgument(0);
+            rows.put(row.getTarget(), row);
+            return row;
+        });
+        when(repository.findById(any())).thenAnswer(invocation ->
+                Optional.ofNullable(rows.get(invocation.<String>getArgument(0))));
+        doAnswer(invocation -> rows.remove(invocation.<String>getArgument(0)))
+                .when(repository).deleteById(any());
+        return repository;
+    }
+
+    private static SiteManifestPlanner planner() {
+        var planner = mock(SiteManifestPlanner.class);
+        when(planner.plan()).thenReturn(new SiteManifest(List.of()));
+        return planner;
+    }
+
+    private static SiteManifest manifest(String pageUpdatedAt) {
+        return new SiteManifest(List.of(
+                new SiteManifest.Entry("comics/s/1/index.html", "issue:1", GeneratedSite.HTML, pageUpdatedAt)));
+    }
+}
@@ -0,0 +1,68 @@
+package org.tanzu.thstudio.publish;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PublishJobTest {
+
+    @Test
+    void aStalledClientDoesNotHoldUpTheBuild() throws Exception {
+        var job = new PublishJob(PublishJob.Target.PREVIEW, new SiteManifest(List.of()));
+        var stalled = new RecordingEmitter();
+        job.attach(stalled);
+
+        // Every progress step is reported while the client is still stalled on the first event
+        var reported = new CountDownLatch(1);
+        Thread.ofVirtual().start(() -> {
+            job.stageStarted(PublishStage.UPLOAD);
+            for (int i = 1; i <= 100; i++) {
+                job.progress(PublishStage.UPLOAD, i, 100);
+            }
+            job.succeed(new DeployResult("v1", "https://s--preview.web.app", 100, 100, 0, 1, 0));
+            reported.countDown();
+        });
+        assertThat(reported.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(job.view().state()).isEqualTo(PublishJob.State.SUCCEEDED);
+
+        stalled.resume.countDown();
+        assertThat(stalled.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(stalled.events).hasSize(103);
+        assertThat(stalled.events.getFirst()).isEqualTo("status");
+        assertThat(stalled.events.get(1)).isEqualTo("stage");
+        assertThat(stalled.events.getLast()).isEqualTo("complete");
+    }
+
+    /**
+     * Records event names, blocking on the first send until {@code resume} is released.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        final CountDownLatch resume = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+        final List<String> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                resume.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            String raw = builder.build().iterator().next().getData().toString();
+            events.add(raw.substring("event:".length(), raw.indexOf('\n')));
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+    }
+}
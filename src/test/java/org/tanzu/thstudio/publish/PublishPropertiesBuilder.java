@@ -0,0 +1,76 @@
+package org.tanzu.thstudio.publish;
+
+/**
+ * Builds {@link PublishProperties} for tests, so a test only spells out the property group it
+ * exercises. Groups left unset get their configured defaults.
+ */
+final class PublishPropertiesBuilder {
+
+    private PublishProperties.RenderProperties render;
+    private PublishProperties.TemplateProperties templates;
+    private PublishProperties.StorageProperties storage;
+    private PublishProperties.ArtifactCacheProperties artifactCache;
+    private PublishProperties.UploadProperties upload;
+    private PublishProperties.ReleaseProperties releases;
+    private PublishProperties.StagingProperties staging;
+
+    private PublishPropertiesBuilder() {
+    }
+
+    static PublishPropertiesBuilder publishProperties() {
+        return new PublishPropertiesBuilder();
+    }
+
+    /**
+     * Starts from existing properties, e.g. those bound in an application context.
+     */
+    static PublishPropertiesBuilder from(PublishProperties properties) {
+        return publishProperties()
+                .render(properties.render())
+                .templates(properties.templates())
+                .storage(properties.storage())
+                .artifactCache(properties.artifactCache())
+                .upload(properties.upload())
+                .releases(properties.releases())
+                .staging(properties.staging());
+    }
+
+    PublishPropertiesBuilder render(PublishProperties.RenderProperties render) {
+        this.render = render;
+        return this;
+    }
+
+    PublishPropertiesBuilder templates(PublishProperties.TemplateProperties templates) {
+        this.templates = templates;
+        return this;
+    }
+
+    PublishPropertiesBuilder storage(PublishProperties.StorageProperties storage) {
+        this.storage = storage;
+        return this;
+    }
+
+    PublishPropertiesBuilder artifactCache(PublishProperties.ArtifactCacheProperties artifactCache) {
+        this.artifactCache = artifactCache;
+        return this;
+    }
+
+    PublishPropertiesBuilder upload(PublishProperties.UploadProperties upload) {
+        this.upload = upload;
+        return this;
+    }
+
+    PublishPropertiesBuilder releases(PublishProperties.ReleaseProperties releases) {
+        this.releases = releases;
+        return this;
+    }
+
+    PublishPropertiesBuilder staging(PublishProperties.StagingProperties staging) {
+        this.staging = staging;
+        return this;
+    }
+
+    PublishProperties build() {
+        return new PublishProperties(render, templates, storage, artifactCache, upload, releases, staging);
+    }
+}
@@ -0,0 +1,224 @@
+package org.tanzu.thstudio.publish;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.tanzu.thstudio.image.ImageProcessingService;
+import org.tanzu.thstudio.image.ImageStatus;
+import org.tanzu.thstudio.portfolio.PortfolioItem;
+import org.tanzu.thstudio.portfolio.PortfolioItemRepository;
+import org.tanzu.thstudio.portfolio.PortfolioSet;
+import org.tanzu.thstudio.portfolio.PortfolioSetRepository;
+import org.tanzu.thstudio.site.SiteConfig;
+import org.tanzu.thstudio.webcomic.WebcomicIssue;
+import org.tanzu.thstudio.webcomic.WebcomicIssueRepository;
+import org.tanzu.thstudio.webcomic.WebcomicPage;
+import org.tanzu.thstudio.webcomic.WebcomicPageImageTarget;
+import org.tanzu.thstudio.webcomic.WebcomicPageRepository;
+import org.tanzu.thstudio.webcomic.WebcomicSeries;
+import org.tanzu.thstudio.webcomic.WebcomicSeriesRepository;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.tanzu.thstudio.publish.PublishPropertiesBuilder.publishProperties;
+
+@SpringBootTest
+@ActiveProfiles("local")
+class SiteGeneratorServiceTest {
+
+    @Autowired SiteRendererService renderer;
+    @Autowired PublishSnapshotLoader snapshotLoader;
+    @Autowired ContentStore contentStore;
+    @Autowired CompressedArtifactCache artifactCache;
+    @Autowired SiteManifestPlanner planner;
+    @Autowired WebcomicSeriesRepository seriesRepository;
+    @Autowired WebcomicIssueRepository issueRepository;
+    @Autowired WebcomicPageRepository pageRepository;
+    @Autowired PortfolioItemRepository portfolioRepository;
+    @Autowired PortfolioSetRepository portfolioSetRepository;
+    @Autowired WebcomicPageImageTarget pageImageTarget;
+
+    @BeforeEach
+    void seedContent() {
+        pageRepository.deleteAll();
+        issueRepository.deleteAll();
+        seriesRepository.deleteAll();
+        portfolioRepository.deleteAll();
+        portfolioSetRepository.deleteAll();
+
+        for (int s = 1; s <= 2; s++) {
+            var series = new WebcomicSeries();
+            series.setTitle("Series " + s);
+            series.setSlug("series-" + s);
+            series.setSortOrder(s);
+            series = seriesRepository.save(series);
+            for (int i = 1; i <= 6; i++) {
+                var issue = new WebcomicIssue();
+                issue.setSeries(series);
+                issue.setIssueNumber(i);
+                issue.setTitle("Issue " + i);
+                issue.setPublished(true);
+                issue = issueRepository.save(issue);
+                for (int p = 1; p <= 3; p++) {
+                    var page = new WebcomicPage();
+                    page.setIssue(issue);
+                    page.setPageNumber(p);
+                    page.setImageUrl("https://example.com/" + s + "/" + i + "/" + p + ".png");
+                    pageRepository.save(page);
+                }
+            }
+        }
+
+        var set = new PortfolioSet();
+        set.setTitle("Sketches");
+        set.setIconImageUrl("https://example.com/set.png");
+        set = portfolioSetRepository.save(set);
+        for (int k = 0; k < 4; k++) {
+            var item = new PortfolioItem();
+            item.setTitle("Item " + k);
+            item.setImageUrl("https://example.com/item-" + k + ".png");
+            item.setSortOrder(k);
+            if (k % 2 == 0) item.setSet(set);
+            portfolioRepository.save(item);
+        }
+    }
+
+    @Test
+    void parallelBuildMatchesSequentialBuild() {
+        var sequential = generator(false, 1).generate();
+        var parallel = generator(false, 8).generate();
+
+        assertThat(parallel.getFiles().keySet()).containsExactlyElementsOf(sequential.getFiles().keySet());
+        sequential.getFiles().forEach((path, entry) ->
+                assertThat(parallel.getFiles().get(path).hash()).as(path).isEqualTo(entry.hash()));
+    }
+
+    @Test
+    void rebuildingUnchangedContentIsByteIdentical() throws Exception {
+        var first = generator(false, 8).generate();
+        // Past the gzip header's one-second mtime resolution
+        Thread.sleep(1100);
+        var second = generator(false, 8).generate();
+
+        assertThat(second.getFiles().keySet()).containsExactlyElementsOf(first.getFiles().keySet());
+        for (var path : first.getFiles().keySet()) {
+            try (var a = first.getFiles().get(path).gzipped().openStream();
+                 var b = second.getFiles().get(path).gzipped().openStream()) {
+                assertThat(b.readAllBytes()).as(path).isEqualTo(a.readAllBytes());
+            }
+        }
+    }
+
+    @Test
+    void incrementalBuildOnlyRerendersChangedPages() throws Exception {
+        var generator = generator(true, 4);
+        var first = generator.generate();
+        assertThat(generator.generate().reusedCount()).isEqualTo(first.fileCount() - 9);
+
+        var series = seriesRepository.findBySlug("series-2").orElseThrow();
+        var issue = issueRepository.findBySeries_IdAndIssueNumber(series.getId(), 3).orElseThrow();
+        issue.setTitle("Renamed");
+        issueRepository.save(issue);
+
+        var next = generator.generate();
+        // The issue's reader, its two neighbours and the series detail page
+        assertThat(next.reusedCount()).isEqualTo(first.fileCount() - 9 - 4);
+        try (var page = next.getFiles().get("comics/series-2/2/index.html").openStream()) {
+            assertThat(new String(page.readAllBytes(), StandardCharsets.UTF_8)).contains("Renamed");
+        }
+    }
+
+    @Test
+    void plannedManifestMatchesGeneratedFilesAndTracksChanges() {
+        var site = generator(false, 4).generate();
+        var manifest = planner.plan();
+        assertThat(manifest.stamps().keySet()).containsExactlyInAnyOrderElementsOf(site.getFiles().keySet());
+        assertThat(manifest.entries()).allSatisfy(entry ->
+                assertThat(entry.contentType()).isEqualTo(site.getFiles().get(entry.path()).contentType()));
+
+        var series = seriesRepository.findBySlug("series-2").orElseThrow();
+        var issue = issueRepository.findBySeries_IdAndIssueNumber(series.getId(), 3).orElseThrow();
+        issue.setTitle("Renamed");
+        issueRepository.save(issue);
+
+        var next = planner.plan();
+        var stale = next.entries().stream()
+                .filter(entry -> next.isStale(entry, manifest.stamps()))
+                .map(SiteManifest.Entry::path)
+                .toList();
+        assertThat(stale).containsExactlyInAnyOrder(
+                "comics/series-2/index.html",
+                "comics/series-2/2/index.html",
+                "comics/series-2/3/index.html",
+                "comics/series-2/4/index.html");
+    }
+
+    @Test
+    void leavesOutImagesWhoseVariantsAreNotReady() throws Exception {
+        var series = seriesRepository.findBySlug("series-1").orElseThrow();
+        var issue = issueRepository.findBySeries_IdAndIssueNumber(series.getId(), 2).orElseThrow();
+        var page = pageRepository.findAll().stream()
+                .filter(p -> p.getIssueId().equals(issue.getId()) && p.getPageNumber() == 1)
+                .findFirst().orElseThrow();
+        page.setImageStatus(ImageStatus.PROCESSING);
+        pageRepository.save(page);
+        var item = portfolioRepository.findAll().stream()
+                .filter(i -> i.getTitle().equals("Item 1"))
+                .findFirst().orElseThrow();
+        item.setImageStatus(ImageStatus.FAILED);
+        portfolioRepository.save(item);
+
+        var site = generator(false, 4).generate();
+
+        var reader = read(site, "comics/series-1/2/index.html");
+        assertThat(reader).doesNotContain("https://example.com/1/2/1.png").contains("https://example.com/1/2/2.png");
+        for (var path : List.of("index.html", "portfolio/index.html")) {
+            assertThat(read(site, path)).as(path).doesNotContain("https://example.com/item-1.png");
+        }
+    }
+
+    @Test
+    void keepsAnalyticsAheadOfTheSeoMetaInThePageHead() {
+        var config = new SiteConfig();
+        config.setSiteName("TaupHat");
+        config.setGoogleAnalyticsId("G-TEST");
+        var out = new StringWriter();
+        renderer.renderAbout(out, renderer.renderLayout(config, 2026));
+
+        var html = out.toString();
+        assertThat(html).contains("gtag/js?id=G-TEST");
+        assertThat(html.indexOf("gtag/js?id=G-TEST")).isGreaterThan(html.indexOf("<title>"))
+                .isLessThan(html.indexOf("name=\"description\""));
+        assertThat(html.indexOf("name=\"description\"")).isLessThan(html.indexOf("rel=\"icon\""));
+    }
+
+    @Test
+    void planChangesWhenAWorkerCompletesImageVariants() {
+        var before = planner.plan();
+        var page = pageRepository.findAll().getFirst();
+
+        // A worker process only writes the row; no event reaches this instance
+        var variants = new ImageProcessingService.VariantUrls("https://example.com/opt.jpg",
+                "https://example.com/thumb.jpg");
+        assertThat(pageImageTarget.complete(page.getId(), page.getImageUrl(), variants)).isTrue();
+
+        assertThat(planner.plan().digest()).isNotEqualTo(before.digest());
+    }
+
+    private static String read(GeneratedSite site, String path) throws IOException {
+        try (var in = site.getFiles().get(path).openStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private SiteGeneratorService generator(boolean incremental, int parallelism) {
+        return new SiteGeneratorService(renderer, snapshotLoader, contentStore, artifactCache,
+                publishProperties().render(new PublishProperties.RenderProperties(incremental, parallelism)).build());
+    }
+}